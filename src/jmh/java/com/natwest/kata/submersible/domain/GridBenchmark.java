@@ -0,0 +1,82 @@
+package com.natwest.kata.submersible.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Obstacle lookups at varying obstacle densities. The 64-cube uses the bitset store, the 512-cube
+ * (over the dense limit) the chunked one. Lookup positions are fixed per seed, so runs compare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GridBenchmark {
+
+    private static final int LOOKUPS = 1024;
+    private static final long SEED = 42;
+
+    @Param({"64", "512"})
+    int size;
+
+    @Param({"0.001", "0.01", "0.1"})
+    double density;
+
+    private Grid grid;
+    private final int[] xs = new int[LOOKUPS];
+    private final int[] ys = new int[LOOKUPS];
+    private final int[] zs = new int[LOOKUPS];
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        grid = new Grid(size, size, size);
+        // Obstacles sit in a 64-cube corner so the big grid stays quick to build at high density
+        int span = Math.min(size, 64);
+        long obstacles = (long) (density * span * span * span);
+        for (long i = 0; i < obstacles; i++) {
+            grid.addObstacle(random.nextInt(span), random.nextInt(span), random.nextInt(span));
+        }
+        grid.freeze();
+        for (int i = 0; i < LOOKUPS; i++) {
+            xs[i] = random.nextInt(span);
+            ys[i] = random.nextInt(span);
+            zs[i] = random.nextInt(span);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int isObstacle() {
+        int hits = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (grid.isObstacle(xs[i], ys[i], zs[i])) hits++;
+        }
+        return hits;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int freeSteps() {
+        int steps = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            steps += grid.freeSteps(xs[i], ys[i], zs[i], 1, 0, 0, size - 1 - xs[i]);
+        }
+        return steps;
+    }
+}
@@ -0,0 +1,66 @@
+package com.natwest.kata.submersible.domain;
+
+import com.natwest.kata.submersible.enums.Direction;
+import com.natwest.kata.submersible.enums.PathMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-step moves, which record one position each, per path mode. Each invocation drives a
+ * fresh probe along a row and back, so the path stays the same length from one call to the next.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ProbeBenchmark {
+
+    private static final int LENGTH = 1024;
+
+    @Param({"FULL", "NONE", "RUN_LENGTH"})
+    PathMode pathMode;
+
+    private Grid grid;
+
+    @Setup
+    public void setUp() {
+        grid = new Grid(LENGTH, 4, 4);
+        // Off the probe's row, but lookups still go through the obstacle store
+        grid.addObstacle(LENGTH / 2, 1, 0);
+        grid.freeze();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2 * (LENGTH - 1))
+    public long moveForward() {
+        Probe probe = new Probe(0, 0, 0, Direction.EAST, grid, PathRecorder.of(pathMode, 0));
+        for (int i = 1; i < LENGTH; i++) probe.moveForward();
+        probe.turnLeft();
+        probe.turnLeft();
+        for (int i = 1; i < LENGTH; i++) probe.moveForward();
+        return probe.getVisitedCount();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2 * (LENGTH - 1))
+    public long advance() {
+        Probe probe = new Probe(0, 0, 0, Direction.EAST, grid, PathRecorder.of(pathMode, 0));
+        probe.advance(true, LENGTH - 1);
+        probe.advance(false, LENGTH - 1);
+        return probe.getVisitedCount();
+    }
+}
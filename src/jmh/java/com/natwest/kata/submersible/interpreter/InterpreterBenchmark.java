@@ -0,0 +1,85 @@
+package com.natwest.kata.submersible.interpreter;
+
+import com.natwest.kata.submersible.domain.Grid;
+import com.natwest.kata.submersible.domain.PathRecorder;
+import com.natwest.kata.submersible.domain.Probe;
+import com.natwest.kata.submersible.enums.Direction;
+import com.natwest.kata.submersible.enums.PathMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interpreter throughput on the same command sequence given as a list, a packed program and a
+ * script. The sequence is a seeded random walk over a grid with obstacles, so moves block and
+ * runs of identical moves vary in length. The path is not recorded, to isolate the interpreter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class InterpreterBenchmark {
+
+    private static final long SEED = 7;
+    private static final char[] COMMANDS = {'F', 'F', 'F', 'B', 'L', 'R', 'U', 'D'};
+
+    @Param({"16", "1000000"})
+    int commands;
+
+    private Grid grid;
+    private List<String> list;
+    private String program;
+    private Program script;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        grid = new Grid(64, 64, 64);
+        for (int i = 0; i < 4096; i++) {
+            int x = random.nextInt(64), y = random.nextInt(64), z = random.nextInt(64);
+            if (x + y + z > 0) grid.addObstacle(x, y, z); // keep the start free
+        }
+        grid.freeze();
+
+        StringBuilder packed = new StringBuilder(commands);
+        for (int i = 0; i < commands; i++) packed.append(COMMANDS[random.nextInt(COMMANDS.length)]);
+        program = packed.toString();
+        list = new ArrayList<>(commands);
+        for (int i = 0; i < commands; i++) list.add(String.valueOf(program.charAt(i)));
+        script = Program.compile(program);
+    }
+
+    @Benchmark
+    public ExecutionResult commandList() {
+        return new CommandInterpreter().execute(list, probe());
+    }
+
+    @Benchmark
+    public ExecutionResult packedProgram() {
+        return new CommandInterpreter().execute(program, probe());
+    }
+
+    @Benchmark
+    public ExecutionResult compiledScript() {
+        return new CommandInterpreter().execute(script, probe());
+    }
+
+    private Probe probe() {
+        return new Probe(0, 0, 0, Direction.NORTH, grid, PathRecorder.of(PathMode.NONE, 0));
+    }
+}
@@ -0,0 +1,101 @@
+package com.natwest.kata.submersible.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.natwest.kata.submersible.api.dto.CoordinateDto;
+import com.natwest.kata.submersible.api.dto.GridDto;
+import com.natwest.kata.submersible.api.dto.RunRequest;
+import com.natwest.kata.submersible.api.dto.RunResponse;
+import com.natwest.kata.submersible.enums.Direction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A whole run as the {@code /run} endpoint performs it, minus HTTP: grid construction, execution,
+ * DTO mapping and, in {@link #runAndSerialize}, writing the JSON response with the full path.
+ * <ul>
+ *   <li>{@code small}: 8-cube, a dozen commands</li>
+ *   <li>{@code dense}: 64-cube with 26,000 inline obstacles (about a tenth of the cells)</li>
+ *   <li>{@code long}: 64-cube, a 100,000-command packed program</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ProbeRunBenchmark {
+
+    private static final long SEED = 11;
+    private static final String MOVES = "FFFFBLRUD";
+
+    @Param({"small", "dense", "long"})
+    String workload;
+
+    // The benchmark stores no terrains, so nothing is ever written here
+    private final ProbeRunService service = ProbeRunServices.create(Path.of("target", "jmh-terrain"));
+    private final ObjectMapper mapper = new ObjectMapper();
+    private RunRequest request;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        request = new RunRequest();
+        request.setStart(new CoordinateDto(0, 0, 0));
+        request.setDirection(Direction.NORTH);
+        switch (workload) {
+            case "small" -> {
+                request.setGrid(new GridDto(8, 8, 8));
+                request.setObstacles(List.of(new CoordinateDto(0, 3, 0), new CoordinateDto(2, 2, 0)));
+                request.setCommands(List.of("F", "F", "R", "F", "F", "L", "F", "U", "F", "B", "X", "D"));
+            }
+            case "dense" -> {
+                request.setGrid(new GridDto(64, 64, 64));
+                List<CoordinateDto> obstacles = new ArrayList<>();
+                for (int i = 0; i < 26_000; i++) {
+                    int x = random.nextInt(64), y = random.nextInt(64), z = random.nextInt(64);
+                    if (x + y + z > 0) obstacles.add(new CoordinateDto(x, y, z));
+                }
+                request.setObstacles(obstacles);
+                request.setProgram(program(random, 1_000));
+            }
+            case "long" -> {
+                request.setGrid(new GridDto(64, 64, 64));
+                request.setProgram(program(random, 100_000));
+            }
+            default -> throw new IllegalArgumentException("Unknown workload " + workload);
+        }
+    }
+
+    @Benchmark
+    public RunResponse run() {
+        return service.run(request);
+    }
+
+    @Benchmark
+    public byte[] runAndSerialize() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(service.run(request));
+    }
+
+    private static String program(SplittableRandom random, int length) {
+        StringBuilder program = new StringBuilder(length);
+        for (int i = 0; i < length; i++) program.append(MOVES.charAt(random.nextInt(MOVES.length())));
+        return program.toString();
+    }
+}
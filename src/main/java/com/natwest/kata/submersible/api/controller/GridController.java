@@ -0,0 +1,50 @@
+package com.natwest.kata.submersible.api.controller;
+
+import com.natwest.kata.submersible.api.dto.GridRegistrationRequest;
+import com.natwest.kata.submersible.api.dto.GridRegistrationResponse;
+import com.natwest.kata.submersible.api.dto.GridRegistryStatsDto;
+import com.natwest.kata.submersible.api.error.ErrorResponse;
+import com.natwest.kata.submersible.service.GridRegistry;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/grids")
+@Tag(name = "Grid Registry", description = "Register grids once and reference them from probe runs by ID.")
+public class GridController {
+
+    private final GridRegistry registry;
+
+    public GridController(GridRegistry registry) {
+        this.registry = registry;
+    }
+
+    @PostMapping
+    @Operation(summary = "Register a grid with its obstacles", description = """
+            Builds and validates the grid once and keeps it in memory as an immutable instance.
+            Returns a content-hash ID that run requests can pass as 'gridId'. Registered grids may be
+            evicted (least recently used first); runs referencing an evicted ID get 404 and should re-register.
+            """)
+    @ApiResponses({@ApiResponse(responseCode = "201", description = "Grid registered.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = GridRegistrationResponse.class))), @ApiResponse(responseCode = "400", description = "Malformed JSON or bean validation failure.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))), @ApiResponse(responseCode = "422", description = "Business validation error (e.g., obstacle out of bounds).", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))})
+    public ResponseEntity<GridRegistrationResponse> register(@RequestBody @Valid GridRegistrationRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(registry.register(request));
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Grid registry statistics", description = "Current size, capacity, hit/miss and eviction counts.")
+    public ResponseEntity<GridRegistryStatsDto> stats() {
+        return ResponseEntity.ok(registry.stats());
+    }
+}
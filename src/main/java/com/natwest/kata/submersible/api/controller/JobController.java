@@ -0,0 +1,64 @@
+package com.natwest.kata.submersible.api.controller;
+
+import com.natwest.kata.submersible.api.dto.JobResponse;
+import com.natwest.kata.submersible.api.dto.RunRequest;
+import com.natwest.kata.submersible.api.error.ErrorResponse;
+import com.natwest.kata.submersible.service.JobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/jobs")
+@Tag(name = "Probe Jobs", description = "Run probes in the background and poll for the result.")
+public class JobController {
+
+    private final JobService jobService;
+
+    public JobController(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @PostMapping
+    @Operation(summary = "Submit a probe run as a background job", description = """
+            Accepts the same body as /api/probe/run and returns a job ID straight away. Jobs run on a bounded
+            worker pool; when all workers are busy and the queue is full the submission is rejected with 429
+            and should be retried later. Results are kept for a limited time after the job finishes.
+            """)
+    @ApiResponses({@ApiResponse(responseCode = "202", description = "Job queued.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = JobResponse.class))), @ApiResponse(responseCode = "400", description = "Malformed JSON or bean validation failure.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))), @ApiResponse(responseCode = "422", description = "Invalid command source (e.g., script syntax error).", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))), @ApiResponse(responseCode = "429", description = "Job queue is full; retry after the Retry-After delay.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))})
+    public ResponseEntity<JobResponse> submit(@RequestBody @Valid RunRequest request) {
+        JobResponse job = jobService.submit(request);
+        return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.getId())).body(job);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get a job's status and result", description = """
+            Returns the job's status, plus the run result once it has succeeded or the error if it failed.
+            With 'wait' set, the call long-polls: it answers as soon as the job finishes, or after 'wait'
+            seconds with its current status. Waiting does not occupy a request thread.
+            """)
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "Current job state.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = JobResponse.class))), @ApiResponse(responseCode = "404", description = "Unknown job, or its result has expired.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))), @ApiResponse(responseCode = "422", description = "'wait' is out of range.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))})
+    public CompletableFuture<ResponseEntity<JobResponse>> get(
+            @PathVariable String id,
+            @Parameter(description = "Seconds to wait for the job to finish, 0 to " + JobService.MAX_WAIT_SECONDS + ".")
+            @RequestParam(defaultValue = "0") long wait) {
+        return jobService.await(id, Duration.ofSeconds(wait)).thenApply(ResponseEntity::ok);
+    }
+}
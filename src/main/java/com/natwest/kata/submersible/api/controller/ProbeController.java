@@ -1,9 +1,15 @@
 package com.natwest.kata.submersible.api.controller;
 
+import com.natwest.kata.submersible.api.dto.BatchRunRequest;
+import com.natwest.kata.submersible.api.dto.BatchRunResponse;
+import com.natwest.kata.submersible.api.dto.RunCacheStatsDto;
 import com.natwest.kata.submersible.api.dto.RunRequest;
 import com.natwest.kata.submersible.api.dto.RunResponse;
 import com.natwest.kata.submersible.api.error.ErrorResponse;
+import com.natwest.kata.submersible.service.BatchRunService;
 import com.natwest.kata.submersible.service.ProbeRunService;
+import com.natwest.kata.submersible.service.RunResultCache;
+import com.natwest.kata.submersible.service.StreamingRunService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -11,31 +17,85 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/api/probe")
 @Tag(name = "Submersible Probe", description = "Control and simulate a submersible probe moving in a 3D grid with obstacles.")
 public class ProbeController {
 
-    private final ProbeRunService service;
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final RunResultCache cache;
+    private final StreamingRunService streamingService;
+    private final BatchRunService batchService;
 
-    public ProbeController(ProbeRunService service) {
-        this.service = service;
+    public ProbeController(RunResultCache cache, StreamingRunService streamingService, BatchRunService batchService) {
+        this.cache = cache;
+        this.streamingService = streamingService;
+        this.batchService = batchService;
     }
 
     @PostMapping("/run")
     @Operation(summary = "Execute a full probe command run", description = """
             Accepts grid size, starting position, facing direction, command list and obstacles.
             Returns final coordinates, visited path, and execution statistics.
+            Results are cached by request content, and identical requests running at the same time are computed once.
             """)
     @ApiResponses({@ApiResponse(responseCode = "200", description = "Probe run completed successfully.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = RunResponse.class))), @ApiResponse(responseCode = "400", description = "Malformed JSON or bean validation failure.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))), @ApiResponse(responseCode = "422", description = "Business validation error (e.g., obstacle out of bounds).", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))})
     public ResponseEntity<RunResponse> run(@RequestBody @Valid RunRequest request) {
-        var resp = service.run(request);
+        var resp = cache.run(request);
         return ResponseEntity.ok(resp);
     }
+
+    @PostMapping(value = "/run/stream", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Execute a probe run while the request is still being read", description = """
+            Same body and response as /run, but the body is parsed as a stream: commands are executed as
+            they arrive instead of being collected into a list first, so very long programs do not have to
+            fit in memory. The 'commands' array must be the last field; combine with a reduced pathMode to
+            keep the response small as well.
+            """, requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(mediaType = "application/json", schema = @Schema(implementation = RunRequest.class))))
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "Probe run completed successfully.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = RunResponse.class))), @ApiResponse(responseCode = "400", description = "Malformed JSON or bean validation failure.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))), @ApiResponse(responseCode = "422", description = "Business validation error, or 'commands' is not the last field.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))})
+    public ResponseEntity<RunResponse> runStreamed(InputStream body) throws IOException {
+        return ResponseEntity.ok(streamingService.run(body));
+    }
+
+    @PostMapping(value = "/run/ndjson", produces = NDJSON)
+    @Operation(summary = "Execute a probe run and stream the path as it is visited", description = """
+            Same request as /run. The response is newline-delimited JSON written while the probe moves:
+            one {"visited":"(x,y,z)"} line per position, then a final {"result":{...}} line with the final
+            state, execution statistics and summary. Memory and time to first byte do not depend on path length.
+            Supports pathMode FULL (default) and NONE.
+            """)
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "Run started; path and result follow as NDJSON lines.", content = @Content(mediaType = NDJSON)), @ApiResponse(responseCode = "400", description = "Malformed JSON or bean validation failure.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))), @ApiResponse(responseCode = "422", description = "Business validation error (e.g., obstacle out of bounds).", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))})
+    public ResponseEntity<StreamingResponseBody> runNdjson(@RequestBody @Valid RunRequest request) {
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(streamingService.runAsNdjson(request));
+    }
+
+    @PostMapping("/runs")
+    @Operation(summary = "Execute many probe runs on one shared grid", description = """
+            Builds the grid (with its obstacles, terrain or registered grid) once and runs every probe on it
+            in parallel. Results are returned in request order; a probe whose start or commands are invalid
+            gets an error item instead of a result, without failing the rest of the batch.
+            """)
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "Batch completed; see each item for its result or error.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = BatchRunResponse.class))), @ApiResponse(responseCode = "400", description = "Malformed JSON or bean validation failure.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))), @ApiResponse(responseCode = "422", description = "The shared grid setup is invalid (e.g., obstacle out of bounds).", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))})
+    public ResponseEntity<BatchRunResponse> runBatch(@RequestBody @Valid BatchRunRequest request) {
+        return ResponseEntity.ok(batchService.run(request));
+    }
+
+    @GetMapping("/run/cache/stats")
+    @Operation(summary = "Run result cache statistics", description = "Current size and weight, hit/miss, coalesced and eviction counts, and hit ratio.")
+    public ResponseEntity<RunCacheStatsDto> cacheStats() {
+        return ResponseEntity.ok(cache.stats());
+    }
 }
@@ -0,0 +1,87 @@
+package com.natwest.kata.submersible.api.controller;
+
+import com.natwest.kata.submersible.api.dto.RunRequest;
+import com.natwest.kata.submersible.api.dto.RunResponse;
+import com.natwest.kata.submersible.service.ProbeRunMetrics;
+import com.natwest.kata.submersible.service.ProbeRunMetrics.Phase;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.lang.reflect.Type;
+
+/**
+ * Times the web ends of a probe run: reading a {@link RunRequest} body and writing a
+ * {@link RunResponse} body.
+ * <p>
+ * Binding is measured around the message converter. Serialization starts when the response body
+ * is handed to the converter and ends once the request completes, so it includes flushing the
+ * body to the client. It is registered as an interceptor by {@link RunMetricsWebConfig}.
+ */
+@ControllerAdvice
+public class RunMetricsAdvice extends RequestBodyAdviceAdapter implements ResponseBodyAdvice<Object>, HandlerInterceptor {
+
+    private static final String BINDING_START = RunMetricsAdvice.class.getName() + ".bindingStart";
+    private static final String SERIALIZATION_START = RunMetricsAdvice.class.getName() + ".serializationStart";
+
+    private final ProbeRunMetrics metrics;
+
+    public RunMetricsAdvice(ProbeRunMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean supports(MethodParameter parameter, Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return targetType == RunRequest.class;
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage input, MethodParameter parameter, Type targetType,
+                                           Class<? extends HttpMessageConverter<?>> converterType) {
+        RequestContextHolder.currentRequestAttributes()
+                .setAttribute(BINDING_START, System.nanoTime(), RequestAttributes.SCOPE_REQUEST);
+        return input;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage input, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        Object start = RequestContextHolder.currentRequestAttributes().getAttribute(BINDING_START, RequestAttributes.SCOPE_REQUEST);
+        if (start instanceof Long nanos) metrics.record(Phase.BINDING, System.nanoTime() - nanos);
+        return body;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body instanceof RunResponse && request instanceof ServletServerHttpRequest servlet) {
+            servlet.getServletRequest().setAttribute(SERIALIZATION_START, System.nanoTime());
+        }
+        return body;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(SERIALIZATION_START) instanceof Long start) {
+            metrics.record(Phase.SERIALIZATION, System.nanoTime() - start);
+        }
+    }
+}
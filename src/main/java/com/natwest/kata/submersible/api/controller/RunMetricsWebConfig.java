@@ -0,0 +1,21 @@
+package com.natwest.kata.submersible.api.controller;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/** Completes the serialization timing of {@link RunMetricsAdvice}, which needs the end of the request. */
+@Configuration
+public class RunMetricsWebConfig implements WebMvcConfigurer {
+
+    private final RunMetricsAdvice advice;
+
+    public RunMetricsWebConfig(RunMetricsAdvice advice) {
+        this.advice = advice;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(advice).addPathPatterns("/api/**");
+    }
+}
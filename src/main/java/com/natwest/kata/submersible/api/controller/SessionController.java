@@ -0,0 +1,94 @@
+package com.natwest.kata.submersible.api.controller;
+
+import com.natwest.kata.submersible.api.dto.SessionCommandsRequest;
+import com.natwest.kata.submersible.api.dto.SessionRequest;
+import com.natwest.kata.submersible.api.dto.SessionResponse;
+import com.natwest.kata.submersible.api.error.ErrorResponse;
+import com.natwest.kata.submersible.enums.TelemetryPolicy;
+import com.natwest.kata.submersible.service.SessionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/sessions")
+@Tag(name = "Probe Sessions", description = "Keep a probe on the server and drive it with incremental command batches.")
+public class SessionController {
+
+    private final SessionService sessionService;
+
+    public SessionController(SessionService sessionService) {
+        this.sessionService = sessionService;
+    }
+
+    @PostMapping
+    @Operation(summary = "Create a probe session", description = """
+            Builds the grid and places the probe as a run would, then keeps it on the server. Send commands to
+            /api/sessions/{id}/commands; each batch continues from the current state. Sessions left idle for
+            longer than the configured TTL are dropped.
+            """)
+    @ApiResponses({@ApiResponse(responseCode = "201", description = "Session created.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SessionResponse.class))), @ApiResponse(responseCode = "400", description = "Malformed JSON or bean validation failure.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))), @ApiResponse(responseCode = "422", description = "Business validation error (e.g., start on an obstacle).", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))), @ApiResponse(responseCode = "429", description = "Too many live sessions.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))})
+    public ResponseEntity<SessionResponse> create(@RequestBody @Valid SessionRequest request) {
+        SessionResponse session = sessionService.create(request);
+        return ResponseEntity.created(URI.create("/api/sessions/" + session.getId())).body(session);
+    }
+
+    @PostMapping("/{id}/commands")
+    @Operation(summary = "Send a command batch to a session", description = """
+            Executes the commands from the probe's current state. The response holds only this batch's changes:
+            the newly visited positions and the batch's statistics, plus the session's current state and totals.
+            """)
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "Batch executed.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SessionResponse.class))), @ApiResponse(responseCode = "400", description = "Malformed JSON or bean validation failure.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))), @ApiResponse(responseCode = "404", description = "Unknown or expired session.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))), @ApiResponse(responseCode = "422", description = "Script syntax error.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))})
+    public ResponseEntity<SessionResponse> execute(@PathVariable String id, @RequestBody @Valid SessionCommandsRequest request) {
+        return ResponseEntity.ok(sessionService.execute(id, request));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get a session's current state", description = "Current probe state and session totals.")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "Current state.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SessionResponse.class))), @ApiResponse(responseCode = "404", description = "Unknown or expired session.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))})
+    public ResponseEntity<SessionResponse> get(@PathVariable String id) {
+        return ResponseEntity.ok(sessionService.get(id));
+    }
+
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Follow a session's probe live", description = """
+            Server-sent event stream of the probe's telemetry: a 'state' event with its current state, then a 'move',
+            'turn' or 'blocked' event as each happens while command batches run. Every event carries the full current
+            state. A subscriber that cannot keep up loses events instead of slowing the probe: with policy DROP the
+            newest events are discarded, with COALESCE (default) only the most recent one is kept until it catches up.
+            The next event received reports how many were missed in 'dropped'.
+            """)
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "Event stream opened.", content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)), @ApiResponse(responseCode = "404", description = "Unknown or expired session.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))), @ApiResponse(responseCode = "429", description = "Too many subscribers for this session.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))})
+    public SseEmitter events(
+            @PathVariable String id,
+            @Parameter(description = "What to do when this subscriber falls behind: DROP or COALESCE.")
+            @RequestParam(defaultValue = "COALESCE") TelemetryPolicy policy) {
+        return sessionService.subscribe(id, policy);
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "End a session", description = "Drops the session and its probe.")
+    @ApiResponses({@ApiResponse(responseCode = "204", description = "Session ended."), @ApiResponse(responseCode = "404", description = "Unknown or expired session.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))})
+    public ResponseEntity<Void> delete(@PathVariable String id) {
+        sessionService.delete(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.natwest.kata.submersible.api.controller;
+
+import com.natwest.kata.submersible.api.dto.TerrainRequest;
+import com.natwest.kata.submersible.api.dto.TerrainResponse;
+import com.natwest.kata.submersible.api.error.ErrorResponse;
+import com.natwest.kata.submersible.service.TerrainService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/terrains")
+@Tag(name = "Terrains", description = "Store obstacle maps once and reference them from probe runs.")
+public class TerrainController {
+
+    private final TerrainService service;
+
+    public TerrainController(TerrainService service) {
+        this.service = service;
+    }
+
+    @PostMapping
+    @Operation(summary = "Store a reusable terrain", description = """
+            Persists the grid dimensions and obstacles as a memory-mapped terrain file.
+            Returns a terrain ID that run requests can pass as 'terrainId' instead of inlining obstacles.
+            """)
+    @ApiResponses({@ApiResponse(responseCode = "201", description = "Terrain stored.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TerrainResponse.class))), @ApiResponse(responseCode = "400", description = "Malformed JSON or bean validation failure.", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))), @ApiResponse(responseCode = "422", description = "Business validation error (e.g., obstacle out of bounds).", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))})
+    public ResponseEntity<TerrainResponse> store(@RequestBody @Valid TerrainRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(service.store(request));
+    }
+}
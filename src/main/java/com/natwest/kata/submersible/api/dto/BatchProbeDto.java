@@ -0,0 +1,58 @@
+package com.natwest.kata.submersible.api.dto;
+
+import com.natwest.kata.submersible.enums.Direction;
+import com.natwest.kata.submersible.enums.PathMode;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "One probe of a batch run. Fields mean the same as in a single run request; "
+        + "problems with them are reported on the probe's result rather than failing the batch.")
+public class BatchProbeDto {
+
+    @Schema(description = "Starting coordinate of the probe.", requiredMode = Schema.RequiredMode.REQUIRED)
+    private CoordinateDto start;
+
+    @Schema(description = "Initial facing direction of the probe.", example = "NORTH", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Direction direction;
+
+    @Schema(description = "Movement commands; exactly one of this, 'program' or 'script' is required.",
+            example = "[\"F\", \"R\", \"F\"]", requiredMode = Schema.RequiredMode.NOT_REQUIRED)
+    private List<String> commands;
+
+    @Schema(description = "The commands packed into one string, one character per command.",
+            example = "FRF", requiredMode = Schema.RequiredMode.NOT_REQUIRED)
+    private String program;
+
+    @Schema(description = "Commands in the compact script grammar.",
+            example = "10(F5 R)", requiredMode = Schema.RequiredMode.NOT_REQUIRED)
+    private String script;
+
+    @Schema(description = "Which visited positions to return (FULL, NONE, DISTINCT, SAMPLED, LAST_N, RUN_LENGTH).",
+            example = "FULL", requiredMode = Schema.RequiredMode.NOT_REQUIRED)
+    private PathMode pathMode = PathMode.FULL;
+
+    @Schema(description = "N for pathMode SAMPLED and LAST_N.", example = "100", requiredMode = Schema.RequiredMode.NOT_REQUIRED)
+    private Integer pathSize;
+
+    public CoordinateDto getStart() { return start; }
+    public void setStart(CoordinateDto start) { this.start = start; }
+
+    public Direction getDirection() { return direction; }
+    public void setDirection(Direction direction) { this.direction = direction; }
+
+    public List<String> getCommands() { return commands; }
+    public void setCommands(List<String> commands) { this.commands = commands; }
+
+    public String getProgram() { return program; }
+    public void setProgram(String program) { this.program = program; }
+
+    public String getScript() { return script; }
+    public void setScript(String script) { this.script = script; }
+
+    public PathMode getPathMode() { return pathMode; }
+    public void setPathMode(PathMode pathMode) { this.pathMode = pathMode; }
+
+    public Integer getPathSize() { return pathSize; }
+    public void setPathSize(Integer pathSize) { this.pathSize = pathSize; }
+}
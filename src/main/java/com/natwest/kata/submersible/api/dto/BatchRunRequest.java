@@ -0,0 +1,77 @@
+package com.natwest.kata.submersible.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+
+@Schema(description = "Several independent probe runs on one grid, which is built once and shared by all of them.")
+public class BatchRunRequest {
+
+    @NotNull
+    @Schema(
+            description = "3D grid configuration shared by every probe.",
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private GridDto grid;
+
+    @Schema(
+            description = "List of obstacle coordinates that every probe must avoid.",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private List<CoordinateDto> obstacles = Collections.emptyList();
+
+    @Schema(
+            description = "Box-shaped obstacle regions (reefs, walls, seabed layers), each stored as a single record.",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private List<RegionDto> regions = Collections.emptyList();
+
+    @Schema(
+            description = "Compact bitmap or run-length obstacle payload for dense maps; combined with 'obstacles'.",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private ObstacleMapDto obstacleMap;
+
+    @Schema(
+            description = "ID of a stored terrain (see POST /api/terrains) to use as the base obstacle map.",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private String terrainId;
+
+    @Schema(
+            description = "ID of a registered grid (see POST /api/grids) to use instead of building one. Cannot be combined with terrainId.",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private String gridId;
+
+    @NotEmpty
+    @Schema(
+            description = "The probes to run, each with its own start, direction and commands. Results come back in the same order.",
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private List<BatchProbeDto> probes;
+
+    public GridDto getGrid() { return grid; }
+    public void setGrid(GridDto grid) { this.grid = grid; }
+
+    public List<CoordinateDto> getObstacles() { return obstacles; }
+    public void setObstacles(List<CoordinateDto> obstacles) { this.obstacles = obstacles; }
+
+    public List<RegionDto> getRegions() { return regions; }
+    public void setRegions(List<RegionDto> regions) { this.regions = regions; }
+
+    public ObstacleMapDto getObstacleMap() { return obstacleMap; }
+    public void setObstacleMap(ObstacleMapDto obstacleMap) { this.obstacleMap = obstacleMap; }
+
+    public String getTerrainId() { return terrainId; }
+    public void setTerrainId(String terrainId) { this.terrainId = terrainId; }
+
+    public String getGridId() { return gridId; }
+    public void setGridId(String gridId) { this.gridId = gridId; }
+
+    public List<BatchProbeDto> getProbes() { return probes; }
+    public void setProbes(List<BatchProbeDto> probes) { this.probes = probes; }
+}
@@ -0,0 +1,64 @@
+package com.natwest.kata.submersible.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.natwest.kata.submersible.api.error.ErrorResponse;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Results of a batch run, one per probe, in request order.")
+public class BatchRunResponse {
+
+    @Schema(description = "Per-probe outcomes, in the order the probes were submitted.")
+    private List<Item> results;
+
+    public BatchRunResponse() {
+    }
+
+    public BatchRunResponse(List<Item> results) {
+        this.results = results;
+    }
+
+    public List<Item> getResults() { return results; }
+    public void setResults(List<Item> results) { this.results = results; }
+
+    @Schema(description = "Outcome of one probe: either its run result or the error that stopped it.")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Item {
+
+        @Schema(description = "Position of the probe in the request's 'probes' list.", example = "0")
+        private int index;
+
+        @Schema(description = "Run result, present when the probe ran.")
+        private RunResponse result;
+
+        @Schema(description = "Error, present when the probe's setup or commands were rejected.")
+        private ErrorResponse.ErrorBody error;
+
+        public Item() {
+        }
+
+        public static Item success(int index, RunResponse result) {
+            Item item = new Item();
+            item.index = index;
+            item.result = result;
+            return item;
+        }
+
+        public static Item failure(int index, ErrorResponse.ErrorBody error) {
+            Item item = new Item();
+            item.index = index;
+            item.error = error;
+            return item;
+        }
+
+        public int getIndex() { return index; }
+        public void setIndex(int index) { this.index = index; }
+
+        public RunResponse getResult() { return result; }
+        public void setResult(RunResponse result) { this.result = result; }
+
+        public ErrorResponse.ErrorBody getError() { return error; }
+        public void setError(ErrorResponse.ErrorBody error) { this.error = error; }
+    }
+}
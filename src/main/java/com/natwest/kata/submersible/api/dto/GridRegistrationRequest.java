@@ -0,0 +1,39 @@
+package com.natwest.kata.submersible.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+
+@Schema(description = "Grid and obstacles to register once and reference from later runs by ID.")
+public class GridRegistrationRequest {
+
+    @NotNull
+    @Schema(
+            description = "3D grid configuration to register.",
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private GridDto grid;
+
+    @Schema(
+            description = "Obstacle coordinates belonging to the grid.",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private List<CoordinateDto> obstacles = Collections.emptyList();
+
+    @Schema(
+            description = "Box-shaped obstacle regions (reefs, walls, seabed layers), each stored as a single record.",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private List<RegionDto> regions = Collections.emptyList();
+
+    public GridDto getGrid() { return grid; }
+    public void setGrid(GridDto grid) { this.grid = grid; }
+
+    public List<CoordinateDto> getObstacles() { return obstacles; }
+    public void setObstacles(List<CoordinateDto> obstacles) { this.obstacles = obstacles; }
+
+    public List<RegionDto> getRegions() { return regions; }
+    public void setRegions(List<RegionDto> regions) { this.regions = regions; }
+}
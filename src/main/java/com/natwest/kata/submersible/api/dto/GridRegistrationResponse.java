@@ -0,0 +1,35 @@
+package com.natwest.kata.submersible.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Reference to a registered, immutable grid.")
+public class GridRegistrationResponse {
+
+    @Schema(description = "Content-hash ID to pass as 'gridId' in run requests.",
+            example = "9b74c9897bac770ffc029102a200c5de1ba2e8e4e6a6d0e3b7b0b7f6b7c0c6a1")
+    private String gridId;
+
+    @Schema(description = "Registered grid dimensions.")
+    private GridDto grid;
+
+    @Schema(description = "Number of distinct obstacle cells in the grid.", example = "100000")
+    private long obstacleCount;
+
+    public GridRegistrationResponse() {
+    }
+
+    public GridRegistrationResponse(String gridId, GridDto grid, long obstacleCount) {
+        this.gridId = gridId;
+        this.grid = grid;
+        this.obstacleCount = obstacleCount;
+    }
+
+    public String getGridId() { return gridId; }
+    public void setGridId(String gridId) { this.gridId = gridId; }
+
+    public GridDto getGrid() { return grid; }
+    public void setGrid(GridDto grid) { this.grid = grid; }
+
+    public long getObstacleCount() { return obstacleCount; }
+    public void setObstacleCount(long obstacleCount) { this.obstacleCount = obstacleCount; }
+}
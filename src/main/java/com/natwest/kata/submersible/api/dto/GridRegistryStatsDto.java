@@ -0,0 +1,48 @@
+package com.natwest.kata.submersible.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Occupancy and hit/miss statistics of the in-memory grid registry.")
+public class GridRegistryStatsDto {
+
+    @Schema(description = "Number of grids currently held.", example = "12")
+    private int size;
+
+    @Schema(description = "Maximum number of grids held before least-recently-used ones are evicted.", example = "256")
+    private int maxEntries;
+
+    @Schema(description = "Lookups by gridId that found a registered grid.", example = "5321")
+    private long hits;
+
+    @Schema(description = "Lookups by gridId that found nothing (never registered or evicted).", example = "3")
+    private long misses;
+
+    @Schema(description = "Grids evicted to stay within maxEntries.", example = "0")
+    private long evictions;
+
+    public GridRegistryStatsDto() {
+    }
+
+    public GridRegistryStatsDto(int size, int maxEntries, long hits, long misses, long evictions) {
+        this.size = size;
+        this.maxEntries = maxEntries;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public int getMaxEntries() { return maxEntries; }
+    public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+
+    public long getHits() { return hits; }
+    public void setHits(long hits) { this.hits = hits; }
+
+    public long getMisses() { return misses; }
+    public void setMisses(long misses) { this.misses = misses; }
+
+    public long getEvictions() { return evictions; }
+    public void setEvictions(long evictions) { this.evictions = evictions; }
+}
@@ -0,0 +1,45 @@
+package com.natwest.kata.submersible.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.natwest.kata.submersible.api.error.ErrorResponse;
+import com.natwest.kata.submersible.enums.JobStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "State of an asynchronous probe run job.")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobResponse {
+
+    @Schema(description = "Job ID to poll with GET /api/jobs/{id}.", example = "3f2b8c9e-4d1a-4c55-9a7e-2f1e0b6d8a10")
+    private String id;
+
+    @Schema(description = "QUEUED, RUNNING, SUCCEEDED or FAILED.", example = "SUCCEEDED")
+    private JobStatus status;
+
+    @Schema(description = "Run result, present once the job has succeeded.")
+    private RunResponse result;
+
+    @Schema(description = "Error, present if the job has failed.")
+    private ErrorResponse.ErrorBody error;
+
+    public JobResponse() {
+    }
+
+    public JobResponse(String id, JobStatus status, RunResponse result, ErrorResponse.ErrorBody error) {
+        this.id = id;
+        this.status = status;
+        this.result = result;
+        this.error = error;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public JobStatus getStatus() { return status; }
+    public void setStatus(JobStatus status) { this.status = status; }
+
+    public RunResponse getResult() { return result; }
+    public void setResult(RunResponse result) { this.result = result; }
+
+    public ErrorResponse.ErrorBody getError() { return error; }
+    public void setError(ErrorResponse.ErrorBody error) { this.error = error; }
+}
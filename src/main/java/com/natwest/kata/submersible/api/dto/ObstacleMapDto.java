@@ -0,0 +1,48 @@
+package com.natwest.kata.submersible.api.dto;
+
+import com.natwest.kata.submersible.enums.ObstacleEncoding;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+
+@Schema(description = """
+        Compact obstacle payload for dense maps, decoded straight into the grid.
+        Cells are numbered in packed order: index = x + width * (y + height * z),
+        so each z-layer is a contiguous block of width * height cells.
+        - BITMAP: base64 of ceil(cells / 8) bytes; bit (index % 8) of byte (index / 8) is set for obstacles.
+        - RUN_LENGTH: base64 of unsigned LEB128 varints alternating free-cell and obstacle-cell counts,
+          starting with a (possibly zero) free count.
+        """)
+public class ObstacleMapDto {
+
+    @NotNull
+    @Schema(description = "Encoding of 'data'.", example = "RUN_LENGTH", requiredMode = Schema.RequiredMode.REQUIRED)
+    private ObstacleEncoding encoding;
+
+    @NotNull
+    @Schema(description = "Base64-encoded obstacle data.", example = "BQM=", requiredMode = Schema.RequiredMode.REQUIRED)
+    private String data;
+
+    public ObstacleMapDto() {
+    }
+
+    public ObstacleMapDto(ObstacleEncoding encoding, String data) {
+        this.encoding = encoding;
+        this.data = data;
+    }
+
+    public ObstacleEncoding getEncoding() {
+        return encoding;
+    }
+
+    public void setEncoding(ObstacleEncoding encoding) {
+        this.encoding = encoding;
+    }
+
+    public String getData() {
+        return data;
+    }
+
+    public void setData(String data) {
+        this.data = data;
+    }
+}
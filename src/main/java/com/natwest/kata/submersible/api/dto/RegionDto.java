@@ -0,0 +1,43 @@
+package com.natwest.kata.submersible.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+
+@Schema(description = """
+        Axis-aligned box of obstacle cells between two opposite corners (both inclusive).
+        Walls, seabed layers (slabs) and columns are boxes that are one cell thin or span a full axis.
+        """)
+public class RegionDto {
+
+    @NotNull
+    @Schema(description = "First corner of the box.", requiredMode = Schema.RequiredMode.REQUIRED)
+    private CoordinateDto from;
+
+    @NotNull
+    @Schema(description = "Opposite corner of the box.", requiredMode = Schema.RequiredMode.REQUIRED)
+    private CoordinateDto to;
+
+    public RegionDto() {
+    }
+
+    public RegionDto(CoordinateDto from, CoordinateDto to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public CoordinateDto getFrom() {
+        return from;
+    }
+
+    public void setFrom(CoordinateDto from) {
+        this.from = from;
+    }
+
+    public CoordinateDto getTo() {
+        return to;
+    }
+
+    public void setTo(CoordinateDto to) {
+        this.to = to;
+    }
+}
@@ -0,0 +1,70 @@
+package com.natwest.kata.submersible.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Occupancy and hit/miss statistics of the run result cache.")
+public class RunCacheStatsDto {
+
+    @Schema(description = "Number of results currently cached.", example = "42")
+    private int size;
+
+    @Schema(description = "Estimated heap bytes held by the cached results.", example = "1048576")
+    private long weightBytes;
+
+    @Schema(description = "Estimated bytes the cache may hold before evicting least-recently-used results; 0 disables caching.", example = "67108864")
+    private long maxBytes;
+
+    @Schema(description = "Runs answered from the cache.", example = "5321")
+    private long hits;
+
+    @Schema(description = "Runs that had to be computed.", example = "87")
+    private long misses;
+
+    @Schema(description = "Runs that waited for an identical run already in progress instead of computing it again.", example = "12")
+    private long coalesced;
+
+    @Schema(description = "Results evicted to stay within maxBytes.", example = "3")
+    private long evictions;
+
+    @Schema(description = "Share of runs served without computing them (hits plus coalesced, over all runs).", example = "0.98")
+    private double hitRatio;
+
+    public RunCacheStatsDto() {
+    }
+
+    public RunCacheStatsDto(int size, long weightBytes, long maxBytes, long hits, long misses, long coalesced, long evictions) {
+        this.size = size;
+        this.weightBytes = weightBytes;
+        this.maxBytes = maxBytes;
+        this.hits = hits;
+        this.misses = misses;
+        this.coalesced = coalesced;
+        this.evictions = evictions;
+        long total = hits + misses + coalesced;
+        this.hitRatio = total == 0 ? 0 : (double) (hits + coalesced) / total;
+    }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public long getWeightBytes() { return weightBytes; }
+    public void setWeightBytes(long weightBytes) { this.weightBytes = weightBytes; }
+
+    public long getMaxBytes() { return maxBytes; }
+    public void setMaxBytes(long maxBytes) { this.maxBytes = maxBytes; }
+
+    public long getHits() { return hits; }
+    public void setHits(long hits) { this.hits = hits; }
+
+    public long getMisses() { return misses; }
+    public void setMisses(long misses) { this.misses = misses; }
+
+    public long getCoalesced() { return coalesced; }
+    public void setCoalesced(long coalesced) { this.coalesced = coalesced; }
+
+    public long getEvictions() { return evictions; }
+    public void setEvictions(long evictions) { this.evictions = evictions; }
+
+    public double getHitRatio() { return hitRatio; }
+    public void setHitRatio(double hitRatio) { this.hitRatio = hitRatio; }
+}
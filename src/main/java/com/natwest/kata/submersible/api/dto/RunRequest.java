@@ -1,7 +1,11 @@
 package com.natwest.kata.submersible.api.dto;
 
 import com.natwest.kata.submersible.enums.Direction;
+import com.natwest.kata.submersible.enums.PathMode;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
 import java.util.Collections;
@@ -32,10 +36,9 @@ public class RunRequest {
     )
     private Direction direction;
 
-    @NotNull
     @Schema(
             description = """
-                    List of movement commands to execute, in order.
+                    List of movement commands to execute, in order. Exactly one of this, 'program' or 'script' is required.
                     Supported commands:
                     - F: move forward
                     - B: move backward
@@ -45,16 +48,85 @@ public class RunRequest {
                     - D: tilt down
                     """,
             example = "[\"F\", \"R\", \"F\", \"U\", \"F\"]",
-            requiredMode = Schema.RequiredMode.REQUIRED
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
     )
     private List<String> commands;
 
+    @Schema(
+            description = "The same commands packed into one string, one character per command (case-insensitive). "
+                    + "Cheaper than 'commands' for long programs; invalid characters are reported by index.",
+            example = "FFRFUF",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private String program;
+
+    @Schema(
+            description = """
+                    Commands in the compact script grammar, compiled once and run without unrolling:
+                    a command letter with an optional repeat count (F20), and groups repeated with
+                    a count prefix (100(...)), which may be nested. Whitespace is ignored.
+                    Syntax errors are rejected instead of being reported as invalid commands.
+                    """,
+            example = "100(F20 R F R F20 L F L)",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private String script;
+
     @Schema(
             description = "List of obstacle coordinates that the probe must avoid.",
             requiredMode = Schema.RequiredMode.NOT_REQUIRED
     )
     private List<CoordinateDto> obstacles = Collections.emptyList();
 
+    @Schema(
+            description = "Box-shaped obstacle regions (reefs, walls, seabed layers), each stored as a single record.",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private List<RegionDto> regions = Collections.emptyList();
+
+    @Schema(
+            description = "Compact bitmap or run-length obstacle payload for dense maps; combined with 'obstacles'.",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private ObstacleMapDto obstacleMap;
+
+    @Schema(
+            description = "ID of a stored terrain (see POST /api/terrains) to use as the base obstacle map. "
+                    + "The grid dimensions must match the terrain; inline obstacles are added on top.",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private String terrainId;
+
+    @Schema(
+            description = "ID of a registered grid (see POST /api/grids) to reuse instead of rebuilding it. "
+                    + "The grid dimensions must match; inline obstacles are added on top. Cannot be combined with terrainId.",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private String gridId;
+
+    @Schema(
+            description = """
+                    Which visited positions to return in 'visited':
+                    - FULL: every position (default)
+                    - NONE: none; only final state and counts
+                    - DISTINCT: each cell once, in order of first visit
+                    - SAMPLED: every Nth position, N = pathSize
+                    - LAST_N: the last N positions, N = pathSize
+                    - RUN_LENGTH: full path as a compact run-length string in 'path' instead of 'visited'
+                    """,
+            example = "FULL",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private PathMode pathMode = PathMode.FULL;
+
+    @Min(1)
+    @Schema(
+            description = "N for pathMode SAMPLED and LAST_N.",
+            example = "100",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private Integer pathSize;
+
     public GridDto getGrid() { return grid; }
     public void setGrid(GridDto grid) { this.grid = grid; }
 
@@ -67,6 +139,37 @@ public class RunRequest {
     public List<String> getCommands() { return commands; }
     public void setCommands(List<String> commands) { this.commands = commands; }
 
+    public String getProgram() { return program; }
+    public void setProgram(String program) { this.program = program; }
+
+    public String getScript() { return script; }
+    public void setScript(String script) { this.script = script; }
+
+    @JsonIgnore
+    @AssertTrue(message = "Exactly one of commands, program or script must be set")
+    public boolean isCommandSourceValid() {
+        int sources = (commands == null ? 0 : 1) + (program == null ? 0 : 1) + (script == null ? 0 : 1);
+        return sources == 1;
+    }
+
     public List<CoordinateDto> getObstacles() { return obstacles; }
     public void setObstacles(List<CoordinateDto> obstacles) { this.obstacles = obstacles; }
+
+    public List<RegionDto> getRegions() { return regions; }
+    public void setRegions(List<RegionDto> regions) { this.regions = regions; }
+
+    public ObstacleMapDto getObstacleMap() { return obstacleMap; }
+    public void setObstacleMap(ObstacleMapDto obstacleMap) { this.obstacleMap = obstacleMap; }
+
+    public String getTerrainId() { return terrainId; }
+    public void setTerrainId(String terrainId) { this.terrainId = terrainId; }
+
+    public String getGridId() { return gridId; }
+    public void setGridId(String gridId) { this.gridId = gridId; }
+
+    public PathMode getPathMode() { return pathMode; }
+    public void setPathMode(PathMode pathMode) { this.pathMode = pathMode; }
+
+    public Integer getPathSize() { return pathSize; }
+    public void setPathSize(Integer pathSize) { this.pathSize = pathSize; }
 }
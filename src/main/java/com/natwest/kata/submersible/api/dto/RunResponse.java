@@ -1,5 +1,6 @@
 package com.natwest.kata.submersible.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.util.List;
@@ -22,6 +23,18 @@ public class RunResponse {
     )
     private List<String> visited;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(
+            description = """
+                    Run-length encoded path, only present for pathMode RUN_LENGTH.
+                    Format: start coordinate 'x,y,z' followed by segments of sign (+/-), axis (x/y/z) and step count.
+                    Decode by emitting the start, then for each segment stepping one unit along the axis 'count' times,
+                    emitting every intermediate position.
+                    """,
+            example = "0,0,0+y3+x1-y3"
+    )
+    private String path;
+
     @Schema(
             description = "Human-readable summary describing the run outcome.",
             example = "Visited 4 positions on a 5x5x5 grid. Final position: (1,1,1) facing NORTH. Total commands: 5, executed: 5, blocked moves: 0, invalid commands: 1."
@@ -40,6 +53,9 @@ public class RunResponse {
     public List<String> getVisited() { return visited; }
     public void setVisited(List<String> visited) { this.visited = visited; }
 
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+
     public String getSummary() { return summary; }
     public void setSummary(String summary) { this.summary = summary; }
 }
@@ -0,0 +1,39 @@
+package com.natwest.kata.submersible.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+
+import java.util.List;
+
+@Schema(description = "A batch of commands continuing a probe session from its current state.")
+public class SessionCommandsRequest {
+
+    @Schema(description = "Movement commands (F, B, L, R, U, D); exactly one of this, 'program' or 'script' is required.",
+            example = "[\"F\", \"R\", \"F\"]", requiredMode = Schema.RequiredMode.NOT_REQUIRED)
+    private List<String> commands;
+
+    @Schema(description = "The commands packed into one string, one character per command.",
+            example = "FRF", requiredMode = Schema.RequiredMode.NOT_REQUIRED)
+    private String program;
+
+    @Schema(description = "Commands in the compact script grammar.",
+            example = "10(F5 R)", requiredMode = Schema.RequiredMode.NOT_REQUIRED)
+    private String script;
+
+    public List<String> getCommands() { return commands; }
+    public void setCommands(List<String> commands) { this.commands = commands; }
+
+    public String getProgram() { return program; }
+    public void setProgram(String program) { this.program = program; }
+
+    public String getScript() { return script; }
+    public void setScript(String script) { this.script = script; }
+
+    @JsonIgnore
+    @AssertTrue(message = "Exactly one of commands, program or script must be set")
+    public boolean isCommandSourceValid() {
+        int sources = (commands == null ? 0 : 1) + (program == null ? 0 : 1) + (script == null ? 0 : 1);
+        return sources == 1;
+    }
+}
@@ -0,0 +1,99 @@
+package com.natwest.kata.submersible.api.dto;
+
+import com.natwest.kata.submersible.enums.Direction;
+import com.natwest.kata.submersible.enums.PathMode;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+
+@Schema(description = "Grid and starting state for a probe session; commands are sent to the session afterwards.")
+public class SessionRequest {
+
+    @NotNull
+    @Schema(
+            description = "3D grid configuration where the probe operates.",
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private GridDto grid;
+
+    @NotNull
+    @Schema(
+            description = "Starting coordinate of the probe.",
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private CoordinateDto start;
+
+    @NotNull
+    @Schema(
+            description = "Initial facing direction of the probe.",
+            example = "NORTH",
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private Direction direction;
+
+    @Schema(
+            description = "List of obstacle coordinates that the probe must avoid.",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private List<CoordinateDto> obstacles = Collections.emptyList();
+
+    @Schema(
+            description = "Box-shaped obstacle regions (reefs, walls, seabed layers), each stored as a single record.",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private List<RegionDto> regions = Collections.emptyList();
+
+    @Schema(
+            description = "Compact bitmap or run-length obstacle payload for dense maps; combined with 'obstacles'.",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private ObstacleMapDto obstacleMap;
+
+    @Schema(
+            description = "ID of a stored terrain (see POST /api/terrains) to use as the base obstacle map.",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private String terrainId;
+
+    @Schema(
+            description = "ID of a registered grid (see POST /api/grids) to use instead of building one. Cannot be combined with terrainId.",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private String gridId;
+
+    @Schema(
+            description = "FULL (default) to get the positions visited by each command batch, NONE for final state and counts only.",
+            example = "FULL",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private PathMode pathMode = PathMode.FULL;
+
+    public GridDto getGrid() { return grid; }
+    public void setGrid(GridDto grid) { this.grid = grid; }
+
+    public CoordinateDto getStart() { return start; }
+    public void setStart(CoordinateDto start) { this.start = start; }
+
+    public Direction getDirection() { return direction; }
+    public void setDirection(Direction direction) { this.direction = direction; }
+
+    public List<CoordinateDto> getObstacles() { return obstacles; }
+    public void setObstacles(List<CoordinateDto> obstacles) { this.obstacles = obstacles; }
+
+    public List<RegionDto> getRegions() { return regions; }
+    public void setRegions(List<RegionDto> regions) { this.regions = regions; }
+
+    public ObstacleMapDto getObstacleMap() { return obstacleMap; }
+    public void setObstacleMap(ObstacleMapDto obstacleMap) { this.obstacleMap = obstacleMap; }
+
+    public String getTerrainId() { return terrainId; }
+    public void setTerrainId(String terrainId) { this.terrainId = terrainId; }
+
+    public String getGridId() { return gridId; }
+    public void setGridId(String gridId) { this.gridId = gridId; }
+
+    public PathMode getPathMode() { return pathMode; }
+    public void setPathMode(PathMode pathMode) { this.pathMode = pathMode; }
+}
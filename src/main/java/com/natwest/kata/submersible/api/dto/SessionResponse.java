@@ -0,0 +1,64 @@
+package com.natwest.kata.submersible.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Current state of a probe session, with what changed in the last command batch.")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SessionResponse {
+
+    @Schema(description = "Session ID to send command batches to.", example = "9b1c7a52-0f3e-4b7e-a7f4-5a8d2e6c1b90")
+    private String id;
+
+    @Schema(description = "Current state of the probe.")
+    private FinalStateDto finalState;
+
+    @Schema(
+            description = "Positions visited by this call only, formatted as '(x,y,z)': the start when the session is created, "
+                    + "then each batch's new positions. Empty for pathMode NONE; absent when just reading the state.",
+            example = "[\"(0,1,0)\", \"(1,1,0)\"]"
+    )
+    private List<String> visited;
+
+    @Schema(description = "Execution statistics of this batch only; command indices are relative to the batch.")
+    private ExecutionDto execution;
+
+    @Schema(description = "Positions visited over the whole session, start included.", example = "42")
+    private long visitedCount;
+
+    @Schema(description = "Commands received over the whole session.", example = "120")
+    private long totalCommands;
+
+    public SessionResponse() {
+    }
+
+    public SessionResponse(String id, FinalStateDto finalState, List<String> visited, ExecutionDto execution,
+                           long visitedCount, long totalCommands) {
+        this.id = id;
+        this.finalState = finalState;
+        this.visited = visited;
+        this.execution = execution;
+        this.visitedCount = visitedCount;
+        this.totalCommands = totalCommands;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public FinalStateDto getFinalState() { return finalState; }
+    public void setFinalState(FinalStateDto finalState) { this.finalState = finalState; }
+
+    public List<String> getVisited() { return visited; }
+    public void setVisited(List<String> visited) { this.visited = visited; }
+
+    public ExecutionDto getExecution() { return execution; }
+    public void setExecution(ExecutionDto execution) { this.execution = execution; }
+
+    public long getVisitedCount() { return visitedCount; }
+    public void setVisitedCount(long visitedCount) { this.visitedCount = visitedCount; }
+
+    public long getTotalCommands() { return totalCommands; }
+    public void setTotalCommands(long totalCommands) { this.totalCommands = totalCommands; }
+}
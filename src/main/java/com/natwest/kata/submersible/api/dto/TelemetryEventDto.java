@@ -0,0 +1,88 @@
+package com.natwest.kata.submersible.api.dto;
+
+import com.natwest.kata.submersible.enums.Direction;
+import com.natwest.kata.submersible.enums.TelemetryEventType;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = """
+        One live telemetry event. Every event carries the probe's full current state, so a client that
+        missed events (see 'dropped') is up to date again with the next one it receives.
+        """)
+public class TelemetryEventDto {
+
+    @Schema(description = "STATE (sent on subscribing), MOVE, TURN or BLOCKED.", example = "MOVE")
+    private TelemetryEventType type;
+
+    @Schema(description = "Event number within the session, increasing by one per event.", example = "17")
+    private long seq;
+
+    @Schema(description = "Current X coordinate.", example = "2")
+    private int x;
+
+    @Schema(description = "Current Y coordinate.", example = "3")
+    private int y;
+
+    @Schema(description = "Current Z coordinate.", example = "0")
+    private int z;
+
+    @Schema(description = "Current facing direction.", example = "NORTH")
+    private Direction direction;
+
+    @Schema(description = "Moves refused by this event (BLOCKED only).", example = "1")
+    private int blocked;
+
+    @Schema(description = "Moves refused over the whole session so far.", example = "4")
+    private long totalBlocked;
+
+    @Schema(description = "Events this subscriber missed just before this one because it fell behind.", example = "0")
+    private long dropped;
+
+    public TelemetryEventDto() {
+    }
+
+    public TelemetryEventDto(TelemetryEventType type, long seq, int x, int y, int z, Direction direction,
+                             int blocked, long totalBlocked) {
+        this.type = type;
+        this.seq = seq;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.direction = direction;
+        this.blocked = blocked;
+        this.totalBlocked = totalBlocked;
+    }
+
+    /** Copy of this event reporting {@code dropped} missed events; events are shared between subscribers. */
+    public TelemetryEventDto withDropped(long dropped) {
+        TelemetryEventDto copy = new TelemetryEventDto(type, seq, x, y, z, direction, blocked, totalBlocked);
+        copy.dropped = dropped;
+        return copy;
+    }
+
+    public TelemetryEventType getType() { return type; }
+    public void setType(TelemetryEventType type) { this.type = type; }
+
+    public long getSeq() { return seq; }
+    public void setSeq(long seq) { this.seq = seq; }
+
+    public int getX() { return x; }
+    public void setX(int x) { this.x = x; }
+
+    public int getY() { return y; }
+    public void setY(int y) { this.y = y; }
+
+    public int getZ() { return z; }
+    public void setZ(int z) { this.z = z; }
+
+    public Direction getDirection() { return direction; }
+    public void setDirection(Direction direction) { this.direction = direction; }
+
+    public int getBlocked() { return blocked; }
+    public void setBlocked(int blocked) { this.blocked = blocked; }
+
+    public long getTotalBlocked() { return totalBlocked; }
+    public void setTotalBlocked(long totalBlocked) { this.totalBlocked = totalBlocked; }
+
+    public long getDropped() { return dropped; }
+    public void setDropped(long dropped) { this.dropped = dropped; }
+}
@@ -0,0 +1,30 @@
+package com.natwest.kata.submersible.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+
+@Schema(description = "Input payload for storing a reusable terrain (grid dimensions plus obstacles).")
+public class TerrainRequest {
+
+    @NotNull
+    @Schema(
+            description = "3D grid dimensions the terrain applies to.",
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private GridDto grid;
+
+    @Schema(
+            description = "Obstacle coordinates making up the terrain.",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private List<CoordinateDto> obstacles = Collections.emptyList();
+
+    public GridDto getGrid() { return grid; }
+    public void setGrid(GridDto grid) { this.grid = grid; }
+
+    public List<CoordinateDto> getObstacles() { return obstacles; }
+    public void setObstacles(List<CoordinateDto> obstacles) { this.obstacles = obstacles; }
+}
@@ -0,0 +1,35 @@
+package com.natwest.kata.submersible.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Reference to a stored terrain that runs can use instead of inline obstacles.")
+public class TerrainResponse {
+
+    @Schema(description = "Content-derived terrain ID to pass as 'terrainId' in run requests.",
+            example = "3f2a9c0e5b7d41e8a6c2f0d9b8e7a6c5d4b3a2f1e0d9c8b7a6f5e4d3c2b1a0f9")
+    private String terrainId;
+
+    @Schema(description = "Grid dimensions of the terrain.")
+    private GridDto grid;
+
+    @Schema(description = "Number of distinct obstacle cells stored.", example = "100000")
+    private long obstacleCount;
+
+    public TerrainResponse() {
+    }
+
+    public TerrainResponse(String terrainId, GridDto grid, long obstacleCount) {
+        this.terrainId = terrainId;
+        this.grid = grid;
+        this.obstacleCount = obstacleCount;
+    }
+
+    public String getTerrainId() { return terrainId; }
+    public void setTerrainId(String terrainId) { this.terrainId = terrainId; }
+
+    public GridDto getGrid() { return grid; }
+    public void setGrid(GridDto grid) { this.grid = grid; }
+
+    public long getObstacleCount() { return obstacleCount; }
+    public void setObstacleCount(long obstacleCount) { this.obstacleCount = obstacleCount; }
+}
@@ -27,6 +27,18 @@ public class ErrorResponse {
         return new ErrorResponse(new ErrorBody("VALIDATION_ERROR", msg, details, null));
     }
 
+    public static ErrorResponse notFound(String msg) {
+        return new ErrorResponse(new ErrorBody("NOT_FOUND", msg, Collections.emptyList(), null));
+    }
+
+    public static ErrorResponse tooManyRequests(String msg) {
+        return new ErrorResponse(new ErrorBody("TOO_MANY_REQUESTS", msg, Collections.emptyList(), null));
+    }
+
+    public static ErrorResponse internal(String msg) {
+        return new ErrorResponse(new ErrorBody("INTERNAL_ERROR", msg, Collections.emptyList(), null));
+    }
+
     public ErrorBody getError() {
         return error;
     }
@@ -1,7 +1,15 @@
 package com.natwest.kata.submersible.api.error;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.natwest.kata.submersible.api.error.ErrorResponse.ErrorDetail;
+import com.natwest.kata.submersible.service.JobQueueFullException;
+import com.natwest.kata.submersible.service.MalformedRequestException;
+import com.natwest.kata.submersible.service.ResourceNotFoundException;
+import com.natwest.kata.submersible.service.SessionLimitExceededException;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -19,6 +27,22 @@ public class GlobalExceptionHandler {
         return ResponseEntity.unprocessableEntity().body(body);
     }
 
+    // Content type is set explicitly so the error is still written for event-stream requests
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleNotFound(ResourceNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ErrorResponse.notFound(ex.getMessage()));
+    }
+
+    @ExceptionHandler({JobQueueFullException.class, SessionLimitExceededException.class})
+    public ResponseEntity<ErrorResponse> handleTooManyRequests(RuntimeException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ErrorResponse.tooManyRequests(ex.getMessage()));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleMethodArgumentNotValid(MethodArgumentNotValidException ex) {
         var details = ex.getBindingResult().getFieldErrors().stream().map(fe -> new ErrorDetail(fe.getField(), fe.getDefaultMessage())).toList();
@@ -35,6 +59,19 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(body);
     }
 
+    @ExceptionHandler(MalformedRequestException.class)
+    public ResponseEntity<ErrorResponse> handleMalformedRequest(MalformedRequestException ex) {
+        ErrorResponse body = ErrorResponse.validation(ex.getMessage());
+        return ResponseEntity.badRequest().body(body);
+    }
+
+    // Thrown by endpoints that parse the body themselves instead of through a message converter
+    @ExceptionHandler(JsonProcessingException.class)
+    public ResponseEntity<ErrorResponse> handleJsonProcessing(JsonProcessingException ex) {
+        ErrorResponse body = ErrorResponse.validation("Malformed JSON request", Collections.emptyList());
+        return ResponseEntity.badRequest().body(body);
+    }
+
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<ErrorResponse> handleNotReadable(HttpMessageNotReadableException ex) {
         ErrorResponse body = ErrorResponse.validation("Malformed JSON request", Collections.emptyList());
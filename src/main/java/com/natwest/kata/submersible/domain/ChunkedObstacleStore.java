@@ -0,0 +1,185 @@
+package com.natwest.kata.submersible.domain;
+
+import java.util.Arrays;
+
+/**
+ * Sparse obstacle storage for very large grids.
+ * <p>
+ * Space is split into 16x16x16 bricks and only bricks that hold at least one obstacle are
+ * allocated. Each brick starts as a sorted array of local cell offsets and is promoted to a
+ * 4096-bit bitset once that becomes the smaller representation. Bricks are located through an
+ * open-addressing table keyed by brick coordinates, so lookups never allocate.
+ */
+final class ChunkedObstacleStore implements ObstacleStore {
+
+    private static final int SHIFT = 4;
+    private static final int LOCAL_MASK = (1 << SHIFT) - 1;
+    private static final int CELLS_PER_CHUNK = 1 << (3 * SHIFT);
+    private static final int BITSET_WORDS = CELLS_PER_CHUNK >>> 6;
+    // A sorted short[] costs 2 bytes per obstacle, the bitset a flat 512 bytes.
+    private static final int PROMOTE_THRESHOLD = BITSET_WORDS * 8 / 2;
+    private static final int INITIAL_TABLE = 16;
+
+    private int[] keyX = new int[INITIAL_TABLE];
+    private int[] keyY = new int[INITIAL_TABLE];
+    private int[] keyZ = new int[INITIAL_TABLE];
+    private Chunk[] chunks = new Chunk[INITIAL_TABLE];
+    private int mask = INITIAL_TABLE - 1;
+    private int chunkCount;
+    private long size;
+
+    @Override
+    public void add(int x, int y, int z) {
+        int cx = x >> SHIFT;
+        int cy = y >> SHIFT;
+        int cz = z >> SHIFT;
+        int slot = findSlot(cx, cy, cz);
+        Chunk chunk = chunks[slot];
+        if (chunk == null) {
+            chunk = new Chunk();
+            chunks[slot] = chunk;
+            keyX[slot] = cx;
+            keyY[slot] = cy;
+            keyZ[slot] = cz;
+            if (++chunkCount * 2 > chunks.length) grow();
+        }
+        if (chunk.add(localOffset(x, y, z))) size++;
+    }
+
+    @Override
+    public boolean contains(int x, int y, int z) {
+        Chunk chunk = chunks[findSlot(x >> SHIFT, y >> SHIFT, z >> SHIFT)];
+        return chunk != null && chunk.contains(localOffset(x, y, z));
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        long bytes = 64L + (long) chunks.length * (3 * 4 + 4);
+        for (Chunk chunk : chunks) {
+            if (chunk != null) bytes += chunk.memoryFootprintBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public void forEach(CellVisitor visitor) {
+        for (int slot = 0; slot < chunks.length; slot++) {
+            Chunk chunk = chunks[slot];
+            if (chunk != null) chunk.forEach(keyX[slot] << SHIFT, keyY[slot] << SHIFT, keyZ[slot] << SHIFT, visitor);
+        }
+    }
+
+    /** Number of allocated 16x16x16 bricks. */
+    int chunkCount() {
+        return chunkCount;
+    }
+
+    private int findSlot(int cx, int cy, int cz) {
+        int slot = hash(cx, cy, cz) & mask;
+        while (chunks[slot] != null && (keyX[slot] != cx || keyY[slot] != cy || keyZ[slot] != cz)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldX = keyX;
+        int[] oldY = keyY;
+        int[] oldZ = keyZ;
+        Chunk[] oldChunks = chunks;
+        int capacity = oldChunks.length * 2;
+        keyX = new int[capacity];
+        keyY = new int[capacity];
+        keyZ = new int[capacity];
+        chunks = new Chunk[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldChunks.length; i++) {
+            if (oldChunks[i] == null) continue;
+            int slot = findSlot(oldX[i], oldY[i], oldZ[i]);
+            keyX[slot] = oldX[i];
+            keyY[slot] = oldY[i];
+            keyZ[slot] = oldZ[i];
+            chunks[slot] = oldChunks[i];
+        }
+    }
+
+    private static int hash(int cx, int cy, int cz) {
+        int h = cx * 0x9E3779B1 + cy * 0x85EBCA77 + cz * 0xC2B2AE3D;
+        return h ^ (h >>> 16);
+    }
+
+    private static int localOffset(int x, int y, int z) {
+        return (x & LOCAL_MASK) | (y & LOCAL_MASK) << SHIFT | (z & LOCAL_MASK) << (2 * SHIFT);
+    }
+
+    private static final class Chunk {
+
+        private short[] sparse = new short[4];
+        private long[] bits;
+        private int count;
+
+        boolean add(int offset) {
+            if (bits != null) {
+                long bit = 1L << offset;
+                if ((bits[offset >>> 6] & bit) != 0) return false;
+                bits[offset >>> 6] |= bit;
+                count++;
+                return true;
+            }
+            int pos = Arrays.binarySearch(sparse, 0, count, (short) offset);
+            if (pos >= 0) return false;
+            if (count == PROMOTE_THRESHOLD) {
+                promote();
+                return add(offset);
+            }
+            int insertAt = -pos - 1;
+            if (count == sparse.length) sparse = Arrays.copyOf(sparse, Math.min(count * 2, PROMOTE_THRESHOLD));
+            System.arraycopy(sparse, insertAt, sparse, insertAt + 1, count - insertAt);
+            sparse[insertAt] = (short) offset;
+            count++;
+            return true;
+        }
+
+        boolean contains(int offset) {
+            if (bits != null) return (bits[offset >>> 6] & (1L << offset)) != 0;
+            return Arrays.binarySearch(sparse, 0, count, (short) offset) >= 0;
+        }
+
+        void forEach(int baseX, int baseY, int baseZ, CellVisitor visitor) {
+            if (bits == null) {
+                for (int i = 0; i < count; i++) visit(sparse[i], baseX, baseY, baseZ, visitor);
+                return;
+            }
+            for (int word = 0; word < bits.length; word++) {
+                long remaining = bits[word];
+                while (remaining != 0) {
+                    visit((word << 6) + Long.numberOfTrailingZeros(remaining), baseX, baseY, baseZ, visitor);
+                    remaining &= remaining - 1;
+                }
+            }
+        }
+
+        private static void visit(int offset, int baseX, int baseY, int baseZ, CellVisitor visitor) {
+            visitor.visit(baseX | offset & LOCAL_MASK, baseY | (offset >> SHIFT) & LOCAL_MASK,
+                    baseZ | (offset >> (2 * SHIFT)) & LOCAL_MASK);
+        }
+
+        long memoryFootprintBytes() {
+            return 24L + (bits != null ? 16L + 8L * bits.length : 16L + 2L * sparse.length);
+        }
+
+        private void promote() {
+            bits = new long[BITSET_WORDS];
+            for (int i = 0; i < count; i++) {
+                int offset = sparse[i];
+                bits[offset >>> 6] |= 1L << offset;
+            }
+            sparse = null;
+        }
+    }
+}
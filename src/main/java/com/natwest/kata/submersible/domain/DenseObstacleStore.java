@@ -0,0 +1,104 @@
+package com.natwest.kata.submersible.domain;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * One bit per cell, keyed by the packed cell index {@code x + width * (y + height * z)}.
+ * Only used for grids small enough that the whole bitset stays cheap.
+ */
+final class DenseObstacleStore implements ObstacleStore {
+
+    private final int width;
+    private final int height;
+    private final long[] bits;
+    private long size;
+
+    DenseObstacleStore(int width, int height, int depth) {
+        this.width = width;
+        this.height = height;
+        long cells = (long) width * height * depth;
+        this.bits = new long[(int) ((cells + 63) >>> 6)];
+    }
+
+    @Override
+    public void add(int x, int y, int z) {
+        long cell = cellIndex(x, y, z);
+        int word = (int) (cell >>> 6);
+        long mask = 1L << cell;
+        if ((bits[word] & mask) == 0) {
+            bits[word] |= mask;
+            size++;
+        }
+    }
+
+    /**
+     * ORs a packed bitmap (bit i of byte i / 8, least significant first, is cell i) into the store.
+     */
+    void addBitmap(byte[] bitmap) {
+        ByteBuffer buffer = ByteBuffer.wrap(bitmap).order(ByteOrder.LITTLE_ENDIAN);
+        int word = 0;
+        while (buffer.remaining() >= Long.BYTES) {
+            orWord(word++, buffer.getLong());
+        }
+        long tail = 0;
+        for (int shift = 0; buffer.hasRemaining(); shift += 8) {
+            tail |= (buffer.get() & 0xFFL) << shift;
+        }
+        if (tail != 0) orWord(word, tail);
+    }
+
+    /** Marks cells {@code [from, to)} in packed index order. */
+    void addRange(long from, long to) {
+        if (from >= to) return;
+        int first = (int) (from >>> 6);
+        int last = (int) ((to - 1) >>> 6);
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (first == last) {
+            orWord(first, firstMask & lastMask);
+            return;
+        }
+        orWord(first, firstMask);
+        for (int w = first + 1; w < last; w++) orWord(w, -1L);
+        orWord(last, lastMask);
+    }
+
+    private void orWord(int word, long mask) {
+        size += Long.bitCount(mask & ~bits[word]);
+        bits[word] |= mask;
+    }
+
+    @Override
+    public boolean contains(int x, int y, int z) {
+        long cell = cellIndex(x, y, z);
+        return (bits[(int) (cell >>> 6)] & (1L << cell)) != 0;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        return 16L + 8L * bits.length;
+    }
+
+    @Override
+    public void forEach(CellVisitor visitor) {
+        for (int word = 0; word < bits.length; word++) {
+            long remaining = bits[word];
+            while (remaining != 0) {
+                long cell = ((long) word << 6) + Long.numberOfTrailingZeros(remaining);
+                long rest = cell / width;
+                visitor.visit((int) (cell % width), (int) (rest % height), (int) (rest / height));
+                remaining &= remaining - 1;
+            }
+        }
+    }
+
+    private long cellIndex(int x, int y, int z) {
+        return x + (long) width * (y + (long) height * z);
+    }
+}
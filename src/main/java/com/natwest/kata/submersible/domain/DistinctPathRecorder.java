@@ -0,0 +1,32 @@
+package com.natwest.kata.submersible.domain;
+
+import java.util.List;
+
+/**
+ * Keeps each cell once, in order of first visit. Memory grows with the number of distinct
+ * cells rather than path length.
+ */
+final class DistinctPathRecorder implements PathRecorder {
+
+    private final PathBuffer buffer = new PathBuffer();
+    // Chunked cell set: cheap for the spatially clustered cells a path covers
+    private final ChunkedObstacleStore seen = new ChunkedObstacleStore();
+
+    @Override
+    public void record(int x, int y, int z) {
+        if (seen.contains(x, y, z)) return;
+        seen.add(x, y, z);
+        buffer.add(x, y, z);
+    }
+
+    /** Repeated positions have all been seen already. */
+    @Override
+    public boolean repeatLast(long count, long times) {
+        return true;
+    }
+
+    @Override
+    public List<String> positions() {
+        return buffer.asList();
+    }
+}
@@ -0,0 +1,26 @@
+package com.natwest.kata.submersible.domain;
+
+import java.util.List;
+
+/** Keeps every visited position. */
+final class FullPathRecorder implements PathRecorder {
+
+    private final PathBuffer buffer = new PathBuffer();
+
+    @Override
+    public void record(int x, int y, int z) {
+        buffer.add(x, y, z);
+    }
+
+    @Override
+    public boolean repeatLast(long count, long times) {
+        if (count > buffer.size() || count * times > PathBuffer.MAX_SIZE - buffer.size()) return false;
+        buffer.repeatLast((int) count, (int) times);
+        return true;
+    }
+
+    @Override
+    public List<String> positions() {
+        return buffer.asList();
+    }
+}
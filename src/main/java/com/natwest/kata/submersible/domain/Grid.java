@@ -1,16 +1,33 @@
 package com.natwest.kata.submersible.domain;
 
-import java.util.HashSet;
-import java.util.Set;
-
 public class Grid {
 
+    // Grids up to this many cells keep obstacles in a flat bitset (at most 512 KiB);
+    // anything larger uses chunked sparse storage so empty space costs nothing.
+    private static final long DENSE_CELL_LIMIT = 1L << 22;
+    // Straight runs up to this length just probe each cell; longer ones use the line index.
+    private static final int WALK_LIMIT = 8;
+    // Above this many obstacles the line index would cost more than walking the occasional long run.
+    private static final long LINE_INDEX_LIMIT = 1L << 22;
+
     private final int width;
     private final int height;
     private final int depth;
-    private final Set<String> obstacles = new HashSet<>();
+    private final ObstacleLookup baseObstacles; // shared, read-only terrain; may be null
+    private ObstacleStore obstacles; // allocated on first obstacle
+    private RegionIndex regions;     // allocated on first region
+    private ObstacleLines lines;     // built by freeze(), published by the write to frozen
+    private volatile boolean frozen;
 
     public Grid(int width, int height, int depth) {
+        this(width, height, depth, null);
+    }
+
+    /**
+     * Creates a grid on top of an existing read-only obstacle map (e.g. a mapped terrain).
+     * Obstacles added afterwards are layered over it without touching the shared store.
+     */
+    public Grid(int width, int height, int depth, ObstacleLookup baseObstacles) {
 
         if (width <= 0 || height <= 0 || depth <= 0) {
             throw new IllegalArgumentException("Grid dimensions must be positive");
@@ -18,6 +35,7 @@ public class Grid {
         this.width = width;
         this.height = height;
         this.depth = depth;
+        this.baseObstacles = baseObstacles;
     }
 
     public boolean isWithinBounds(int x, int y, int z) {
@@ -26,15 +44,211 @@ public class Grid {
 
 
     public void addObstacle(int x, int y, int z) {
+        if (frozen) throw new IllegalStateException("Grid is frozen");
         if (!isWithinBounds(x, y, z)) throw new IllegalArgumentException("Obstacle out of bounds");
-        obstacles.add(x + "," + y + "," + z);
+        if (baseObstacles != null && baseObstacles.contains(x, y, z)) return;
+        store().add(x, y, z);
+    }
+
+    /**
+     * Adds every cell whose bit is set in a packed bitmap. Bit {@code i} (byte {@code i / 8},
+     * least significant bit first) stands for the cell with packed index
+     * {@code i = x + width * (y + height * z)}.
+     */
+    public void addObstacleBitmap(byte[] bitmap) {
+        if (frozen) throw new IllegalStateException("Grid is frozen");
+        long cells = packedCellCount();
+        if (bitmap.length != (cells + 7) / 8) throw new IllegalArgumentException("Obstacle bitmap size does not match grid");
+        int spareBits = (int) (bitmap.length * 8L - cells);
+        if (spareBits > 0 && (bitmap[bitmap.length - 1] & 0xFF) >>> (8 - spareBits) != 0) {
+            throw new IllegalArgumentException("Obstacle out of bounds");
+        }
+
+        if (baseObstacles == null && store() instanceof DenseObstacleStore dense) {
+            dense.addBitmap(bitmap);
+            return;
+        }
+        for (int i = 0; i < bitmap.length; i++) {
+            int bits = bitmap[i] & 0xFF;
+            while (bits != 0) {
+                int bit = Integer.numberOfTrailingZeros(bits);
+                addPackedCell(i * 8L + bit);
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    /**
+     * Adds {@code length} consecutive cells in packed index order starting at {@code firstCell}
+     * (see {@link #addObstacleBitmap(byte[])} for the ordering).
+     */
+    public void addObstacleRun(long firstCell, long length) {
+        if (frozen) throw new IllegalStateException("Grid is frozen");
+        if (firstCell < 0 || length < 0 || length > packedCellCount() - firstCell) {
+            throw new IllegalArgumentException("Obstacle out of bounds");
+        }
+        if (baseObstacles == null && store() instanceof DenseObstacleStore dense) {
+            dense.addRange(firstCell, firstCell + length);
+            return;
+        }
+        for (long cell = firstCell; cell < firstCell + length; cell++) addPackedCell(cell);
+    }
+
+    private void addPackedCell(long cell) {
+        int x = (int) (cell % width);
+        long rest = cell / width;
+        addObstacle(x, (int) (rest % height), (int) (rest / height));
+    }
+
+    private long packedCellCount() {
+        if (!cellCountFitsInLong()) {
+            throw new IllegalArgumentException("Grid volume is too large for packed obstacle maps");
+        }
+        return (long) width * height * depth;
+    }
+
+    // width * height cannot overflow a long, but the product with depth can
+    private boolean cellCountFitsInLong() {
+        return Math.multiplyHigh((long) width * height, depth) == 0 && (long) width * height * depth >= 0;
+    }
+
+    private ObstacleStore store() {
+        if (obstacles == null) {
+            boolean dense = cellCountFitsInLong() && (long) width * height * depth <= DENSE_CELL_LIMIT;
+            obstacles = dense ? new DenseObstacleStore(width, height, depth) : new ChunkedObstacleStore();
+        }
+        return obstacles;
+    }
+
+    /**
+     * Marks every cell of the axis-aligned box between two corners (inclusive) as an obstacle.
+     * The box is stored as a single record regardless of how many cells it covers.
+     */
+    public void addObstacleRegion(int x1, int y1, int z1, int x2, int y2, int z2) {
+        if (frozen) throw new IllegalStateException("Grid is frozen");
+        if (!isWithinBounds(x1, y1, z1) || !isWithinBounds(x2, y2, z2)) {
+            throw new IllegalArgumentException("Obstacle region out of bounds");
+        }
+        if (regions == null) regions = new RegionIndex();
+        regions.add(Math.min(x1, x2), Math.min(y1, y2), Math.min(z1, z2),
+                Math.max(x1, x2), Math.max(y1, y2), Math.max(z1, z2));
     }
 
     public boolean isObstacle(int x, int y, int z) {
-        return obstacles.contains(x + "," + y + "," + z);
+        if (!isWithinBounds(x, y, z)) return false;
+        return (obstacles != null && obstacles.contains(x, y, z))
+                || (regions != null && regions.contains(x, y, z))
+                || (baseObstacles != null && baseObstacles.contains(x, y, z));
+    }
+
+    /**
+     * Number of cells a probe can advance from {@code (x, y, z)} along the unit vector
+     * {@code (dx, dy, dz)} before it would leave the grid or enter an obstacle, at most
+     * {@code limit}. Equivalent to stepping one cell at a time, but on a frozen grid long runs are
+     * resolved with a per-line index of obstacle positions instead. The index costs a pass over
+     * every obstacle, so it is only built when the grid is frozen, and all its runs share it.
+     */
+    public int freeSteps(int x, int y, int z, int dx, int dy, int dz, int limit) {
+        if (Math.abs(dx) + Math.abs(dy) + Math.abs(dz) != 1) throw new IllegalArgumentException("Step must be a unit vector");
+        if (!isWithinBounds(x, y, z)) throw new IllegalArgumentException("Position out of bounds");
+        int steps = Math.max(0, limit);
+        if (dx != 0) steps = Math.min(steps, dx > 0 ? width - 1 - x : x);
+        else if (dy != 0) steps = Math.min(steps, dy > 0 ? height - 1 - y : y);
+        else steps = Math.min(steps, dz > 0 ? depth - 1 - z : z);
+
+        if (steps <= WALK_LIMIT) {
+            for (int step = 1; step <= steps; step++) {
+                if (isObstacle(x + dx * step, y + dy * step, z + dz * step)) return step - 1;
+            }
+            return steps;
+        }
+        if (obstacles != null && obstacles.size() > 0) {
+            steps = frozen && lines != null
+                    ? lines.freeSteps(x, y, z, dx, dy, dz, steps)
+                    : obstacles.freeSteps(x, y, z, dx, dy, dz, steps);
+        }
+        if (regions != null && steps > 0) steps = regions.freeSteps(x, y, z, dx, dy, dz, steps);
+        if (baseObstacles != null && steps > 0) steps = baseObstacles.freeSteps(x, y, z, dx, dy, dz, steps);
+        return steps;
+    }
+
+    /** Number of individual obstacle cells; cells covered by regions are not included. */
+    public long getObstacleCount() {
+        return sizeOf(baseObstacles) + sizeOf(obstacles);
+    }
+
+    /** Approximate heap bytes held by the obstacle storage. */
+    public long getObstacleMemoryBytes() {
+        return (baseObstacles == null ? 0 : baseObstacles.memoryFootprintBytes())
+                + (obstacles == null ? 0 : obstacles.memoryFootprintBytes())
+                + (regions == null ? 0 : regions.memoryFootprintBytes());
+    }
+
+    public int getObstacleRegionCount() {
+        return regions == null ? 0 : regions.size();
+    }
+
+    /**
+     * Makes the grid immutable so it can be shared between runs and threads.
+     */
+    public Grid freeze() {
+        if (frozen) return this;
+        if (regions != null) regions.index();
+        if (obstacles != null && obstacles.size() > 0 && obstacles.size() <= LINE_INDEX_LIMIT) {
+            lines = ObstacleLines.of(obstacles, width, height);
+        }
+        frozen = true;
+        return this;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Returns a new, mutable grid of the same size whose base obstacles are this (frozen) grid's,
+     * so per-run obstacles can be added without copying or touching the shared grid.
+     */
+    public Grid layered() {
+        if (!frozen) throw new IllegalStateException("Only frozen grids can be layered");
+        return new Grid(width, height, depth, new FrozenGridStore(this));
+    }
+
+    private static long sizeOf(ObstacleLookup store) {
+        return store == null ? 0 : store.size();
     }
 
     public int getWidth() { return width; }
     public int getHeight() { return height; }
     public int getDepth() { return depth; }
+
+    private record FrozenGridStore(Grid grid) implements ObstacleLookup {
+
+        @Override
+        public boolean contains(int x, int y, int z) {
+            return grid.isObstacle(x, y, z);
+        }
+
+        @Override
+        public long size() {
+            return grid.getObstacleCount();
+        }
+
+        @Override
+        public long memoryFootprintBytes() {
+            return 0; // owned by the shared grid
+        }
+
+        @Override
+        public void forEach(CellVisitor visitor) {
+            // Region cells are not enumerated, matching size()
+            if (grid.baseObstacles != null) grid.baseObstacles.forEach(visitor);
+            if (grid.obstacles != null) grid.obstacles.forEach(visitor);
+        }
+
+        @Override
+        public int freeSteps(int x, int y, int z, int dx, int dy, int dz, int limit) {
+            return grid.freeSteps(x, y, z, dx, dy, dz, limit);
+        }
+    }
 }
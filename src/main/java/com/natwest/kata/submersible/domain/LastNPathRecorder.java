@@ -0,0 +1,62 @@
+package com.natwest.kata.submersible.domain;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/** Keeps the most recent N positions in a fixed-size ring buffer. */
+final class LastNPathRecorder implements PathRecorder {
+
+    private static final int MAX_CAPACITY = (Integer.MAX_VALUE - 8) / 3;
+
+    private final int capacity;
+    private int[] ring; // grows up to capacity * 3, so a generous N costs nothing on short runs
+    private long seen;
+
+    LastNPathRecorder(int capacity) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) throw new IllegalArgumentException("Path size must be between 1 and " + MAX_CAPACITY);
+        this.capacity = capacity;
+        this.ring = new int[Math.min(capacity, 1024) * 3];
+    }
+
+    @Override
+    public void record(int x, int y, int z) {
+        int i = (int) (seen % capacity) * 3;
+        if (i == ring.length) ring = Arrays.copyOf(ring, (int) Math.min(capacity * 3L, ring.length * 2L));
+        ring[i] = x;
+        ring[i + 1] = y;
+        ring[i + 2] = z;
+        seen++;
+    }
+
+    @Override
+    public List<String> positions() {
+        int size = (int) Math.min(seen, capacity);
+        long first = seen - size;
+        return new Snapshot(first, size);
+    }
+
+    private final class Snapshot extends AbstractList<String> implements RandomAccess {
+
+        private final long first;
+        private final int size;
+
+        Snapshot(long first, int size) {
+            this.first = first;
+            this.size = size;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+            int i = (int) ((first + index) % capacity) * 3;
+            return PathBuffer.format(ring[i], ring[i + 1], ring[i + 2]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.natwest.kata.submersible.domain;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Read-only obstacle map backed by a memory-mapped terrain file.
+ * <p>
+ * The data lives in the OS page cache rather than on the heap, so even a multi-gigabyte terrain
+ * costs no heap and several JVMs on the same host share one copy. Opening reads the entries once,
+ * sequentially, to check them, since lookups rely on them being sorted and within the grid.
+ * <p>
+ * File layout (little-endian):
+ * <pre>
+ *   0  8 bytes  magic "SUBTERR1"
+ *   8  int      width
+ *  12  int      height
+ *  16  int      depth
+ *  20  int      reserved (0)
+ *  24  long     obstacle count n
+ *  32  n longs  packed cell indices x + width * (y + height * z), sorted ascending, no duplicates
+ * </pre>
+ */
+public final class MappedObstacleStore implements ObstacleLookup {
+
+    private static final long MAGIC = 0x3152524554425553L; // "SUBTERR1"
+    private static final int HEADER_BYTES = 32;
+    // Each mapping covers at most 2^27 entries (1 GiB) to stay under the MappedByteBuffer limit.
+    private static final int SEGMENT_SHIFT = 27;
+    private static final long SEGMENT_ENTRIES = 1L << SEGMENT_SHIFT;
+
+    private final int width;
+    private final int height;
+    private final int depth;
+    private final long count;
+    private final LongBuffer[] segments;
+
+    private MappedObstacleStore(int width, int height, int depth, long count, LongBuffer[] segments) {
+        this.width = width;
+        this.height = height;
+        this.depth = depth;
+        this.count = count;
+        this.segments = segments;
+    }
+
+    /**
+     * Maps an existing terrain file. The returned store stays valid after the file channel is
+     * closed and may be shared freely between threads.
+     *
+     * @throws IllegalArgumentException if the file is not a terrain file, or its entries are out of
+     *                                  order, duplicated or outside the grid
+     */
+    public static MappedObstacleStore open(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) throw new IllegalArgumentException("Truncated terrain file");
+            }
+            header.flip();
+            if (header.getLong() != MAGIC) throw new IllegalArgumentException("Not a terrain file");
+            int width = header.getInt();
+            int height = header.getInt();
+            int depth = header.getInt();
+            header.getInt();
+            long count = header.getLong();
+            if (width <= 0 || height <= 0 || depth <= 0 || !supportsDimensions(width, height, depth)) {
+                throw new IllegalArgumentException("Invalid terrain dimensions");
+            }
+            if (count < 0 || channel.size() != HEADER_BYTES + count * Long.BYTES) {
+                throw new IllegalArgumentException("Truncated terrain file");
+            }
+
+            int segmentCount = (int) ((count + SEGMENT_ENTRIES - 1) >>> SEGMENT_SHIFT);
+            LongBuffer[] segments = new LongBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long first = (long) i << SEGMENT_SHIFT;
+                long entries = Math.min(SEGMENT_ENTRIES, count - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * Long.BYTES, entries * Long.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .asLongBuffer();
+            }
+            checkEntries(segments, (long) width * height * depth);
+            return new MappedObstacleStore(width, height, depth, count, segments);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void checkEntries(LongBuffer[] segments, long cells) {
+        long previous = -1;
+        for (LongBuffer segment : segments) {
+            for (int i = 0; i < segment.limit(); i++) {
+                long cell = segment.get(i);
+                if (cell <= previous || cell >= cells) throw new IllegalArgumentException("Corrupt terrain file");
+                previous = cell;
+            }
+        }
+    }
+
+    /**
+     * Writes a terrain file for the given grid dimensions.
+     *
+     * @param cells packed cell indices as produced by {@link #cellKey}; sorted and de-duplicated in place
+     * @return the number of distinct obstacles written
+     */
+    public static long write(Path file, int width, int height, int depth, long[] cells) {
+        Arrays.sort(cells);
+        int distinct = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (i == 0 || cells[i] != cells[distinct - 1]) cells[distinct++] = cells[i];
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putLong(MAGIC).putInt(width).putInt(height).putInt(depth).putInt(0).putLong(distinct);
+            for (int i = 0; i < distinct; i++) {
+                if (!buffer.hasRemaining()) drain(channel, buffer);
+                buffer.putLong(cells[i]);
+            }
+            drain(channel, buffer);
+            channel.force(false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return distinct;
+    }
+
+    /**
+     * Packed cell index used by the terrain format. Requires the grid's cell count to fit in a long.
+     */
+    public static long cellKey(int width, int height, int x, int y, int z) {
+        return x + (long) width * (y + (long) height * z);
+    }
+
+    /** Whether a grid of these dimensions can be stored as a terrain file. */
+    public static boolean supportsDimensions(int width, int height, int depth) {
+        return Math.multiplyHigh((long) width * height, depth) == 0 && (long) width * height * depth >= 0;
+    }
+
+    @Override
+    public boolean contains(int x, int y, int z) {
+        long key = cellKey(width, height, x, y, z);
+        long lo = 0;
+        long hi = count - 1;
+        while (lo <= hi) {
+            long mid = (lo + hi) >>> 1;
+            long value = entry(mid);
+            if (value < key) lo = mid + 1;
+            else if (value > key) hi = mid - 1;
+            else return true;
+        }
+        return false;
+    }
+
+    /**
+     * Cells along X are adjacent in the sorted file, so the nearest obstacle on an X line is one
+     * binary search away; other axes fall back to probing cell by cell.
+     */
+    @Override
+    public int freeSteps(int x, int y, int z, int dx, int dy, int dz, int limit) {
+        if (dx == 0 || limit == 0) return ObstacleLookup.super.freeSteps(x, y, z, dx, dy, dz, limit);
+        long next = cellKey(width, height, x + dx, y, z);
+        if (dx > 0) {
+            long index = lowerBound(next);
+            if (index == count) return limit;
+            return (int) Math.min(limit, entry(index) - next);
+        }
+        long index = lowerBound(next + 1) - 1;
+        if (index < 0) return limit;
+        return (int) Math.min(limit, next - entry(index));
+    }
+
+    @Override
+    public void forEach(CellVisitor visitor) {
+        for (long i = 0; i < count; i++) {
+            long cell = entry(i);
+            long rest = cell / width;
+            visitor.visit((int) (cell % width), (int) (rest % height), (int) (rest / height));
+        }
+    }
+
+    @Override
+    public long size() {
+        return count;
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        // The entries themselves are off-heap; only the buffer views count.
+        return 64L + 64L * segments.length;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getDepth() { return depth; }
+
+    /** Index of the first entry that is {@code >= key}, or {@code count} if there is none. */
+    private long lowerBound(long key) {
+        long lo = 0;
+        long hi = count;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (entry(mid) < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private long entry(long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)].get((int) (index & (SEGMENT_ENTRIES - 1)));
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+}
@@ -0,0 +1,32 @@
+package com.natwest.kata.submersible.domain;
+
+import java.util.List;
+
+/** Keeps nothing; only the final state and counts are of interest. */
+final class NoPathRecorder implements PathRecorder {
+
+    static final NoPathRecorder INSTANCE = new NoPathRecorder();
+
+    private NoPathRecorder() {
+    }
+
+    @Override
+    public void record(int x, int y, int z) {
+        // intentionally empty
+    }
+
+    @Override
+    public void recordLine(int x, int y, int z, int dx, int dy, int dz, int count) {
+        // intentionally empty
+    }
+
+    @Override
+    public boolean repeatLast(long count, long times) {
+        return true;
+    }
+
+    @Override
+    public List<String> positions() {
+        return List.of();
+    }
+}
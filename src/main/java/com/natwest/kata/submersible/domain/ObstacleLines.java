@@ -0,0 +1,107 @@
+package com.natwest.kata.submersible.domain;
+
+import java.util.Arrays;
+
+/**
+ * Obstacle positions grouped by grid line, for finding the nearest obstacle in a straight line.
+ * <p>
+ * For each axis the obstacles are bucketed by the line they lie on (the two other coordinates)
+ * and each bucket holds the sorted positions along that axis, so the first obstacle ahead of a
+ * probe is a hash lookup plus a binary search. The index is a snapshot: it is built once from
+ * a store and never updated. All fields are final, so an instance can be handed between threads
+ * without further synchronization.
+ */
+final class ObstacleLines {
+
+    private static final int X = 0;
+    private static final int Y = 1;
+    private static final int Z = 2;
+    private static final int[] CLAIMED = new int[0]; // marks a used slot until its array is sized
+
+    private final int width;
+    private final int height;
+    private final LineTable[] axes = new LineTable[3];
+
+    private ObstacleLines(int width, int height, PathBuffer cells) {
+        this.width = width;
+        this.height = height;
+        for (int axis = X; axis <= Z; axis++) axes[axis] = new LineTable(axis, cells);
+    }
+
+    static ObstacleLines of(ObstacleLookup store, int width, int height) {
+        PathBuffer cells = new PathBuffer((int) Math.max(1, store.size()));
+        store.forEach(cells::add);
+        return new ObstacleLines(width, height, cells);
+    }
+
+    /** Same contract as {@link ObstacleLookup#freeSteps}. */
+    int freeSteps(int x, int y, int z, int dx, int dy, int dz, int limit) {
+        int axis = dx != 0 ? X : dy != 0 ? Y : Z;
+        int[] positions = axes[axis].positions(lineKey(axis, x, y, z));
+        if (positions == null) return limit;
+        int from = axis == X ? x : axis == Y ? y : z;
+        if (dx + dy + dz > 0) {
+            int i = Arrays.binarySearch(positions, from + 1);
+            if (i < 0) i = -i - 1;
+            return i == positions.length ? limit : Math.min(limit, positions[i] - from - 1);
+        }
+        int i = Arrays.binarySearch(positions, from - 1);
+        if (i < 0) i = -i - 2;
+        return i < 0 ? limit : Math.min(limit, from - 1 - positions[i]);
+    }
+
+    private long lineKey(int axis, int x, int y, int z) {
+        return switch (axis) {
+            case X -> y + (long) height * z;
+            case Y -> x + (long) width * z;
+            default -> x + (long) width * y;
+        };
+    }
+
+    /** Open-addressing map from line key to the sorted obstacle positions on that line. */
+    private final class LineTable {
+
+        private final long[] keys;
+        private final int[][] positions;
+        private final int mask;
+
+        LineTable(int axis, PathBuffer cells) {
+            int capacity = Integer.highestOneBit(Math.max(2, cells.size()) * 2 - 1) << 1;
+            keys = new long[capacity];
+            positions = new int[capacity][];
+            mask = capacity - 1;
+
+            int[] counts = new int[capacity];
+            int[] slots = new int[cells.size()];
+            for (int i = 0; i < cells.size(); i++) {
+                long key = lineKey(axis, cells.x(i), cells.y(i), cells.z(i));
+                int slot = slot(key);
+                keys[slot] = key;
+                if (positions[slot] == null) positions[slot] = CLAIMED;
+                counts[slot]++;
+                slots[i] = slot;
+            }
+            for (int slot = 0; slot < capacity; slot++) {
+                if (positions[slot] != null) positions[slot] = new int[counts[slot]];
+            }
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < cells.size(); i++) {
+                int pos = axis == X ? cells.x(i) : axis == Y ? cells.y(i) : cells.z(i);
+                positions[slots[i]][counts[slots[i]]++] = pos;
+            }
+            for (int[] line : positions) {
+                if (line != null) Arrays.sort(line);
+            }
+        }
+
+        int[] positions(long key) {
+            return positions[slot(key)];
+        }
+
+        private int slot(long key) {
+            int slot = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+            while (positions[slot] != null && keys[slot] != key) slot = (slot + 1) & mask;
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.natwest.kata.submersible.domain;
+
+/**
+ * Read-only view of the obstacle cells of a {@link Grid}, such as a shared terrain or frozen grid.
+ * <p>
+ * Coordinates passed in are always within the owning grid's bounds.
+ */
+public interface ObstacleLookup {
+
+    boolean contains(int x, int y, int z);
+
+    /** Number of distinct obstacle cells held. */
+    long size();
+
+    /** Approximate heap bytes used by the store, including its own arrays. */
+    long memoryFootprintBytes();
+
+    /** Calls the visitor once for every obstacle cell, in no particular order. */
+    void forEach(CellVisitor visitor);
+
+    /**
+     * Number of cells that can be stepped through from {@code (x, y, z)} along the unit vector
+     * {@code (dx, dy, dz)} before reaching an obstacle, at most {@code limit}. The caller keeps
+     * all {@code limit} steps within the grid. The default checks one cell at a time.
+     */
+    default int freeSteps(int x, int y, int z, int dx, int dy, int dz, int limit) {
+        for (int step = 1; step <= limit; step++) {
+            if (contains(x + dx * step, y + dy * step, z + dz * step)) return step - 1;
+        }
+        return limit;
+    }
+
+    @FunctionalInterface
+    interface CellVisitor {
+        void visit(int x, int y, int z);
+    }
+}
@@ -0,0 +1,11 @@
+package com.natwest.kata.submersible.domain;
+
+/**
+ * Backing storage for the obstacle cells a {@link Grid} adds itself.
+ * <p>
+ * Coordinates passed in are always within the owning grid's bounds.
+ */
+public interface ObstacleStore extends ObstacleLookup {
+
+    void add(int x, int y, int z);
+}
@@ -0,0 +1,125 @@
+package com.natwest.kata.submersible.domain;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Growable buffer of visited positions stored as packed int triples.
+ * <p>
+ * Recording a position is an array write; the {@code "(x,y,z)"} strings exposed by
+ * {@link #asList()} are only built when an element is read, typically while the response
+ * is being serialized.
+ */
+public final class PathBuffer {
+
+    /** Most positions a buffer can hold. */
+    public static final int MAX_SIZE = (Integer.MAX_VALUE - 8) / 3;
+
+    private int[] coords;
+    private int size;
+
+    public PathBuffer() {
+        this(16);
+    }
+
+    public PathBuffer(int initialCapacity) {
+        coords = new int[Math.max(1, initialCapacity) * 3];
+    }
+
+    public void add(int x, int y, int z) {
+        int i = size * 3;
+        if (i == coords.length) {
+            int grown = (int) Math.min(Integer.MAX_VALUE - 8L, coords.length + (coords.length >> 1) + 3L);
+            coords = Arrays.copyOf(coords, grown - grown % 3);
+        }
+        coords[i] = x;
+        coords[i + 1] = y;
+        coords[i + 2] = z;
+        size++;
+    }
+
+    /** Appends the last {@code count} positions {@code times} more times, keeping their order. */
+    public void repeatLast(int count, int times) {
+        if (count < 0 || count > size || times < 0) throw new IndexOutOfBoundsException("Invalid repeat");
+        long total = size + (long) count * times;
+        if (total > MAX_SIZE) throw new IllegalStateException("Path is too long");
+        int needed = (int) total * 3;
+        if (needed > coords.length) {
+            int grown = (int) Math.min(MAX_SIZE * 3L, coords.length + (coords.length >> 1) + 3L);
+            coords = Arrays.copyOf(coords, Math.max(needed, grown - grown % 3));
+        }
+        int from = (size - count) * 3;
+        for (int t = 0; t < times; t++) {
+            System.arraycopy(coords, from, coords, size * 3, count * 3);
+            size += count;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int x(int index) {
+        return coords[checkIndex(index) * 3];
+    }
+
+    public int y(int index) {
+        return coords[checkIndex(index) * 3 + 1];
+    }
+
+    public int z(int index) {
+        return coords[checkIndex(index) * 3 + 2];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /** Read-only view of all positions recorded so far, formatted as {@code "(x,y,z)"} on access. */
+    public List<String> asList() {
+        return asList(0, size);
+    }
+
+    /**
+     * Read-only view of positions {@code [from, to)}, formatted on access. The view keeps its
+     * range even if more positions are recorded afterwards.
+     */
+    public List<String> asList(int from, int to) {
+        if (from < 0 || to > size || from > to) throw new IndexOutOfBoundsException("Invalid path range");
+        return new FormattedView(from, to);
+    }
+
+    public static String format(int x, int y, int z) {
+        return "(" + x + "," + y + "," + z + ")";
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        return index;
+    }
+
+    private final class FormattedView extends AbstractList<String> implements RandomAccess {
+
+        private final int from;
+        private final int to;
+
+        FormattedView(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= to - from) throw new IndexOutOfBoundsException(index);
+            int i = (from + index) * 3;
+            return format(coords[i], coords[i + 1], coords[i + 2]);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.natwest.kata.submersible.domain;
+
+import com.natwest.kata.submersible.enums.PathMode;
+
+import java.util.List;
+
+/**
+ * Decides which of the positions a {@link Probe} visits are kept, so runs that do not need the
+ * full path never store it.
+ */
+public interface PathRecorder {
+
+    void record(int x, int y, int z);
+
+    /**
+     * Records {@code count} positions stepping from {@code (x, y, z)} (already recorded) along the
+     * unit vector {@code (dx, dy, dz)}; same as calling {@link #record} for each of them.
+     */
+    default void recordLine(int x, int y, int z, int dx, int dy, int dz, int count) {
+        for (int step = 1; step <= count; step++) record(x + dx * step, y + dy * step, z + dz * step);
+    }
+
+    /**
+     * Records the last {@code count} recorded positions again, {@code times} times over, as if
+     * they had been visited that many more times in the same order. Returns {@code false}, having
+     * recorded nothing, if the recorder cannot do this cheaper than being fed each position.
+     */
+    default boolean repeatLast(long count, long times) {
+        return false;
+    }
+
+    /** Kept positions in visiting order, formatted as {@code "(x,y,z)"} on access. */
+    List<String> positions();
+
+    /** Compact encoding of the path, or {@code null} if this recorder keeps individual positions. */
+    default String encoded() {
+        return null;
+    }
+
+    /**
+     * @param mode which positions to keep
+     * @param size N for {@link PathMode#SAMPLED} (every Nth position) and {@link PathMode#LAST_N}
+     *             (the most recent N); ignored otherwise
+     */
+    static PathRecorder of(PathMode mode, int size) {
+        return switch (mode) {
+            case FULL -> new FullPathRecorder();
+            case NONE -> NoPathRecorder.INSTANCE;
+            case DISTINCT -> new DistinctPathRecorder();
+            case SAMPLED -> new SampledPathRecorder(size);
+            case LAST_N -> new LastNPathRecorder(size);
+            case RUN_LENGTH -> new RunLengthPathRecorder();
+        };
+    }
+}
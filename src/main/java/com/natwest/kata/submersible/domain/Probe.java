@@ -1,21 +1,30 @@
 package com.natwest.kata.submersible.domain;
 
 import com.natwest.kata.submersible.enums.Direction;
+import com.natwest.kata.submersible.enums.PathMode;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class Probe {
 
     private final Grid grid;
-    private final List<String> visitedCoordinates = new ArrayList<>();
+    private final PathRecorder path;
+    private long visitedCount;
     private int x;
     private int y;
     private int z;
     private Direction direction;
     private Direction lastHorizontalDirection;
+    private ProbeListener listener;
 
     public Probe(int x, int y, int z, Direction direction, Grid grid) {
+        this(x, y, z, direction, grid, PathRecorder.of(PathMode.FULL, 0));
+    }
+
+    /**
+     * @param path decides which visited positions are kept (see {@link PathRecorder#of})
+     */
+    public Probe(int x, int y, int z, Direction direction, Grid grid, PathRecorder path) {
         if (direction == null) throw new IllegalArgumentException("Direction cannot be null");
         if (!grid.isWithinBounds(x, y, z)) throw new IllegalArgumentException("Position out of bounds");
         this.x = x;
@@ -23,6 +32,7 @@ public class Probe {
         this.z = z;
         this.direction = direction;
         this.grid = grid;
+        this.path = path;
         this.lastHorizontalDirection = direction; // assume initial is horizontal
         recordPosition();
     }
@@ -43,8 +53,36 @@ public class Probe {
         return direction;
     }
 
+    public Grid getGrid() {
+        return grid;
+    }
+
+    /** Horizontal heading that {@link #turnUp()}/{@link #turnDown()} return to from a vertical one. */
+    public Direction getLastHorizontalDirection() {
+        return lastHorizontalDirection;
+    }
+
+    /**
+     * Visited positions kept by the path recorder, formatted as {@code "(x,y,z)"}; strings are
+     * built lazily on access.
+     */
     public List<String> getVisitedCoordinates() {
-        return visitedCoordinates;
+        return path.positions();
+    }
+
+    /** Compact path encoding if the recorder produces one (see {@link PathRecorder#encoded()}), else {@code null}. */
+    public String getEncodedPath() {
+        return path.encoded();
+    }
+
+    /** Registers the listener told about moves and turns from now on, or removes it with {@code null}. */
+    public void setListener(ProbeListener listener) {
+        this.listener = listener;
+    }
+
+    /** Number of positions visited (start included), whether or not the recorder kept them. */
+    public long getVisitedCount() {
+        return visitedCount;
     }
 
     // --- movement in all 6 directions (Stage 3) ---
@@ -70,6 +108,51 @@ public class Probe {
         }
     }
 
+    /**
+     * Moves up to {@code steps} cells forward (or backward) in a straight line, stopping at the
+     * grid edge or the first obstacle. Records the same positions as calling
+     * {@link #moveForward()} or {@link #moveBackward()} {@code steps} times, but finds the stopping
+     * point with a single {@link Grid#freeSteps} query.
+     *
+     * @return number of cells actually moved; the remaining steps were blocked
+     */
+    public int advance(boolean forward, int steps) {
+        int sign = forward ? 1 : -1;
+        int dx = 0;
+        int dy = 0;
+        int dz = 0;
+        switch (direction) {
+            case NORTH -> dy = sign;
+            case SOUTH -> dy = -sign;
+            case EAST  -> dx = sign;
+            case WEST  -> dx = -sign;
+            case UP    -> dz = sign;
+            case DOWN  -> dz = -sign;
+        }
+        int moved = grid.freeSteps(x, y, z, dx, dy, dz, steps);
+        if (moved > 0) {
+            path.recordLine(x, y, z, dx, dy, dz, moved);
+            visitedCount += moved;
+            x += dx * moved;
+            y += dy * moved;
+            z += dz * moved;
+            if (listener != null) listener.moved(this);
+        }
+        if (moved < steps && listener != null) listener.blocked(this, steps - moved);
+        return moved;
+    }
+
+    /**
+     * Repeats the last {@code positions} visited positions {@code times} more times without moving,
+     * for a cycle that brings the probe back to where it started. Returns {@code false}, changing
+     * nothing, if the path recorder cannot replay positions cheaply.
+     */
+    public boolean repeatCycle(long positions, long times) {
+        if (positions > 0 && !path.repeatLast(positions, times)) return false;
+        visitedCount += positions * times;
+        return true;
+    }
+
     public void moveUp() {
         move(0, 0, 1);
     }
@@ -84,12 +167,12 @@ public class Probe {
         if (direction == Direction.DOWN) {
             // Coming up from DOWN → restore last horizontal
             direction = lastHorizontalDirection;
-            return;
+        } else {
+            // horizontal → UP
+            lastHorizontalDirection = direction;
+            direction = Direction.UP;
         }
-
-        // horizontal → UP
-        lastHorizontalDirection = direction;
-        direction = Direction.UP;
+        if (listener != null) listener.turned(this);
     }
 
     public void turnDown() {
@@ -98,12 +181,12 @@ public class Probe {
         if (direction == Direction.UP) {
             // Coming down from UP → restore last horizontal
             direction = lastHorizontalDirection;
-            return;
+        } else {
+            // horizontal → DOWN
+            lastHorizontalDirection = direction;
+            direction = Direction.DOWN;
         }
-
-        // horizontal → DOWN
-        lastHorizontalDirection = direction;
-        direction = Direction.DOWN;
+        if (listener != null) listener.turned(this);
     }
 
     public void turnLeft() {
@@ -112,8 +195,9 @@ public class Probe {
             case WEST  -> direction = Direction.SOUTH;
             case SOUTH -> direction = Direction.EAST;
             case EAST  -> direction = Direction.NORTH;
-            case UP, DOWN -> { /* NOOP when vertical */ }
+            case UP, DOWN -> { return; /* NOOP when vertical */ }
         }
+        if (listener != null) listener.turned(this);
     }
 
     public void turnRight() {
@@ -122,8 +206,9 @@ public class Probe {
             case EAST  -> direction = Direction.SOUTH;
             case SOUTH -> direction = Direction.WEST;
             case WEST  -> direction = Direction.NORTH;
-            case UP, DOWN -> { /* NOOP when vertical */ }
+            case UP, DOWN -> { return; /* NOOP when vertical */ }
         }
+        if (listener != null) listener.turned(this);
     }
 
     private void move(int dx, int dy, int dz) {
@@ -135,10 +220,14 @@ public class Probe {
             y = newY;
             z = newZ;
             recordPosition();
+            if (listener != null) listener.moved(this);
+        } else if (listener != null) {
+            listener.blocked(this, 1);
         }
     }
 
     public void recordPosition() {
-        visitedCoordinates.add("(" + x + "," + y + "," + z + ")");
+        visitedCount++;
+        path.record(x, y, z);
     }
 }
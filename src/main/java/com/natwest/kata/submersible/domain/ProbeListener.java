@@ -0,0 +1,20 @@
+package com.natwest.kata.submersible.domain;
+
+/**
+ * Notified as a {@link Probe} moves and turns, for example to push live telemetry.
+ * <p>
+ * Callbacks run on the thread driving the probe, so implementations must return quickly. A
+ * straight run of several cells moved with {@link Probe#advance} is reported as one move, and
+ * loop periods skipped by fast-forwarding (which end where they started) are not reported.
+ */
+public interface ProbeListener {
+
+    /** The probe has moved; its position is the new one. */
+    void moved(Probe probe);
+
+    /** The probe's direction has changed. */
+    void turned(Probe probe);
+
+    /** {@code moves} moves were refused at the grid edge or an obstacle; the probe did not move for them. */
+    void blocked(Probe probe, int moves);
+}
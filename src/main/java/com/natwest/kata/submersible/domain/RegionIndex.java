@@ -0,0 +1,202 @@
+package com.natwest.kata.submersible.domain;
+
+import java.util.Arrays;
+
+/**
+ * Axis-aligned obstacle boxes, queried by point or along a straight line.
+ * <p>
+ * Boxes are sorted by their X start and indexed as an implicit augmented interval tree laid
+ * out over the sorted array (each node stores the largest X end in its subtree), so a lookup
+ * touches O(log n + k) boxes and allocates nothing. Y and Z are checked only for boxes whose
+ * X interval already contains the point.
+ * <p>
+ * The index is rebuilt lazily after boxes are added; callers must finish adding before sharing
+ * the index between threads (see {@link Grid#freeze()}).
+ */
+final class RegionIndex {
+
+    // Below this subtree height a linear scan beats further descent
+    private static final int SCAN_LEVEL = 3;
+
+    // Per box: [minX, endX) with endX exclusive, and inclusive Y/Z ranges
+    private int[] minX = new int[8];
+    private int[] endX = new int[8];
+    private int[] minY = new int[8];
+    private int[] maxY = new int[8];
+    private int[] minZ = new int[8];
+    private int[] maxZ = new int[8];
+    private int[] maxEnd = new int[8];
+    private int size;
+    private int maxLevel = -1;
+    private boolean indexed = true;
+
+    void add(int x1, int y1, int z1, int x2, int y2, int z2) {
+        if (size == minX.length) grow();
+        minX[size] = x1;
+        endX[size] = x2 + 1;
+        minY[size] = y1;
+        maxY[size] = y2;
+        minZ[size] = z1;
+        maxZ[size] = z2;
+        size++;
+        indexed = false;
+    }
+
+    boolean contains(int x, int y, int z) {
+        if (size == 0) return false;
+        if (!indexed) index();
+        return search(maxLevel, (1 << maxLevel) - 1, x, y, z);
+    }
+
+    /**
+     * Cells that can be stepped through from {@code (x, y, z)} along the unit vector before
+     * entering a box, at most {@code limit}. Only boxes whose X interval overlaps the cells the
+     * move could cover are visited, found through the same tree as {@link #contains}.
+     */
+    int freeSteps(int x, int y, int z, int dx, int dy, int dz, int limit) {
+        if (size == 0 || limit <= 0) return limit;
+        if (!indexed) index();
+        int lo = dx > 0 ? x + 1 : dx < 0 ? x - limit : x;
+        int hi = dx > 0 ? x + limit : dx < 0 ? x - 1 : x;
+        return searchFree(maxLevel, (1 << maxLevel) - 1, lo, hi, x, y, z, dx, dy, dz, limit);
+    }
+
+    // Visits the boxes overlapping [lo, hi] in X, pruned like search()
+    private int searchFree(int level, int node, int lo, int hi, int x, int y, int z, int dx, int dy, int dz, int free) {
+        if (free == 0) return 0;
+        if (level <= SCAN_LEVEL) {
+            int from = node >> level << level;
+            int to = Math.min(size, from + (1 << (level + 1)) - 1);
+            for (int i = from; i < to && minX[i] <= hi; i++) {
+                if (lo < endX[i]) free = freeBefore(i, x, y, z, dx, dy, dz, free);
+            }
+            return free;
+        }
+        int half = 1 << (level - 1);
+        int left = node - half;
+        if (left >= size || maxEnd[left] > lo) free = searchFree(level - 1, left, lo, hi, x, y, z, dx, dy, dz, free);
+        if (node < size && minX[node] <= hi) {
+            if (lo < endX[node]) free = freeBefore(node, x, y, z, dx, dy, dz, free);
+            free = searchFree(level - 1, node + half, lo, hi, x, y, z, dx, dy, dz, free);
+        }
+        return free;
+    }
+
+    // Box i overlaps the move's X range; for Y and Z moves that range is x itself
+    private int freeBefore(int i, int x, int y, int z, int dx, int dy, int dz, int free) {
+        int from;
+        int lo;
+        int hi;
+        if (dx != 0) {
+            if (!matchesYz(i, y, z)) return free;
+            from = x;
+            lo = minX[i];
+            hi = endX[i] - 1;
+        } else if (dy != 0) {
+            if (z < minZ[i] || z > maxZ[i]) return free;
+            from = y;
+            lo = minY[i];
+            hi = maxY[i];
+        } else {
+            if (y < minY[i] || y > maxY[i]) return free;
+            from = z;
+            lo = minZ[i];
+            hi = maxZ[i];
+        }
+        if (dx + dy + dz > 0) {
+            int first = Math.max(lo, from + 1);
+            return first <= hi ? Math.min(free, first - from - 1) : free;
+        }
+        int first = Math.min(hi, from - 1);
+        return first >= lo ? Math.min(free, from - 1 - first) : free;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long memoryFootprintBytes() {
+        return 64L + 7L * (16L + 4L * minX.length);
+    }
+
+    /** Sorts boxes by X start and computes subtree maxima; idempotent. */
+    void index() {
+        if (indexed) return;
+        sortByMinX();
+
+        int last = 0;
+        int lastIndex = 0;
+        for (int i = 0; i < size; i += 2) {
+            lastIndex = i;
+            last = maxEnd[i] = endX[i];
+        }
+        int k = 1;
+        for (; 1 << k <= size; k++) {
+            int half = 1 << (k - 1);
+            int first = (half << 1) - 1;
+            int step = half << 2;
+            for (int i = first; i < size; i += step) {
+                int left = maxEnd[i - half];
+                int right = i + half < size ? maxEnd[i + half] : last;
+                maxEnd[i] = Math.max(endX[i], Math.max(left, right));
+            }
+            lastIndex = ((lastIndex >> k) & 1) != 0 ? lastIndex - half : lastIndex + half;
+            if (lastIndex < size && maxEnd[lastIndex] > last) last = maxEnd[lastIndex];
+        }
+        maxLevel = k - 1;
+        indexed = true;
+    }
+
+    private boolean search(int level, int node, int x, int y, int z) {
+        if (level <= SCAN_LEVEL) {
+            int from = node >> level << level;
+            int to = Math.min(size, from + (1 << (level + 1)) - 1);
+            for (int i = from; i < to && minX[i] <= x; i++) {
+                if (x < endX[i] && matchesYz(i, y, z)) return true;
+            }
+            return false;
+        }
+        int half = 1 << (level - 1);
+        int left = node - half;
+        if ((left >= size || maxEnd[left] > x) && search(level - 1, left, x, y, z)) return true;
+        if (node < size && minX[node] <= x) {
+            if (x < endX[node] && matchesYz(node, y, z)) return true;
+            return search(level - 1, node + half, x, y, z);
+        }
+        return false;
+    }
+
+    private boolean matchesYz(int i, int y, int z) {
+        return y >= minY[i] && y <= maxY[i] && z >= minZ[i] && z <= maxZ[i];
+    }
+
+    private void sortByMinX() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(minX[a], minX[b]));
+        minX = permute(minX, order);
+        endX = permute(endX, order);
+        minY = permute(minY, order);
+        maxY = permute(maxY, order);
+        minZ = permute(minZ, order);
+        maxZ = permute(maxZ, order);
+        maxEnd = new int[minX.length];
+    }
+
+    private static int[] permute(int[] values, Integer[] order) {
+        int[] out = new int[values.length];
+        for (int i = 0; i < order.length; i++) out[i] = values[order[i]];
+        return out;
+    }
+
+    private void grow() {
+        int capacity = minX.length * 2;
+        minX = Arrays.copyOf(minX, capacity);
+        endX = Arrays.copyOf(endX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        maxY = Arrays.copyOf(maxY, capacity);
+        minZ = Arrays.copyOf(minZ, capacity);
+        maxZ = Arrays.copyOf(maxZ, capacity);
+        maxEnd = Arrays.copyOf(maxEnd, capacity);
+    }
+}
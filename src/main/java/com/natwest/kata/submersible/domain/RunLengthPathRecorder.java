@@ -0,0 +1,132 @@
+package com.natwest.kata.submersible.domain;
+
+import java.util.List;
+
+/**
+ * Encodes the path as a start coordinate followed by run-length segments of unit steps.
+ * <p>
+ * Every recorded move changes exactly one axis by one, so long straight legs collapse into a
+ * single segment. Format:
+ * <pre>
+ *   path    := start segment*
+ *   start   := x "," y "," z
+ *   segment := ("+" | "-") ("x" | "y" | "z") count
+ * </pre>
+ * e.g. {@code "0,0,0+y3+x1-y3"} is (0,0,0) (0,1,0) (0,2,0) (0,3,0) (1,3,0) (1,2,0) (1,1,0) (1,0,0).
+ * {@link #decode(String)} is the reference decoder.
+ */
+public final class RunLengthPathRecorder implements PathRecorder {
+
+    private final StringBuilder encoded = new StringBuilder();
+    private boolean started;
+    private int lastX;
+    private int lastY;
+    private int lastZ;
+    private char runSign;
+    private char runAxis;
+    private long runLength;
+
+    @Override
+    public void record(int x, int y, int z) {
+        if (!started) {
+            encoded.append(x).append(',').append(y).append(',').append(z);
+            started = true;
+        } else {
+            long dx = (long) x - lastX;
+            long dy = (long) y - lastY;
+            long dz = (long) z - lastZ;
+            if (Math.abs(dx) + Math.abs(dy) + Math.abs(dz) != 1) {
+                throw new IllegalStateException("Run-length paths require unit steps along one axis");
+            }
+            char axis = dx != 0 ? 'x' : dy != 0 ? 'y' : 'z';
+            char sign = dx + dy + dz > 0 ? '+' : '-';
+            if (sign == runSign && axis == runAxis) {
+                runLength++;
+            } else {
+                flushRun();
+                runSign = sign;
+                runAxis = axis;
+                runLength = 1;
+            }
+        }
+        lastX = x;
+        lastY = y;
+        lastZ = z;
+    }
+
+    /** A straight line extends the current run in one go. */
+    @Override
+    public void recordLine(int x, int y, int z, int dx, int dy, int dz, int count) {
+        if (count <= 0) return;
+        if (!started || x != lastX || y != lastY || z != lastZ) {
+            PathRecorder.super.recordLine(x, y, z, dx, dy, dz, count);
+            return;
+        }
+        record(x + dx, y + dy, z + dz);
+        runLength += count - 1;
+        lastX = x + dx * count;
+        lastY = y + dy * count;
+        lastZ = z + dz * count;
+    }
+
+    /** Positions are only available through {@link #encoded()}. */
+    @Override
+    public List<String> positions() {
+        return List.of();
+    }
+
+    @Override
+    public String encoded() {
+        if (!started) return "";
+        return runLength == 0 ? encoded.toString() : encoded.toString() + runSign + runAxis + runLength;
+    }
+
+    private void flushRun() {
+        if (runLength > 0) encoded.append(runSign).append(runAxis).append(runLength);
+    }
+
+    /**
+     * Expands an encoded path back into individual positions.
+     *
+     * @throws IllegalArgumentException if the text is not a valid encoding
+     */
+    public static PathBuffer decode(String path) {
+        PathBuffer out = new PathBuffer();
+        if (path == null || path.isEmpty()) return out;
+        try {
+            int pos = 0;
+            int[] xyz = new int[3];
+            for (int axis = 0; axis < 3; axis++) {
+                int end = axis < 2 ? path.indexOf(',', pos) : segmentStart(path, pos);
+                xyz[axis] = Integer.parseInt(path, pos, end, 10);
+                pos = axis < 2 ? end + 1 : end;
+            }
+            out.add(xyz[0], xyz[1], xyz[2]);
+            while (pos < path.length()) {
+                int step = switch (path.charAt(pos)) {
+                    case '+' -> 1;
+                    case '-' -> -1;
+                    default -> throw new IllegalArgumentException("Expected '+' or '-' at " + pos);
+                };
+                int axis = path.charAt(pos + 1) - 'x';
+                if (axis < 0 || axis > 2) throw new IllegalArgumentException("Expected axis at " + (pos + 1));
+                int end = segmentStart(path, pos + 2);
+                long count = Long.parseLong(path, pos + 2, end, 10);
+                for (long i = 0; i < count; i++) {
+                    xyz[axis] += step;
+                    out.add(xyz[0], xyz[1], xyz[2]);
+                }
+                pos = end;
+            }
+        } catch (NumberFormatException | IndexOutOfBoundsException ex) {
+            throw new IllegalArgumentException("Malformed run-length path", ex);
+        }
+        return out;
+    }
+
+    private static int segmentStart(String path, int from) {
+        int i = from;
+        while (i < path.length() && path.charAt(i) != '+' && path.charAt(i) != '-') i++;
+        return i;
+    }
+}
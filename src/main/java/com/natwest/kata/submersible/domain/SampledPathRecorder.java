@@ -0,0 +1,26 @@
+package com.natwest.kata.submersible.domain;
+
+import java.util.List;
+
+/** Keeps every Nth visited position, starting with the first. */
+final class SampledPathRecorder implements PathRecorder {
+
+    private final PathBuffer buffer = new PathBuffer();
+    private final int every;
+    private long seen;
+
+    SampledPathRecorder(int every) {
+        if (every <= 0) throw new IllegalArgumentException("Path sample interval must be positive");
+        this.every = every;
+    }
+
+    @Override
+    public void record(int x, int y, int z) {
+        if (seen++ % every == 0) buffer.add(x, y, z);
+    }
+
+    @Override
+    public List<String> positions() {
+        return buffer.asList();
+    }
+}
@@ -0,0 +1,8 @@
+package com.natwest.kata.submersible.enums;
+
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+}
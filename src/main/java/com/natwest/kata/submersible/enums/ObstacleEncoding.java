@@ -0,0 +1,6 @@
+package com.natwest.kata.submersible.enums;
+
+public enum ObstacleEncoding {
+    BITMAP,
+    RUN_LENGTH
+}
@@ -0,0 +1,10 @@
+package com.natwest.kata.submersible.enums;
+
+public enum PathMode {
+    FULL,
+    NONE,
+    DISTINCT,
+    SAMPLED,
+    LAST_N,
+    RUN_LENGTH
+}
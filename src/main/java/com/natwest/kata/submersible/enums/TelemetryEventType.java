@@ -0,0 +1,8 @@
+package com.natwest.kata.submersible.enums;
+
+public enum TelemetryEventType {
+    STATE,
+    MOVE,
+    TURN,
+    BLOCKED
+}
@@ -0,0 +1,6 @@
+package com.natwest.kata.submersible.enums;
+
+public enum TelemetryPolicy {
+    DROP,
+    COALESCE
+}
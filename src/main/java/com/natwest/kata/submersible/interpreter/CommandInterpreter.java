@@ -28,48 +28,165 @@ public class CommandInterpreter {
     public ExecutionResult execute(List<String> commands, Probe probe) {
 
         List<String> cmds = (commands == null) ? Collections.emptyList() : commands;
-        List<InvalidCommand> invalids = new ArrayList<>();
+        Execution execution = new Execution(probe, "COMMANDS");
+        for (String token : cmds) execution.accept(token);
+        return execution.finish();
+    }
+
+    /**
+     * Executes a packed program, one character per command. Characters are read straight from the
+     * string, so no per-command objects are created; invalid characters are reported with their
+     * index just like invalid tokens in {@link #execute(List, Probe)}.
+     */
+    public ExecutionResult execute(CharSequence program, Probe probe) {
 
+        Execution execution = new Execution(probe, "PROGRAM");
+        for (int i = 0; i < program.length(); i++) execution.accept(program.charAt(i));
+        return execution.finish();
+    }
+
+    /**
+     * Starts an incremental execution that is fed one command at a time, for callers that do not
+     * have the whole program up front (e.g. while it is still being read from a request).
+     */
+    public Execution start(Probe probe) {
+        return new Execution(probe, "STREAM");
+    }
+
+    /**
+     * Executes a compiled script. Loops run in place from the instruction list and each counted
+     * move resolves as one straight run, so memory and setup cost follow the script's size rather
+     * than the number of commands it runs.
+     */
+    public ExecutionResult execute(Program program, Probe probe) {
+
+        ExecutionEvent event = new ExecutionEvent("SCRIPT");
+        event.begin();
+        int[] remaining = new int[program.maxDepth()];
+        CycleDetector cycles = new CycleDetector(program.maxDepth());
+        int depth = 0;
         int blocked = 0;
 
-        for (int i = 0; i < cmds.size(); i++) {
-            String token = cmds.get(i);
+        for (int pc = 0; pc < program.length(); pc++) {
+            int arg = program.arg(pc);
+            switch (program.op(pc)) {
+                case Program.FORWARD -> blocked += arg - probe.advance(true, arg);
+                case Program.BACKWARD -> blocked += arg - probe.advance(false, arg);
+                // Four horizontal turns are a full circle. A tilt from the opposite vertical only levels
+                // out, so it takes two to point the other way; any further tilts change nothing
+                case Program.LEFT -> {
+                    for (int t = arg & 3; t > 0; t--) probe.turnLeft();
+                }
+                case Program.RIGHT -> {
+                    for (int t = arg & 3; t > 0; t--) probe.turnRight();
+                }
+                case Program.UP -> {
+                    for (int t = Math.min(arg, 2); t > 0; t--) probe.turnUp();
+                }
+                case Program.DOWN -> {
+                    for (int t = Math.min(arg, 2); t > 0; t--) probe.turnDown();
+                }
+                case Program.LOOP -> {
+                    if (arg == 0) {
+                        pc = program.target(pc) - 1;
+                    } else {
+                        cycles.reset(depth);
+                        remaining[depth++] = arg;
+                    }
+                }
+                case Program.END -> {
+                    int left = --remaining[depth - 1];
+                    if (left > 0) {
+                        // Periodic loops skip whole periods; the rest run normally
+                        int skipped = cycles.skip(depth - 1, probe, left, blocked);
+                        if (skipped > 0) {
+                            blocked += cycles.skippedBlocked();
+                            left = remaining[depth - 1] -= skipped;
+                        }
+                    }
+                    if (left > 0) pc = program.target(pc);
+                    else depth--;
+                }
+                default -> throw new IllegalStateException("Unknown instruction " + program.op(pc));
+            }
+        }
+
+        int total = program.commandCount();
+        ExecutionResult result = new ExecutionResult(total, total, blocked, List.of());
+        event.commit(probe, result);
+        return result;
+    }
+
+    /**
+     * Commands fed one by one. A run of identical moves is held back and resolved in one straight
+     * {@link Probe#advance} when a different command arrives or the execution finishes.
+     */
+    public static final class Execution {
+
+        private final Probe probe;
+        private final ExecutionEvent event;
+        private final List<InvalidCommand> invalids = new ArrayList<>();
+        private int total;
+        private int blocked;
+        private char pendingMove;
+        private int pendingCount;
+
+        private Execution(Probe probe, String source) {
+            this.probe = probe;
+            this.event = new ExecutionEvent(source);
+            event.begin();
+        }
 
+        /** Accepts one command token; anything but a single known letter is reported as invalid. */
+        public void accept(String token) {
             if (token == null || token.length() != 1) {
-                invalids.add(new InvalidCommand(i, token, "UNKNOWN_COMMAND"));
-                continue;
+                invalids.add(new InvalidCommand(nextIndex(), token, "UNKNOWN_COMMAND"));
+                return;
             }
+            accept(token.charAt(0));
+        }
 
-            char c = Character.toUpperCase(token.charAt(0));
+        /** Accepts one single-character command. */
+        public void accept(char command) {
+            int index = nextIndex();
+            char c = Character.toUpperCase(command);
             Consumer<Probe> action = EXECUTORS.get(c);
 
             if (action == null) {
-                invalids.add(new InvalidCommand(i, token, "UNKNOWN_COMMAND"));
-                continue;
+                invalids.add(new InvalidCommand(index, String.valueOf(command), "UNKNOWN_COMMAND"));
+                return;
             }
 
-            // Movement commands (F and B)
+            // Movement commands (F and B): a run of identical moves is resolved in one step
             if (MOVE_CMDS.contains(c)) {
-                blocked += tryMove(probe, action);
+                if (c != pendingMove) flushMoves();
+                pendingMove = c;
+                pendingCount++;
             }
             else {
                 // Rotation commands (L, R, U, D)
+                flushMoves();
                 action.accept(probe);
             }
         }
 
-        int total = cmds.size();
-        return new ExecutionResult(total, total, blocked, invalids);
-    }
-
-    private int tryMove(Probe probe, Consumer<Probe> move) {
-        int bx = probe.getX();
-        int by = probe.getY();
-        int bz = probe.getZ();
+        public ExecutionResult finish() {
+            flushMoves();
+            ExecutionResult result = new ExecutionResult(total, total, blocked, invalids);
+            event.commit(probe, result);
+            return result;
+        }
 
-        move.accept(probe);
+        private int nextIndex() {
+            // Counts are ints; only an unbounded stream can get here
+            if (total == Integer.MAX_VALUE) throw new IllegalArgumentException("Too many commands");
+            return total++;
+        }
 
-        // Check if probe moved
-        return (bx != probe.getX() || by != probe.getY() || bz != probe.getZ()) ? 0 : 1;
+        private void flushMoves() {
+            if (pendingCount == 0) return;
+            blocked += pendingCount - probe.advance(pendingMove == 'F', pendingCount);
+            pendingCount = 0;
+        }
     }
 }
@@ -0,0 +1,97 @@
+package com.natwest.kata.submersible.interpreter;
+
+import com.natwest.kata.submersible.domain.Probe;
+
+/**
+ * Spots loops whose iterations have fallen into a periodic pattern and skips the remaining
+ * periods arithmetically.
+ * <p>
+ * A loop body is deterministic given the probe's position, direction and last horizontal
+ * direction (inner loop counters always start fresh), so if an iteration starts in the same
+ * state as an earlier one, every following period repeats exactly: the probe ends where it
+ * started, blocking the same number of moves and visiting the same positions. Only the most
+ * recent iteration starts of each open loop are remembered, which catches the short periods of
+ * a probe pinned against a wall or circling a reef.
+ */
+final class CycleDetector {
+
+    private static final int HISTORY = 32;
+
+    // One history per nesting level, allocated the first time a loop at that level repeats
+    private final History[] histories;
+    private int skippedBlocked;
+
+    CycleDetector(int maxDepth) {
+        histories = new History[maxDepth];
+    }
+
+    /** Forgets the history of a loop that is being entered afresh. */
+    void reset(int depth) {
+        History h = histories[depth];
+        if (h != null) {
+            h.recorded = 0;
+            h.disabled = false;
+        }
+    }
+
+    /**
+     * Called when an iteration of the loop at {@code depth} is about to start with
+     * {@code iterationsLeft} iterations (this one included) still to run.
+     *
+     * @return number of iterations skipped, always whole periods; {@link #skippedBlocked()} then
+     *         holds the moves blocked during them
+     */
+    int skip(int depth, Probe probe, int iterationsLeft, int blockedSoFar) {
+        History h = histories[depth];
+        if (h == null) h = histories[depth] = new History();
+        if (h.disabled) return 0;
+        int heading = probe.getDirection().ordinal() * 8 + probe.getLastHorizontalDirection().ordinal();
+        int count = Math.min(h.recorded, HISTORY);
+
+        // Newest first, so the shortest period wins
+        for (int back = 1; back <= count; back++) {
+            int i = Math.floorMod(h.recorded - back, HISTORY);
+            if (h.x[i] != probe.getX() || h.y[i] != probe.getY() || h.z[i] != probe.getZ() || h.headings[i] != heading) continue;
+
+            int period = h.remaining[i] - iterationsLeft;
+            int periods = iterationsLeft / period;
+            if (periods == 0) break;
+            long positions = probe.getVisitedCount() - h.visited[i];
+            if (!probe.repeatCycle(positions, periods)) {
+                h.disabled = true;
+                return 0;
+            }
+            skippedBlocked = (int) ((long) (blockedSoFar - h.blocked[i]) * periods);
+            h.recorded = 0;
+            return periods * period;
+        }
+
+        int i = h.recorded % HISTORY;
+        h.x[i] = probe.getX();
+        h.y[i] = probe.getY();
+        h.z[i] = probe.getZ();
+        h.headings[i] = heading;
+        h.remaining[i] = iterationsLeft;
+        h.blocked[i] = blockedSoFar;
+        h.visited[i] = probe.getVisitedCount();
+        h.recorded++;
+        return 0;
+    }
+
+    int skippedBlocked() {
+        return skippedBlocked;
+    }
+
+    /** Ring buffer of the most recent iteration starts of the loop open at one nesting level. */
+    private static final class History {
+        final int[] x = new int[HISTORY];
+        final int[] y = new int[HISTORY];
+        final int[] z = new int[HISTORY];
+        final int[] headings = new int[HISTORY];
+        final int[] remaining = new int[HISTORY];
+        final int[] blocked = new int[HISTORY];
+        final long[] visited = new long[HISTORY];
+        int recorded;
+        boolean disabled;
+    }
+}
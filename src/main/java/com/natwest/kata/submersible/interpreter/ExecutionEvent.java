@@ -0,0 +1,55 @@
+package com.natwest.kata.submersible.interpreter;
+
+import com.natwest.kata.submersible.domain.Probe;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for one command execution by {@link CommandInterpreter}. Fields are only
+ * filled in when the event is going to be committed, i.e. it is enabled and over its threshold.
+ */
+@Name(ExecutionEvent.NAME)
+@Label("Command Execution")
+@Category({"Submersible", "Interpreter"})
+@Description("Commands executed by the interpreter on one probe")
+@StackTrace(false)
+@Threshold("10 ms")
+final class ExecutionEvent extends Event {
+
+    static final String NAME = "submersible.Execution";
+
+    @Label("Source")
+    @Description("COMMANDS, PROGRAM, SCRIPT or STREAM")
+    String source;
+
+    @Label("Command Count")
+    int commandCount;
+
+    @Label("Path Length")
+    @Description("Positions visited by the probe so far, start included")
+    long pathLength;
+
+    @Label("Blocked Moves")
+    int blockedMoves;
+
+    @Label("Invalid Commands")
+    int invalidCommands;
+
+    ExecutionEvent(String source) {
+        this.source = source;
+    }
+
+    void commit(Probe probe, ExecutionResult result) {
+        if (!shouldCommit()) return;
+        commandCount = result.getTotalCommands();
+        pathLength = probe.getVisitedCount();
+        blockedMoves = result.getBlockedMoves();
+        invalidCommands = result.getInvalidCommands().size();
+        commit();
+    }
+}
@@ -0,0 +1,184 @@
+package com.natwest.kata.submersible.interpreter;
+
+import java.util.Arrays;
+
+/**
+ * A command script compiled into a flat instruction list.
+ * <p>
+ * Scripts use a compact grammar with repetition and nesting (whitespace is ignored):
+ * <pre>
+ *   script  := item*
+ *   item    := command | group
+ *   command := ("F" | "B" | "L" | "R" | "U" | "D") [count]   e.g. F20
+ *   group   := [count] "(" script ")"                        e.g. 100(F20 R F R F20 L F L)
+ * </pre>
+ * Loops stay loops: a group compiles to a {@code LOOP}/{@code END} pair around its body, so the
+ * instruction list grows with the script, not with the number of commands it runs. Consecutive
+ * identical commands are merged into one instruction with a count.
+ */
+public final class Program {
+
+    static final byte FORWARD = 0;
+    static final byte BACKWARD = 1;
+    static final byte LEFT = 2;
+    static final byte RIGHT = 3;
+    static final byte UP = 4;
+    static final byte DOWN = 5;
+    /** Starts a group; arg is the repeat count, target the index just past its END. */
+    static final byte LOOP = 6;
+    /** Ends a group; target is the index of its LOOP. */
+    static final byte END = 7;
+
+    private byte[] ops = new byte[16];
+    private int[] args = new int[16];
+    private int[] targets = new int[16];
+    private int length;
+    private int maxDepth;
+    private int commandCount;
+
+    private Program() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the script is malformed, or it would run more than
+     *                                  {@link Integer#MAX_VALUE} commands
+     */
+    public static Program compile(CharSequence script) {
+        Program program = new Program();
+        program.parse(script);
+        return program;
+    }
+
+    /** Number of commands the program runs once loops are unrolled. */
+    public int commandCount() {
+        return commandCount;
+    }
+
+    int length() {
+        return length;
+    }
+
+    int maxDepth() {
+        return maxDepth;
+    }
+
+    byte op(int pc) {
+        return ops[pc];
+    }
+
+    int arg(int pc) {
+        return args[pc];
+    }
+
+    int target(int pc) {
+        return targets[pc];
+    }
+
+    private void parse(CharSequence script) {
+        int[] openLoops = new int[8];
+        long[] bodyCounts = new long[9]; // commands run by one pass of each open group, [0] = top level
+        int depth = 0;
+
+        int pos = 0;
+        while (pos < script.length()) {
+            char c = script.charAt(pos);
+            if (Character.isWhitespace(c)) {
+                pos++;
+            } else if (isDigit(c) || c == '(') {
+                int start = pos;
+                long count = 1;
+                if (c != '(') {
+                    while (pos < script.length() && isDigit(script.charAt(pos))) pos++;
+                    count = parseCount(script, start, pos);
+                    if (pos == script.length() || script.charAt(pos) != '(') {
+                        throw new IllegalArgumentException("Expected '(' after repeat count at " + pos);
+                    }
+                }
+                if (depth == openLoops.length) {
+                    openLoops = Arrays.copyOf(openLoops, depth * 2);
+                    bodyCounts = Arrays.copyOf(bodyCounts, depth * 2 + 1);
+                }
+                openLoops[depth++] = emit(LOOP, (int) count);
+                bodyCounts[depth] = 0;
+                maxDepth = Math.max(maxDepth, depth);
+                pos++;
+            } else if (c == ')') {
+                if (depth == 0) throw new IllegalArgumentException("Unmatched ')' at " + pos);
+                int loop = openLoops[--depth];
+                int end = emit(END, 0);
+                targets[end] = loop;
+                targets[loop] = end + 1;
+                bodyCounts[depth] = addCommands(bodyCounts[depth], multiply(bodyCounts[depth + 1], args[loop]));
+                pos++;
+            } else {
+                byte op = opFor(c);
+                if (op < 0) throw new IllegalArgumentException("Unexpected character '" + c + "' at " + pos);
+                int start = ++pos;
+                while (pos < script.length() && isDigit(script.charAt(pos))) pos++;
+                long count = start == pos ? 1 : parseCount(script, start, pos);
+                emitCommand(op, (int) count);
+                bodyCounts[depth] = addCommands(bodyCounts[depth], count);
+            }
+        }
+        if (depth > 0) throw new IllegalArgumentException("Unclosed '(' in script");
+        commandCount = (int) bodyCounts[0];
+    }
+
+    private void emitCommand(byte op, int count) {
+        // Merge with an identical preceding command, e.g. "F F F" runs as F3
+        int last = length - 1;
+        if (last >= 0 && ops[last] == op && (long) args[last] + count <= Integer.MAX_VALUE) {
+            args[last] += count;
+            return;
+        }
+        emit(op, count);
+    }
+
+    private int emit(byte op, int arg) {
+        if (length == ops.length) {
+            ops = Arrays.copyOf(ops, length * 2);
+            args = Arrays.copyOf(args, length * 2);
+            targets = Arrays.copyOf(targets, length * 2);
+        }
+        ops[length] = op;
+        args[length] = arg;
+        return length++;
+    }
+
+    private static long parseCount(CharSequence script, int from, int to) {
+        long count = 0;
+        for (int i = from; i < to; i++) {
+            count = count * 10 + (script.charAt(i) - '0');
+            if (count > Integer.MAX_VALUE) throw new IllegalArgumentException("Repeat count too large at " + from);
+        }
+        return count;
+    }
+
+    private static long multiply(long commands, int repeat) {
+        return commands > Integer.MAX_VALUE / Math.max(1, repeat) ? Long.MAX_VALUE : commands * repeat;
+    }
+
+    private static long addCommands(long total, long more) {
+        long sum = total + more;
+        if (more == Long.MAX_VALUE || sum > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Script runs more than " + Integer.MAX_VALUE + " commands");
+        }
+        return sum;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static byte opFor(char c) {
+        return switch (Character.toUpperCase(c)) {
+            case 'F' -> FORWARD;
+            case 'B' -> BACKWARD;
+            case 'L' -> LEFT;
+            case 'R' -> RIGHT;
+            case 'U' -> UP;
+            case 'D' -> DOWN;
+            default -> -1;
+        };
+    }
+}
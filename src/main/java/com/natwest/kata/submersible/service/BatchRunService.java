@@ -0,0 +1,119 @@
+package com.natwest.kata.submersible.service;
+
+import com.natwest.kata.submersible.api.dto.BatchProbeDto;
+import com.natwest.kata.submersible.api.dto.BatchRunRequest;
+import com.natwest.kata.submersible.api.dto.BatchRunResponse;
+import com.natwest.kata.submersible.api.dto.RunRequest;
+import com.natwest.kata.submersible.api.error.ErrorResponse;
+import com.natwest.kata.submersible.domain.Grid;
+import com.natwest.kata.submersible.domain.Probe;
+import com.natwest.kata.submersible.interpreter.Program;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many independent probes on one grid.
+ * <p>
+ * The grid is built and frozen once, then every probe runs on its own virtual thread against
+ * that shared, read-only grid, so a batch spreads over all cores. A problem with the shared setup
+ * fails the whole batch like a single run would; a problem with one probe (bad start, missing
+ * command source, malformed script) is reported on that probe's item and the others still run.
+ */
+@Service
+public class BatchRunService {
+
+    private final ProbeRunService runService;
+
+    public BatchRunService(ProbeRunService runService) {
+        this.runService = runService;
+    }
+
+    public BatchRunResponse run(BatchRunRequest req) {
+        Objects.requireNonNull(req, "BatchRunRequest cannot be null");
+        List<BatchProbeDto> probes = req.getProbes() == null ? List.of() : req.getProbes();
+        Grid grid = runService.buildSharedGrid(setupOf(req));
+
+        List<BatchRunResponse.Item> results = new ArrayList<>(probes.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<BatchRunResponse.Item>> items = new ArrayList<>(probes.size());
+            for (int i = 0; i < probes.size(); i++) {
+                RunRequest run = runOf(req, probes.get(i));
+                int index = i;
+                items.add(executor.submit(() -> runOne(index, run, grid)));
+            }
+            for (Future<BatchRunResponse.Item> item : items) results.add(await(item));
+        }
+        return new BatchRunResponse(results);
+    }
+
+    private BatchRunResponse.Item runOne(int index, RunRequest req, Grid grid) {
+        try {
+            ProbeRunEvent event = ProbeRunEvent.started();
+            Program script = checkProbe(req);
+            Probe probe = runService.placeProbe(req, grid, ProbeRunService.pathRecorder(req));
+            return BatchRunResponse.Item.success(index, runService.respond(req, probe, runService.execute(req, script, probe), event));
+        } catch (IllegalArgumentException ex) {
+            return BatchRunResponse.Item.failure(index,
+                    new ErrorResponse.ErrorBody("VALIDATION_ERROR", ex.getMessage(), Collections.emptyList(), null));
+        }
+    }
+
+    /**
+     * Checks the fields each probe has to set itself, so that a missing one is reported on its
+     * item like any other invalid probe.
+     *
+     * @return the compiled script, or {@code null} if the probe uses commands or a program
+     */
+    private Program checkProbe(RunRequest req) {
+        if (req.getStart() == null) throw new IllegalArgumentException("Start position cannot be null");
+        if (req.getDirection() == null) throw new IllegalArgumentException("Direction cannot be null");
+        return runService.checkCommands(req);
+    }
+
+    private static BatchRunResponse.Item await(Future<BatchRunResponse.Item> item) {
+        try {
+            return item.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) throw re;
+            if (ex.getCause() instanceof Error e) throw e;
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for batch results", ex);
+        }
+    }
+
+    private static RunRequest setupOf(BatchRunRequest req) {
+        RunRequest setup = new RunRequest();
+        setup.setGrid(req.getGrid());
+        setup.setObstacles(req.getObstacles());
+        setup.setRegions(req.getRegions());
+        setup.setObstacleMap(req.getObstacleMap());
+        setup.setTerrainId(req.getTerrainId());
+        setup.setGridId(req.getGridId());
+        return setup;
+    }
+
+    private static RunRequest runOf(BatchRunRequest req, BatchProbeDto probe) {
+        // The shared grid is already built, so only the grid size is carried over (for the response)
+        RunRequest run = new RunRequest();
+        run.setGrid(req.getGrid());
+        if (probe == null) return run;
+        run.setStart(probe.getStart());
+        run.setDirection(probe.getDirection());
+        run.setCommands(probe.getCommands());
+        run.setProgram(probe.getProgram());
+        run.setScript(probe.getScript());
+        run.setPathMode(probe.getPathMode());
+        run.setPathSize(probe.getPathSize());
+        return run;
+    }
+}
@@ -0,0 +1,142 @@
+package com.natwest.kata.submersible.service;
+
+import com.natwest.kata.submersible.api.dto.CoordinateDto;
+import com.natwest.kata.submersible.api.dto.GridDto;
+import com.natwest.kata.submersible.api.dto.GridRegistrationRequest;
+import com.natwest.kata.submersible.api.dto.GridRegistrationResponse;
+import com.natwest.kata.submersible.api.dto.GridRegistryStatsDto;
+import com.natwest.kata.submersible.api.dto.RegionDto;
+import com.natwest.kata.submersible.domain.Grid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * In-memory registry of frozen grids, keyed by a SHA-256 of their dimensions and obstacle set.
+ * <p>
+ * Registering builds and validates the grid once; runs that reference the ID reuse it without
+ * re-parsing or re-inserting obstacles. The registry is bounded and evicts the least recently
+ * used grid when full.
+ */
+@Service
+public class GridRegistry {
+
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private static final Comparator<CoordinateDto> CANONICAL_ORDER = Comparator
+            .comparingInt(CoordinateDto::getZ)
+            .thenComparingInt(CoordinateDto::getY)
+            .thenComparingInt(CoordinateDto::getX);
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, Grid> grids;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public GridRegistry(@Value("${submersible.grid-registry.max-entries:" + DEFAULT_MAX_ENTRIES + "}") int maxEntries) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("Grid registry size must be positive");
+        this.maxEntries = maxEntries;
+        this.grids = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Grid> eldest) {
+                if (size() <= GridRegistry.this.maxEntries) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    public GridRegistrationResponse register(GridRegistrationRequest req) {
+        Objects.requireNonNull(req, "GridRegistrationRequest cannot be null");
+        Objects.requireNonNull(req.getGrid(), "Grid cannot be null");
+
+        GridDto gridDto = req.getGrid();
+        Grid grid = new Grid(gridDto.getWidth(), gridDto.getHeight(), gridDto.getDepth());
+        List<CoordinateDto> obstacles = req.getObstacles() == null ? List.of() : req.getObstacles();
+        List<RegionDto> regions = req.getRegions() == null ? List.of() : req.getRegions();
+        obstacles.forEach(o -> grid.addObstacle(o.getX(), o.getY(), o.getZ()));
+        regions.forEach(r -> ProbeRunService.addRegion(grid, r));
+        grid.freeze();
+
+        String id = gridId(gridDto, obstacles, regions);
+        synchronized (this) {
+            // Keep an already registered instance so concurrent runs keep sharing it
+            grids.putIfAbsent(id, grid);
+        }
+        return new GridRegistrationResponse(id, new GridDto(grid.getWidth(), grid.getHeight(), grid.getDepth()),
+                grid.getObstacleCount());
+    }
+
+    /**
+     * @return the frozen grid registered under the ID
+     * @throws ResourceNotFoundException if the ID was never registered or has been evicted
+     */
+    public Grid get(String gridId) {
+        Grid grid;
+        synchronized (this) {
+            grid = gridId == null ? null : grids.get(gridId);
+            if (grid == null) misses++;
+            else hits++;
+        }
+        if (grid == null) throw new ResourceNotFoundException("Unknown grid: " + gridId);
+        return grid;
+    }
+
+    /** Whether the ID is registered now; unlike {@link #get} this neither counts nor refreshes it. */
+    public synchronized boolean contains(String gridId) {
+        return grids.containsKey(gridId);
+    }
+
+    public synchronized GridRegistryStatsDto stats() {
+        return new GridRegistryStatsDto(grids.size(), maxEntries, hits, misses, evictions);
+    }
+
+    private static String gridId(GridDto grid, List<CoordinateDto> obstacles, List<RegionDto> regions) {
+        List<CoordinateDto> sorted = new ArrayList<>(obstacles);
+        sorted.sort(CANONICAL_ORDER);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+            buffer.putInt(grid.getWidth()).putInt(grid.getHeight()).putInt(grid.getDepth());
+            CoordinateDto previous = null;
+            for (CoordinateDto o : sorted) {
+                if (previous != null && CANONICAL_ORDER.compare(previous, o) == 0) continue;
+                if (buffer.remaining() < 3 * Integer.BYTES) {
+                    digest.update(buffer.flip());
+                    buffer.clear();
+                }
+                buffer.putInt(o.getX()).putInt(o.getY()).putInt(o.getZ());
+                previous = o;
+            }
+            // Regions are hashed in request order, after a marker separating them from cells
+            digest.update(buffer.flip());
+            buffer.clear().putInt(-1);
+            for (RegionDto r : regions) {
+                if (buffer.remaining() < 6 * Integer.BYTES) {
+                    digest.update(buffer.flip());
+                    buffer.clear();
+                }
+                CoordinateDto from = r.getFrom();
+                CoordinateDto to = r.getTo();
+                buffer.putInt(Math.min(from.getX(), to.getX())).putInt(Math.min(from.getY(), to.getY()))
+                        .putInt(Math.min(from.getZ(), to.getZ())).putInt(Math.max(from.getX(), to.getX()))
+                        .putInt(Math.max(from.getY(), to.getY())).putInt(Math.max(from.getZ(), to.getZ()));
+            }
+            digest.update(buffer.flip());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.natwest.kata.submersible.service;
+
+import java.io.Serial;
+
+/**
+ * Thrown when a run job is submitted while every worker is busy and the job queue is full.
+ */
+public class JobQueueFullException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public JobQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,202 @@
+package com.natwest.kata.submersible.service;
+
+import com.natwest.kata.submersible.api.dto.JobResponse;
+import com.natwest.kata.submersible.api.dto.RunRequest;
+import com.natwest.kata.submersible.api.dto.RunResponse;
+import com.natwest.kata.submersible.api.error.ErrorResponse;
+import com.natwest.kata.submersible.domain.Probe;
+import com.natwest.kata.submersible.enums.JobStatus;
+import com.natwest.kata.submersible.interpreter.Program;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs probe requests as background jobs, so long simulations do not hold a request thread.
+ * <p>
+ * Jobs run on a fixed pool of workers fed by a bounded queue. When every worker is busy and the
+ * queue is full, submissions are rejected with {@link JobQueueFullException} instead of piling up.
+ * A finished job's result is kept for a fixed time after it completes, and only the most recent
+ * finished jobs are kept at all; a dropped job gives {@link ResourceNotFoundException} when polled.
+ */
+@Service
+public class JobService {
+
+    public static final int DEFAULT_QUEUE_DEPTH = 64;
+    public static final long DEFAULT_RESULT_TTL_SECONDS = 600;
+    public static final int DEFAULT_MAX_FINISHED = 1024;
+    /** Longest a poll may wait for a job to finish; kept below the usual servlet async timeout. */
+    public static final long MAX_WAIT_SECONDS = 20;
+
+    private final ProbeRunService runService;
+    private final ThreadPoolExecutor executor;
+    private final long resultTtlNanos;
+    private final int maxFinished;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    // Finished jobs in completion order; with one TTL for all, the oldest always expires first
+    private final Deque<Job> finished = new ArrayDeque<>();
+
+    @Autowired
+    public JobService(ProbeRunService runService,
+                      @Value("${submersible.jobs.workers:0}") int workers,
+                      @Value("${submersible.jobs.queue-depth:" + DEFAULT_QUEUE_DEPTH + "}") int queueDepth,
+                      @Value("${submersible.jobs.result-ttl-seconds:" + DEFAULT_RESULT_TTL_SECONDS + "}") long resultTtlSeconds,
+                      @Value("${submersible.jobs.max-finished:" + DEFAULT_MAX_FINISHED + "}") int maxFinished) {
+        this(runService, newExecutor(workers > 0 ? workers : Runtime.getRuntime().availableProcessors(), queueDepth),
+                Duration.ofSeconds(resultTtlSeconds), maxFinished);
+    }
+
+    JobService(ProbeRunService runService, ThreadPoolExecutor executor, Duration resultTtl, int maxFinished) {
+        if (resultTtl.isNegative()) throw new IllegalArgumentException("Job result TTL cannot be negative");
+        if (maxFinished < 0) throw new IllegalArgumentException("Finished job limit cannot be negative");
+        this.runService = runService;
+        this.executor = executor;
+        this.resultTtlNanos = resultTtl.toNanos();
+        this.maxFinished = maxFinished;
+    }
+
+    static ThreadPoolExecutor newExecutor(int workers, int queueDepth) {
+        if (queueDepth < 0) throw new IllegalArgumentException("Job queue depth cannot be negative");
+        BlockingQueue<Runnable> queue = queueDepth == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueDepth);
+        return new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS, queue,
+                Thread.ofPlatform().name("probe-job-", 1).daemon().factory());
+    }
+
+    /**
+     * Queues a run. The command source is checked (and a script compiled) right away, so such
+     * errors are thrown here; grid and start position problems make the job fail instead.
+     *
+     * @throws JobQueueFullException if the job cannot be queued
+     */
+    public JobResponse submit(RunRequest req) {
+        Program script = runService.checkCommands(req);
+        purgeExpired();
+
+        Job job = new Job(UUID.randomUUID().toString());
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> execute(job, req, script));
+        } catch (RejectedExecutionException ex) {
+            jobs.remove(job.id);
+            throw new JobQueueFullException("Job queue is full, retry later");
+        }
+        return job.view();
+    }
+
+    /**
+     * @throws ResourceNotFoundException if the job is unknown or its result has expired
+     */
+    public JobResponse get(String id) {
+        return find(id).view();
+    }
+
+    /**
+     * Waits up to {@code wait} for the job to finish without blocking the caller.
+     *
+     * @return a future completed with the job's state once it finishes or the wait is over,
+     *         whichever comes first
+     * @throws ResourceNotFoundException if the job is unknown or its result has expired
+     */
+    public CompletableFuture<JobResponse> await(String id, Duration wait) {
+        if (wait.isNegative() || wait.getSeconds() > MAX_WAIT_SECONDS) {
+            throw new IllegalArgumentException("Wait must be between 0 and " + MAX_WAIT_SECONDS + " seconds");
+        }
+        Job job = find(id);
+        if (wait.isZero() || job.done.isDone()) return CompletableFuture.completedFuture(job.view());
+        // Times out a copy only; the job's own future completes when the run does
+        return job.done.copy()
+                .completeOnTimeout(null, wait.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(ignored -> job.view());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Job find(String id) {
+        purgeExpired();
+        Job job = id == null ? null : jobs.get(id);
+        if (job == null) throw new ResourceNotFoundException("Unknown job: " + id);
+        return job;
+    }
+
+    private void execute(Job job, RunRequest req, Program script) {
+        job.status = JobStatus.RUNNING;
+        try {
+            ProbeRunEvent event = ProbeRunEvent.started();
+            Probe probe = runService.startProbe(req);
+            job.result = runService.respond(req, probe, runService.execute(req, script, probe), event);
+            job.status = JobStatus.SUCCEEDED;
+        } catch (RuntimeException ex) {
+            job.error = errorOf(ex);
+            job.status = JobStatus.FAILED;
+        } finally {
+            // An Error escapes the catch above; the job must still end rather than stay RUNNING
+            if (job.status == JobStatus.RUNNING) {
+                job.error = ErrorResponse.internal("Run failed").getError();
+                job.status = JobStatus.FAILED;
+            }
+            retire(job);
+            job.done.complete(null);
+        }
+    }
+
+    private synchronized void retire(Job job) {
+        job.finishedAt = System.nanoTime();
+        finished.add(job);
+        purgeExpired();
+    }
+
+    private synchronized void purgeExpired() {
+        long now = System.nanoTime();
+        for (Job job = finished.peek();
+             job != null && (finished.size() > maxFinished || now - job.finishedAt >= resultTtlNanos);
+             job = finished.peek()) {
+            finished.poll();
+            jobs.remove(job.id);
+        }
+    }
+
+    private static ErrorResponse.ErrorBody errorOf(RuntimeException ex) {
+        // Same codes the synchronous endpoint answers with
+        if (ex instanceof IllegalArgumentException || ex instanceof NullPointerException) {
+            return ErrorResponse.validation(ex.getMessage()).getError();
+        }
+        if (ex instanceof ResourceNotFoundException) return ErrorResponse.notFound(ex.getMessage()).getError();
+        return ErrorResponse.internal("Run failed").getError();
+    }
+
+    private static final class Job {
+
+        final String id;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        volatile JobStatus status = JobStatus.QUEUED;
+        volatile RunResponse result;
+        volatile ErrorResponse.ErrorBody error;
+        volatile long finishedAt;
+
+        Job(String id) {
+            this.id = id;
+        }
+
+        JobResponse view() {
+            return new JobResponse(id, status, result, error);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.natwest.kata.submersible.service;
+
+import java.io.Serial;
+
+/**
+ * Thrown when a request body that is read token by token is not laid out the way it has to be,
+ * e.g. a streamed run whose {@code commands} array is not its last field.
+ */
+public class MalformedRequestException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public MalformedRequestException(String message) {
+        super(message);
+    }
+}
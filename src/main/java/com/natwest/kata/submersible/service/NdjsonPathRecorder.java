@@ -0,0 +1,104 @@
+package com.natwest.kata.submersible.service;
+
+import com.natwest.kata.submersible.domain.PathRecorder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes each visited position to the response as an NDJSON line, {@code {"visited":"(x,y,z)"}},
+ * instead of keeping it.
+ * <p>
+ * Lines are formatted straight into a fixed byte buffer that is flushed whenever it fills up, so
+ * memory stays constant however long the path is. Positions recorded before the output stream is
+ * attached (the start position) are held until then. A failed write (typically the client going
+ * away) is rethrown as {@link UncheckedIOException} and aborts the run.
+ */
+final class NdjsonPathRecorder implements PathRecorder {
+
+    private static final byte[] PREFIX = "{\"visited\":\"(".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SUFFIX = ")\"}\n".getBytes(StandardCharsets.US_ASCII);
+    // Prefix, three ints with sign and separators, suffix
+    private static final int MAX_LINE = PREFIX.length + 3 * 11 + 2 + SUFFIX.length;
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int length;
+    private OutputStream out;
+
+    /**
+     * Starts writing to the stream. Whatever was recorded so far is sent right away, so the client
+     * sees the start position before the run gets going.
+     */
+    void attach(OutputStream out) {
+        this.out = out;
+        flush();
+    }
+
+    @Override
+    public void record(int x, int y, int z) {
+        if (length + MAX_LINE > buffer.length) {
+            if (out != null) flush();
+            else buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        append(PREFIX);
+        appendInt(x);
+        buffer[length++] = ',';
+        appendInt(y);
+        buffer[length++] = ',';
+        appendInt(z);
+        append(SUFFIX);
+    }
+
+    /** Positions are written out, not kept. */
+    @Override
+    public List<String> positions() {
+        return List.of();
+    }
+
+    /** Writes a final line after all pending positions and flushes the stream. */
+    void finish(byte[] json) {
+        flush();
+        try {
+            out.write(json);
+            out.write('\n');
+            out.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void flush() {
+        try {
+            out.write(buffer, 0, length);
+            out.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        length = 0;
+    }
+
+    private void append(byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void appendInt(int value) {
+        long v = value;
+        if (v < 0) {
+            buffer[length++] = '-';
+            v = -v;
+        }
+        int digits = 1;
+        for (long rest = v / 10; rest > 0; rest /= 10) digits++;
+        for (int i = length + digits - 1; i >= length; i--) {
+            buffer[i] = (byte) ('0' + v % 10);
+            v /= 10;
+        }
+        length += digits;
+    }
+}
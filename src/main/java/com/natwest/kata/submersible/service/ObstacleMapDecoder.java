@@ -0,0 +1,67 @@
+package com.natwest.kata.submersible.service;
+
+import com.natwest.kata.submersible.api.dto.ObstacleMapDto;
+import com.natwest.kata.submersible.domain.Grid;
+
+import java.util.Base64;
+
+/**
+ * Applies a compact {@link ObstacleMapDto} to a grid without creating per-obstacle objects.
+ */
+final class ObstacleMapDecoder {
+
+    /**
+     * Most obstacle cells a run-length map may add. Outside dense grids every cell is stored on
+     * its own, so a few bytes of runs could otherwise ask for billions of them; dense grids have
+     * at most this many cells, so any map that fits one is accepted.
+     */
+    static final long MAX_RUN_CELLS = 1L << 22;
+
+    private ObstacleMapDecoder() {
+    }
+
+    static void apply(Grid grid, ObstacleMapDto map) {
+        if (map.getEncoding() == null || map.getData() == null) {
+            throw new IllegalArgumentException("Obstacle map encoding and data are required");
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(map.getData());
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Obstacle map data is not valid base64");
+        }
+        switch (map.getEncoding()) {
+            case BITMAP -> grid.addObstacleBitmap(bytes);
+            case RUN_LENGTH -> applyRuns(grid, bytes);
+        }
+    }
+
+    private static void applyRuns(Grid grid, byte[] bytes) {
+        long cell = 0;
+        long added = 0;
+        boolean obstacleRun = false;
+        int pos = 0;
+        while (pos < bytes.length) {
+            long length = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (pos == bytes.length || shift > 56) throw new IllegalArgumentException("Malformed run-length obstacle map");
+                b = bytes[pos++];
+                length |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            if (obstacleRun) {
+                if (length > MAX_RUN_CELLS - added) {
+                    throw new IllegalArgumentException("Obstacle map covers more than " + MAX_RUN_CELLS + " cells");
+                }
+                added += length;
+                grid.addObstacleRun(cell, length);
+            }
+            cell += length;
+            if (cell < 0) throw new IllegalArgumentException("Obstacle out of bounds");
+            obstacleRun = !obstacleRun;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.natwest.kata.submersible.service;
+
+import com.natwest.kata.submersible.api.dto.RunRequest;
+import com.natwest.kata.submersible.domain.Grid;
+import com.natwest.kata.submersible.domain.Probe;
+import com.natwest.kata.submersible.interpreter.ExecutionResult;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for one run through the run service, from building its grid to assembling
+ * its response, with the grid it ran on. Single, batch, job and streamed runs are all recorded;
+ * a session records one event per command batch, covering the batch and its response.
+ * <p>
+ * Only executions slower than the threshold are committed, and the fields are filled in only
+ * then, so the event costs next to nothing when it is disabled or the run is fast. Failed runs
+ * are not recorded.
+ */
+@Name(ProbeRunEvent.NAME)
+@Label("Probe Run")
+@Category({"Submersible", "Probe"})
+@Description("Probe run through the run service, grid build and response included")
+@StackTrace(false)
+@Threshold("10 ms")
+final class ProbeRunEvent extends Event {
+
+    static final String NAME = "submersible.ProbeRun";
+
+    @Label("Grid Width")
+    int gridWidth;
+
+    @Label("Grid Height")
+    int gridHeight;
+
+    @Label("Grid Depth")
+    int gridDepth;
+
+    @Label("Obstacle Count")
+    @Description("Individual obstacle cells, regions excluded")
+    long obstacleCount;
+
+    @Label("Obstacle Regions")
+    int obstacleRegions;
+
+    @Label("Grid Source")
+    @Description("Stored terrain or registered grid the run used, if any")
+    String gridSource;
+
+    @Label("Command Count")
+    int commandCount;
+
+    @Label("Path Length")
+    @Description("Positions visited, start included")
+    long pathLength;
+
+    @Label("Blocked Moves")
+    int blockedMoves;
+
+    @Label("Invalid Commands")
+    int invalidCommands;
+
+    /** Creates the event for a run that starts now. */
+    static ProbeRunEvent started() {
+        ProbeRunEvent event = new ProbeRunEvent();
+        event.begin();
+        return event;
+    }
+
+    void commit(RunRequest req, Probe probe, ExecutionResult er) {
+        if (!shouldCommit()) return;
+        fill(req, probe, er);
+        commit();
+    }
+
+    private void fill(RunRequest req, Probe probe, ExecutionResult er) {
+        Grid grid = probe.getGrid();
+        gridWidth = grid.getWidth();
+        gridHeight = grid.getHeight();
+        gridDepth = grid.getDepth();
+        obstacleCount = grid.getObstacleCount();
+        obstacleRegions = grid.getObstacleRegionCount();
+        gridSource = req.getTerrainId() != null ? "terrain:" + req.getTerrainId()
+                : req.getGridId() != null ? "grid:" + req.getGridId() : null;
+        commandCount = er.getTotalCommands();
+        pathLength = probe.getVisitedCount();
+        blockedMoves = er.getBlockedMoves();
+        invalidCommands = er.getInvalidCommands().size();
+    }
+}
@@ -0,0 +1,99 @@
+package com.natwest.kata.submersible.service;
+
+import com.natwest.kata.submersible.domain.Grid;
+import com.natwest.kata.submersible.interpreter.ExecutionResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the phases of a probe run.
+ * <p>
+ * Every phase is a {@value #PHASE_TIMER} timer tagged with the phase name and published with a
+ * percentile histogram, so per-phase latency percentiles can be computed across instances from
+ * the Prometheus scrape. Grid construction also records the obstacle count of each grid, and
+ * every execution adds to the command counters.
+ */
+@Service
+public class ProbeRunMetrics {
+
+    static final String PHASE_TIMER = "probe.run.phase";
+    static final String GRID_OBSTACLES = "probe.run.grid.obstacles";
+    static final String COMMANDS_EXECUTED = "probe.run.commands.executed";
+    static final String MOVES_BLOCKED = "probe.run.moves.blocked";
+    static final String COMMANDS_INVALID = "probe.run.commands.invalid";
+
+    public enum Phase {
+        /** Reading the request body into a request object. */
+        BINDING,
+        /** Building the grid and its obstacles. */
+        GRID,
+        /** Running the commands through the interpreter. */
+        EXECUTE,
+        /** Assembling the response object. */
+        RESPOND,
+        /** Writing the response body. */
+        SERIALIZATION
+    }
+
+    private final Map<Phase, Timer> timers = new EnumMap<>(Phase.class);
+    private final DistributionSummary gridObstacles;
+    private final Counter executed;
+    private final Counter blocked;
+    private final Counter invalid;
+
+    public ProbeRunMetrics(MeterRegistry registry) {
+        for (Phase phase : Phase.values()) {
+            timers.put(phase, Timer.builder(PHASE_TIMER)
+                    .description("Time spent in one phase of a probe run")
+                    .tag("phase", phase.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        gridObstacles = DistributionSummary.builder(GRID_OBSTACLES)
+                .description("Obstacle cells of the grid built for a run, regions excluded")
+                .baseUnit("obstacles")
+                .publishPercentileHistogram()
+                .register(registry);
+        executed = Counter.builder(COMMANDS_EXECUTED)
+                .description("Commands executed by probe runs")
+                .baseUnit("commands")
+                .register(registry);
+        blocked = Counter.builder(MOVES_BLOCKED)
+                .description("Moves blocked by obstacles or grid bounds")
+                .baseUnit("moves")
+                .register(registry);
+        invalid = Counter.builder(COMMANDS_INVALID)
+                .description("Commands rejected as invalid")
+                .baseUnit("commands")
+                .register(registry);
+    }
+
+    /** Runs the phase, recording its duration whether it completes or throws. */
+    public <T> T time(Phase phase, Supplier<T> work) {
+        return timers.get(phase).record(work);
+    }
+
+    /** Records a phase that was measured by the caller. */
+    public void record(Phase phase, long nanos) {
+        timers.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void gridBuilt(Grid grid) {
+        gridObstacles.record(grid.getObstacleCount());
+    }
+
+    void executed(ExecutionResult result) {
+        executed.increment(result.getExecutedCommands());
+        blocked.increment(result.getBlockedMoves());
+        invalid.increment(result.getInvalidCommands().size());
+    }
+}
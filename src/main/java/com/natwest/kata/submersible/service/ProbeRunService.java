@@ -2,9 +2,13 @@ package com.natwest.kata.submersible.service;
 
 import com.natwest.kata.submersible.api.dto.*;
 import com.natwest.kata.submersible.domain.Grid;
+import com.natwest.kata.submersible.domain.PathRecorder;
 import com.natwest.kata.submersible.domain.Probe;
+import com.natwest.kata.submersible.enums.PathMode;
 import com.natwest.kata.submersible.interpreter.CommandInterpreter;
 import com.natwest.kata.submersible.interpreter.ExecutionResult;
+import com.natwest.kata.submersible.interpreter.Program;
+import com.natwest.kata.submersible.service.ProbeRunMetrics.Phase;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -13,21 +17,92 @@ import java.util.Objects;
 @Service
 public class ProbeRunService {
 
+    private final TerrainService terrainService;
+    private final GridRegistry gridRegistry;
+    private final ProbeRunMetrics metrics;
+
+    public ProbeRunService(TerrainService terrainService, GridRegistry gridRegistry, ProbeRunMetrics metrics) {
+        this.terrainService = terrainService;
+        this.gridRegistry = gridRegistry;
+        this.metrics = metrics;
+    }
+
     public RunResponse run(RunRequest req) {
+        ProbeRunEvent event = ProbeRunEvent.started();
+        // Compile before building the grid so syntax errors fail fast
+        Program script = checkCommands(req);
+        Probe probe = startProbe(req);
+        return respond(req, probe, execute(req, script, probe), event);
+    }
+
+    /**
+     * Checks that the request has exactly one command source.
+     *
+     * @return the compiled script, or {@code null} if the request uses commands or a program
+     */
+    public Program checkCommands(RunRequest req) {
+        Objects.requireNonNull(req, "RunRequest cannot be null");
+        if (!req.isCommandSourceValid()) {
+            throw new IllegalArgumentException("Exactly one of commands, program or script must be set");
+        }
+        return req.getScript() == null ? null : Program.compile(req.getScript());
+    }
+
+    /** Executes the request's commands on a probe from {@link #startProbe}. */
+    public ExecutionResult execute(RunRequest req, Program script, Probe probe) {
+        ExecutionResult er = metrics.time(Phase.EXECUTE, () -> {
+            CommandInterpreter interpreter = new CommandInterpreter();
+            if (script != null) return interpreter.execute(script, probe);
+            if (req.getProgram() != null) return interpreter.execute(req.getProgram(), probe);
+            return interpreter.execute(req.getCommands(), probe);
+        });
+        metrics.executed(er);
+        return er;
+    }
+
+    /**
+     * Finishes an execution that was fed command by command, counting it like {@link #execute}.
+     * Its phase time is not recorded, as it is interleaved with reading the commands.
+     */
+    ExecutionResult finish(CommandInterpreter.Execution execution) {
+        ExecutionResult er = execution.finish();
+        metrics.executed(er);
+        return er;
+    }
+
+    /**
+     * Validates the run setup (everything except the commands), builds the grid and places the
+     * probe on it, ready for the commands to be executed.
+     */
+    public Probe startProbe(RunRequest req) {
+        return startProbe(req, pathRecorder(req));
+    }
+
+    /** Like {@link #startProbe(RunRequest)}, recording the path with the given recorder instead of the request's path mode. */
+    public Probe startProbe(RunRequest req, PathRecorder path) {
         Objects.requireNonNull(req, "RunRequest cannot be null");
         Objects.requireNonNull(req.getGrid(), "Grid cannot be null");
         Objects.requireNonNull(req.getStart(), "Start position cannot be null");
         Objects.requireNonNull(req.getDirection(), "Direction cannot be null");
-        Objects.requireNonNull(req.getCommands(), "Commands cannot be null");
 
-        // Build grid from DTO
-        GridDto gridDto = req.getGrid();
-        Grid grid = new Grid(gridDto.getWidth(), gridDto.getHeight(), gridDto.getDepth());
+        return placeProbe(req, timedBuildGrid(req), path);
+    }
 
-        // Obstacles: validate via Grid (throws if out of bounds) and add
-        if (req.getObstacles() != null) {
-            req.getObstacles().forEach(o -> grid.addObstacle(o.getX(), o.getY(), o.getZ()));
-        }
+    /**
+     * Builds the grid described by the request's setup and freezes it, so that several probes can
+     * run on it at once. A registered grid is returned as is, since it is frozen already.
+     */
+    public Grid buildSharedGrid(RunRequest req) {
+        Objects.requireNonNull(req, "RunRequest cannot be null");
+        Objects.requireNonNull(req.getGrid(), "Grid cannot be null");
+        Grid grid = timedBuildGrid(req);
+        return grid.isFrozen() ? grid : grid.freeze();
+    }
+
+    /** Places the request's probe on an already built grid, checking its start position. */
+    public Probe placeProbe(RunRequest req, Grid grid, PathRecorder path) {
+        Objects.requireNonNull(req.getStart(), "Start position cannot be null");
+        Objects.requireNonNull(req.getDirection(), "Direction cannot be null");
 
         // Validate start position
         CoordinateDto start = req.getStart();
@@ -41,34 +116,104 @@ public class ProbeRunService {
         }
 
         // Initialize probe
-        Probe probe = new Probe(start.getX(), start.getY(), start.getZ(), req.getDirection(), grid);
+        return new Probe(start.getX(), start.getY(), start.getZ(), req.getDirection(), grid, path);
+    }
+
+    /** Assembles the response for a probe that has executed its commands. */
+    public RunResponse respond(RunRequest req, Probe probe, ExecutionResult er) {
+        return metrics.time(Phase.RESPOND, () -> buildResponse(req, probe, er));
+    }
 
-        // Execute commands via interpreter
-        CommandInterpreter interpreter = new CommandInterpreter();
-        ExecutionResult er = interpreter.execute(req.getCommands(), probe);
+    /** Like {@link #respond(RunRequest, Probe, ExecutionResult)}, then commits the run's event. */
+    RunResponse respond(RunRequest req, Probe probe, ExecutionResult er, ProbeRunEvent event) {
+        RunResponse resp = respond(req, probe, er);
+        event.commit(req, probe, er);
+        return resp;
+    }
+
+    private RunResponse buildResponse(RunRequest req, Probe probe, ExecutionResult er) {
+        GridDto gridDto = req.getGrid();
 
-        // Assemble response
         RunResponse resp = new RunResponse();
         resp.setFinalState(new FinalStateDto(probe.getX(), probe.getY(), probe.getZ(), probe.getDirection()));
-        resp.setVisited(List.copyOf(probe.getVisitedCoordinates()));
-        resp.setExecution(new ExecutionDto(
+        // Lazy view: "(x,y,z)" strings are only built while the response is serialized
+        resp.setVisited(probe.getVisitedCoordinates());
+        resp.setPath(probe.getEncodedPath());
+        resp.setExecution(executionDto(er));
+        resp.setGrid(new GridDto(gridDto.getWidth(), gridDto.getHeight(), gridDto.getDepth()));
+
+        // Human-readable summary
+        resp.setSummary(buildExecutionSummary(probe, er, gridDto));
+
+        return resp;
+    }
+
+    static ExecutionDto executionDto(ExecutionResult er) {
+        return new ExecutionDto(
                 er.getTotalCommands(),
                 er.getExecutedCommands(),
                 er.getBlockedMoves(),
                 er.getInvalidCommands().stream()
                         .map(ic -> new InvalidCommandDto(ic.getIndex(), ic.getCommand(), ic.getReason()))
                         .toList()
-        ));
-        resp.setGrid(new GridDto(gridDto.getWidth(), gridDto.getHeight(), gridDto.getDepth()));
+        );
+    }
 
-        // Human-readable summary
-        resp.setSummary(buildExecutionSummary(probe, er, grid));
+    private Grid timedBuildGrid(RunRequest req) {
+        Grid grid = metrics.time(Phase.GRID, () -> buildGrid(req));
+        metrics.gridBuilt(grid);
+        return grid;
+    }
 
-        return resp;
+    private Grid buildGrid(RunRequest req) {
+        GridDto gridDto = req.getGrid();
+        List<CoordinateDto> obstacles = req.getObstacles() == null ? List.of() : req.getObstacles();
+        List<RegionDto> regions = req.getRegions() == null ? List.of() : req.getRegions();
+        if (req.getTerrainId() != null && req.getGridId() != null) {
+            throw new IllegalArgumentException("Only one of terrainId or gridId may be set");
+        }
+
+        Grid grid;
+        if (req.getGridId() != null) {
+            Grid registered = gridRegistry.get(req.getGridId());
+            if (registered.getWidth() != gridDto.getWidth() || registered.getHeight() != gridDto.getHeight()
+                    || registered.getDepth() != gridDto.getDepth()) {
+                throw new IllegalArgumentException("Grid does not match registered grid dimensions");
+            }
+            // Shared grids are frozen; only layer a private copy when this run adds obstacles
+            if (obstacles.isEmpty() && regions.isEmpty() && req.getObstacleMap() == null) return registered;
+            grid = registered.layered();
+        } else if (req.getTerrainId() != null) {
+            grid = terrainService.openGrid(req.getTerrainId(), gridDto);
+        } else {
+            grid = new Grid(gridDto.getWidth(), gridDto.getHeight(), gridDto.getDepth());
+        }
+
+        // Obstacles: validate via Grid (throws if out of bounds) and add
+        obstacles.forEach(o -> grid.addObstacle(o.getX(), o.getY(), o.getZ()));
+        regions.forEach(r -> addRegion(grid, r));
+        if (req.getObstacleMap() != null) ObstacleMapDecoder.apply(grid, req.getObstacleMap());
+        return grid;
+    }
+
+    static PathRecorder pathRecorder(RunRequest req) {
+        PathMode mode = req.getPathMode() == null ? PathMode.FULL : req.getPathMode();
+        boolean sized = mode == PathMode.SAMPLED || mode == PathMode.LAST_N;
+        if (sized && req.getPathSize() == null) {
+            throw new IllegalArgumentException("pathSize is required for path mode " + mode);
+        }
+        return PathRecorder.of(mode, sized ? req.getPathSize() : 0);
+    }
+
+    static void addRegion(Grid grid, RegionDto region) {
+        CoordinateDto from = region.getFrom();
+        CoordinateDto to = region.getTo();
+        if (from == null || to == null) throw new IllegalArgumentException("Region corners cannot be null");
+        grid.addObstacleRegion(from.getX(), from.getY(), from.getZ(), to.getX(), to.getY(), to.getZ());
     }
 
-    private String buildExecutionSummary(Probe probe, ExecutionResult er, Grid grid) {
-        int visitedCount = probe.getVisitedCoordinates().size();
+    private String buildExecutionSummary(Probe probe, ExecutionResult er, GridDto grid) {
+        long visitedCount = probe.getVisitedCount();
         int invalidCount = er.getInvalidCommands().size();
 
         return String.format(
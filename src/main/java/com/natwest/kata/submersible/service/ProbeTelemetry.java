@@ -0,0 +1,80 @@
+package com.natwest.kata.submersible.service;
+
+import com.natwest.kata.submersible.api.dto.TelemetryEventDto;
+import com.natwest.kata.submersible.domain.Probe;
+import com.natwest.kata.submersible.domain.ProbeListener;
+import com.natwest.kata.submersible.enums.TelemetryEventType;
+import com.natwest.kata.submersible.enums.TelemetryPolicy;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Fans a probe's moves and turns out to its telemetry subscribers.
+ * <p>
+ * Listener callbacks and {@link #subscribe} must not run concurrently with each other; the
+ * session lock guarantees that. Without subscribers an event costs a single emptiness check.
+ */
+final class ProbeTelemetry implements ProbeListener {
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final List<TelemetrySubscriber> subscribers = new CopyOnWriteArrayList<>();
+    private long seq;
+    private long totalBlocked;
+
+    ProbeTelemetry(int bufferSize, int maxSubscribers) {
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    /**
+     * Adds a subscriber whose first event is the probe's current state.
+     *
+     * @throws SessionLimitExceededException if the probe has the maximum number of subscribers
+     */
+    TelemetrySubscriber subscribe(Probe probe, TelemetryPolicy policy, TelemetrySubscriber.Sink sink) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new SessionLimitExceededException("Too many telemetry subscribers for this session");
+        }
+        TelemetrySubscriber subscriber = new TelemetrySubscriber(sink, policy, bufferSize, subscribers::remove);
+        subscribers.add(subscriber);
+        subscriber.offer(event(TelemetryEventType.STATE, probe, 0));
+        subscriber.start();
+        return subscriber;
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /** Ends every subscription, e.g. when the session ends. */
+    void close() {
+        subscribers.forEach(TelemetrySubscriber::close);
+    }
+
+    @Override
+    public void moved(Probe probe) {
+        if (!subscribers.isEmpty()) publish(event(TelemetryEventType.MOVE, probe, 0));
+    }
+
+    @Override
+    public void turned(Probe probe) {
+        if (!subscribers.isEmpty()) publish(event(TelemetryEventType.TURN, probe, 0));
+    }
+
+    @Override
+    public void blocked(Probe probe, int moves) {
+        totalBlocked += moves;
+        if (!subscribers.isEmpty()) publish(event(TelemetryEventType.BLOCKED, probe, moves));
+    }
+
+    private void publish(TelemetryEventDto event) {
+        for (TelemetrySubscriber subscriber : subscribers) subscriber.offer(event);
+    }
+
+    private TelemetryEventDto event(TelemetryEventType type, Probe probe, int blocked) {
+        return new TelemetryEventDto(type, ++seq, probe.getX(), probe.getY(), probe.getZ(), probe.getDirection(),
+                blocked, totalBlocked);
+    }
+}
@@ -0,0 +1,16 @@
+package com.natwest.kata.submersible.service;
+
+import java.io.Serial;
+
+/**
+ * Thrown when a request references a stored resource (terrain, grid, ...) by an unknown ID.
+ */
+public class ResourceNotFoundException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public ResourceNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,205 @@
+package com.natwest.kata.submersible.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.natwest.kata.submersible.api.dto.RunCacheStatsDto;
+import com.natwest.kata.submersible.api.dto.RunRequest;
+import com.natwest.kata.submersible.api.dto.RunResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Caches run results by request, in front of {@link ProbeRunService#run}.
+ * <p>
+ * A run is fully determined by its request (stored terrains and registered grids are content
+ * addressed), so identical requests share one result. Requests are keyed by a SHA-256 of their
+ * JSON form as bound, which ignores formatting and field order in the original body. The cache
+ * is bounded by the estimated size of the results it holds and evicts the least recently used
+ * first; a result bigger than a quarter of the budget is not cached, so one huge path cannot
+ * flush everything else. Concurrent identical requests are coalesced: the first one runs, the
+ * others wait for its result. Failed runs are not cached. A result for a registered grid is only
+ * served while the grid is still registered, so an evicted grid fails as it would uncached.
+ * <p>
+ * As a {@link MeterBinder} the cache publishes its counters and size as {@code probe.run.cache.*}
+ * meters once the application's meter registry binds it.
+ */
+@Service
+public class RunResultCache implements MeterBinder {
+
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    // Rough heap cost of a result: fixed DTO overhead, plus the kept path
+    private static final long ENTRY_OVERHEAD_BYTES = 1024;
+    private static final long BYTES_PER_POSITION = 32;
+    private static final long BYTES_PER_INVALID_COMMAND = 96;
+
+    private final ProbeRunService runService;
+    private final GridRegistry gridRegistry;
+    private final ObjectMapper mapper;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<RunResponse>> inFlight = new ConcurrentHashMap<>();
+    private long weightBytes;
+    private long hits;
+    private long misses;
+    private long coalesced;
+    private long evictions;
+
+    public RunResultCache(ProbeRunService runService, GridRegistry gridRegistry, ObjectMapper mapper,
+                          @Value("${submersible.run-cache.max-bytes:" + DEFAULT_MAX_BYTES + "}") long maxBytes) {
+        if (maxBytes < 0) throw new IllegalArgumentException("Run cache size cannot be negative");
+        this.runService = runService;
+        this.gridRegistry = gridRegistry;
+        this.mapper = mapper;
+        this.maxBytes = maxBytes;
+    }
+
+    public RunResponse run(RunRequest req) {
+        Objects.requireNonNull(req, "RunRequest cannot be null");
+        if (maxBytes == 0) return runService.run(req);
+
+        String key = key(req);
+        if (req.getGridId() != null && !gridRegistry.contains(req.getGridId())) {
+            // The grid was evicted: drop the stale result and let the run report the missing grid
+            remove(key);
+            return runService.run(req);
+        }
+        RunResponse cached = lookup(key);
+        if (cached != null) return cached;
+
+        CompletableFuture<RunResponse> flight = new CompletableFuture<>();
+        CompletableFuture<RunResponse> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            synchronized (this) {
+                coalesced++;
+            }
+            return await(running);
+        }
+        try {
+            // An identical run may have finished between the lookup and claiming the flight
+            RunResponse resp = lookup(key);
+            if (resp == null) {
+                synchronized (this) {
+                    misses++;
+                }
+                resp = runService.run(req);
+                store(key, resp);
+            }
+            flight.complete(resp);
+            return resp;
+        } catch (RuntimeException | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    public synchronized RunCacheStatsDto stats() {
+        return new RunCacheStatsDto(entries.size(), weightBytes, maxBytes, hits, misses, coalesced, evictions);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "probe.run.cache.hits", "Runs served from the cache", c -> c.stats().getHits());
+        counter(registry, "probe.run.cache.misses", "Runs computed and offered to the cache", c -> c.stats().getMisses());
+        counter(registry, "probe.run.cache.coalesced", "Runs that waited for an identical run in flight", c -> c.stats().getCoalesced());
+        counter(registry, "probe.run.cache.evictions", "Results evicted to stay within the size budget", c -> c.stats().getEvictions());
+        Gauge.builder("probe.run.cache.size", this, c -> c.stats().getSize())
+                .description("Results held in the cache")
+                .register(registry);
+        Gauge.builder("probe.run.cache.weight", this, c -> c.stats().getWeightBytes())
+                .description("Estimated heap held by cached results")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private void counter(MeterRegistry registry, String name, String description, ToDoubleFunction<RunResultCache> count) {
+        FunctionCounter.builder(name, this, count).description(description).register(registry);
+    }
+
+    private synchronized RunResponse lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) return null;
+        hits++;
+        return entry.response;
+    }
+
+    private synchronized void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) weightBytes -= entry.weight;
+    }
+
+    private synchronized void store(String key, RunResponse resp) {
+        long weight = weigh(resp);
+        if (weight > maxBytes / 4) return;
+        Entry previous = entries.put(key, new Entry(resp, weight));
+        if (previous != null) weightBytes -= previous.weight;
+        weightBytes += weight;
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (weightBytes > maxBytes && eldest.hasNext()) {
+            weightBytes -= eldest.next().weight;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private static RunResponse await(CompletableFuture<RunResponse> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException ex) {
+            // Waiters see the same error as the request that ran
+            if (ex.getCause() instanceof RuntimeException re) throw re;
+            if (ex.getCause() instanceof Error e) throw e;
+            throw ex;
+        }
+    }
+
+    private static long weigh(RunResponse resp) {
+        long weight = ENTRY_OVERHEAD_BYTES;
+        if (resp.getVisited() != null) weight += resp.getVisited().size() * BYTES_PER_POSITION;
+        if (resp.getPath() != null) weight += resp.getPath().length();
+        if (resp.getExecution() != null && resp.getExecution().getInvalidCommands() != null) {
+            weight += resp.getExecution().getInvalidCommands().size() * BYTES_PER_INVALID_COMMAND;
+        }
+        return weight;
+    }
+
+    private String key(RunRequest req) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            // Streams the request through the digest without building its JSON in memory
+            try (OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+                mapper.writeValue(out, req);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private record Entry(RunResponse response, long weight) {
+    }
+}
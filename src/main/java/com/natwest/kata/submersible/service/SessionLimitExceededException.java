@@ -0,0 +1,16 @@
+package com.natwest.kata.submersible.service;
+
+import java.io.Serial;
+
+/**
+ * Thrown when a probe session is created while the maximum number of live sessions is reached.
+ */
+public class SessionLimitExceededException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public SessionLimitExceededException(String message) {
+        super(message);
+    }
+}
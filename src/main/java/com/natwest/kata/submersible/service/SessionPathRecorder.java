@@ -0,0 +1,40 @@
+package com.natwest.kata.submersible.service;
+
+import com.natwest.kata.submersible.domain.PathBuffer;
+import com.natwest.kata.submersible.domain.PathRecorder;
+
+import java.util.List;
+
+/**
+ * Keeps the positions visited since they were last handed out, so a session holds one command
+ * batch's worth of path instead of its whole history.
+ */
+final class SessionPathRecorder implements PathRecorder {
+
+    private PathBuffer buffer = new PathBuffer();
+
+    @Override
+    public void record(int x, int y, int z) {
+        buffer.add(x, y, z);
+    }
+
+    @Override
+    public boolean repeatLast(long count, long times) {
+        // A period reaching back into an already drained batch cannot be replayed from the buffer
+        if (count > buffer.size() || count * times > PathBuffer.MAX_SIZE - buffer.size()) return false;
+        buffer.repeatLast((int) count, (int) times);
+        return true;
+    }
+
+    @Override
+    public List<String> positions() {
+        return buffer.asList();
+    }
+
+    /** Returns the positions recorded so far and starts over with an empty buffer. */
+    List<String> drain() {
+        List<String> positions = buffer.asList();
+        buffer = new PathBuffer();
+        return positions;
+    }
+}
@@ -0,0 +1,262 @@
+package com.natwest.kata.submersible.service;
+
+import com.natwest.kata.submersible.api.dto.ExecutionDto;
+import com.natwest.kata.submersible.api.dto.FinalStateDto;
+import com.natwest.kata.submersible.api.dto.RunRequest;
+import com.natwest.kata.submersible.api.dto.SessionCommandsRequest;
+import com.natwest.kata.submersible.api.dto.SessionRequest;
+import com.natwest.kata.submersible.api.dto.SessionResponse;
+import com.natwest.kata.submersible.domain.PathRecorder;
+import com.natwest.kata.submersible.domain.Probe;
+import com.natwest.kata.submersible.enums.PathMode;
+import com.natwest.kata.submersible.enums.TelemetryPolicy;
+import com.natwest.kata.submersible.interpreter.ExecutionResult;
+import com.natwest.kata.submersible.interpreter.Program;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps probes alive on the server so clients can send commands in batches instead of
+ * resending the whole history.
+ * <p>
+ * Each batch continues from the probe's current state and answers with just what it changed:
+ * the positions it visited and its own statistics. A session keeps only the current state and
+ * the running totals, never the accumulated path. Batches for one session run one at a time;
+ * different sessions run independently. Sessions idle for longer than the TTL are dropped, and
+ * the number of live sessions is capped. Moves and turns can be followed live over server-sent
+ * events (see {@link #subscribe}).
+ */
+@Service
+public class SessionService {
+
+    public static final int DEFAULT_MAX_SESSIONS = 10_000;
+    public static final long DEFAULT_IDLE_TTL_SECONDS = 900;
+
+    private final ProbeRunService runService;
+    private final TelemetryService telemetryService;
+    private final int maxSessions;
+    private final long idleTtlNanos;
+    private final long sweepIntervalNanos;
+    private final LongSupplier clock;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // Slots taken by live sessions and by creates in progress; reserved before a session is built
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final AtomicLong lastSweep;
+
+    @Autowired
+    public SessionService(ProbeRunService runService, TelemetryService telemetryService,
+                          @Value("${submersible.sessions.max-sessions:" + DEFAULT_MAX_SESSIONS + "}") int maxSessions,
+                          @Value("${submersible.sessions.idle-ttl-seconds:" + DEFAULT_IDLE_TTL_SECONDS + "}") long idleTtlSeconds) {
+        this(runService, telemetryService, maxSessions, Duration.ofSeconds(idleTtlSeconds), System::nanoTime);
+    }
+
+    SessionService(ProbeRunService runService, TelemetryService telemetryService, int maxSessions, Duration idleTtl,
+                   LongSupplier clock) {
+        if (maxSessions <= 0) throw new IllegalArgumentException("Session limit must be positive");
+        if (idleTtl.isNegative() || idleTtl.isZero()) throw new IllegalArgumentException("Session idle TTL must be positive");
+        this.runService = runService;
+        this.telemetryService = telemetryService;
+        this.maxSessions = maxSessions;
+        this.idleTtlNanos = idleTtl.toNanos();
+        // Idle sessions are looked for at most a few times per TTL, not on every call
+        this.sweepIntervalNanos = Math.max(1, idleTtlNanos / 4);
+        this.clock = clock;
+        this.lastSweep = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Validates the setup, builds the grid and places the probe, like the start of a run.
+     *
+     * @throws SessionLimitExceededException if the maximum number of sessions is live
+     */
+    public SessionResponse create(SessionRequest req) {
+        Objects.requireNonNull(req, "SessionRequest cannot be null");
+        PathMode mode = req.getPathMode() == null ? PathMode.FULL : req.getPathMode();
+        if (mode != PathMode.FULL && mode != PathMode.NONE) {
+            throw new IllegalArgumentException("Path mode " + mode + " is not supported for sessions");
+        }
+        long now = clock.getAsLong();
+        evictIdle(now, false);
+        if (!reserveSlot()) {
+            evictIdle(now, true);
+            if (!reserveSlot()) throw new SessionLimitExceededException("Too many live sessions, retry later");
+        }
+
+        Session session;
+        try {
+            SessionPathRecorder path = mode == PathMode.FULL ? new SessionPathRecorder() : null;
+            Probe probe = runService.startProbe(setupOf(req), path == null ? PathRecorder.of(PathMode.NONE, 0) : path);
+            session = new Session(UUID.randomUUID().toString(), probe, path, telemetryService.attach(probe), now);
+        } catch (RuntimeException | Error ex) {
+            reserved.decrementAndGet();
+            throw ex;
+        }
+        sessions.put(session.id, session);
+        synchronized (session) {
+            return session.respond(session.drain(), null);
+        }
+    }
+
+    /**
+     * Runs a command batch from where the previous one left off.
+     *
+     * @throws ResourceNotFoundException if the session is unknown, deleted or expired
+     */
+    public SessionResponse execute(String id, SessionCommandsRequest req) {
+        Objects.requireNonNull(req, "SessionCommandsRequest cannot be null");
+        RunRequest run = new RunRequest();
+        run.setCommands(req.getCommands());
+        run.setProgram(req.getProgram());
+        run.setScript(req.getScript());
+        Program script = runService.checkCommands(run);
+
+        Session session = find(id);
+        synchronized (session) {
+            session.busy = true;
+            try {
+                ProbeRunEvent event = ProbeRunEvent.started();
+                ExecutionResult er = runService.execute(run, script, session.probe);
+                session.totalCommands += er.getTotalCommands();
+                SessionResponse response = session.respond(session.drain(), ProbeRunService.executionDto(er));
+                event.commit(run, session.probe, er);
+                return response;
+            } finally {
+                session.busy = false;
+                session.lastAccess = clock.getAsLong();
+            }
+        }
+    }
+
+    /**
+     * @throws ResourceNotFoundException if the session is unknown, deleted or expired
+     */
+    public SessionResponse get(String id) {
+        Session session = find(id);
+        synchronized (session) {
+            return session.respond(null, null);
+        }
+    }
+
+    /**
+     * Opens a live event stream for the session's probe: its current state first, then every
+     * move, turn and blocked move as command batches run. A subscriber that falls behind loses
+     * events according to {@code policy} rather than slowing the probe down.
+     *
+     * @throws ResourceNotFoundException     if the session is unknown, deleted or expired
+     * @throws SessionLimitExceededException if the session has the maximum number of subscribers
+     */
+    public SseEmitter subscribe(String id, TelemetryPolicy policy) {
+        Session session = find(id);
+        synchronized (session) {
+            return telemetryService.subscribe(session.telemetry, session.probe,
+                    policy == null ? TelemetryPolicy.COALESCE : policy);
+        }
+    }
+
+    /**
+     * @throws ResourceNotFoundException if the session is unknown, deleted or expired
+     */
+    public void delete(String id) {
+        discard(find(id));
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    private Session find(String id) {
+        long now = clock.getAsLong();
+        evictIdle(now, false);
+        Session session = id == null ? null : sessions.get(id);
+        if (session != null && session.isIdle(now, idleTtlNanos)) {
+            discard(session);
+            session = null;
+        }
+        if (session == null) throw new ResourceNotFoundException("Unknown session: " + id);
+        session.lastAccess = now;
+        return session;
+    }
+
+    private void evictIdle(long now, boolean force) {
+        long last = lastSweep.get();
+        // Otherwise only one caller per interval sweeps
+        if (!force && (now - last < sweepIntervalNanos || !lastSweep.compareAndSet(last, now))) return;
+        for (Session session : sessions.values()) {
+            if (session.isIdle(now, idleTtlNanos)) discard(session);
+        }
+    }
+
+    // The check and the increment are one step, so concurrent creates cannot overshoot the limit
+    private boolean reserveSlot() {
+        for (int taken = reserved.get(); taken < maxSessions; taken = reserved.get()) {
+            if (reserved.compareAndSet(taken, taken + 1)) return true;
+        }
+        return false;
+    }
+
+    private void discard(Session session) {
+        // Only the caller that actually removes the session frees its slot
+        if (sessions.remove(session.id, session)) {
+            reserved.decrementAndGet();
+            session.telemetry.close();
+        }
+    }
+
+    private static RunRequest setupOf(SessionRequest req) {
+        RunRequest setup = new RunRequest();
+        setup.setGrid(req.getGrid());
+        setup.setStart(req.getStart());
+        setup.setDirection(req.getDirection());
+        setup.setObstacles(req.getObstacles());
+        setup.setRegions(req.getRegions());
+        setup.setObstacleMap(req.getObstacleMap());
+        setup.setTerrainId(req.getTerrainId());
+        setup.setGridId(req.getGridId());
+        return setup;
+    }
+
+    private static final class Session {
+
+        final String id;
+        final Probe probe;
+        final SessionPathRecorder path; // null for pathMode NONE
+        final ProbeTelemetry telemetry;
+        long totalCommands;
+        volatile long lastAccess;
+        volatile boolean busy;
+
+        Session(String id, Probe probe, SessionPathRecorder path, ProbeTelemetry telemetry, long now) {
+            this.id = id;
+            this.probe = probe;
+            this.path = path;
+            this.telemetry = telemetry;
+            this.lastAccess = now;
+        }
+
+        boolean isIdle(long now, long ttlNanos) {
+            return !busy && now - lastAccess > ttlNanos;
+        }
+
+        List<String> drain() {
+            return path == null ? List.of() : path.drain();
+        }
+
+        SessionResponse respond(List<String> visited, ExecutionDto execution) {
+            return new SessionResponse(id,
+                    new FinalStateDto(probe.getX(), probe.getY(), probe.getZ(), probe.getDirection()),
+                    visited, execution, probe.getVisitedCount(), totalCommands);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.natwest.kata.submersible.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.natwest.kata.submersible.api.dto.RunRequest;
+import com.natwest.kata.submersible.api.dto.RunResponse;
+import com.natwest.kata.submersible.domain.Probe;
+import com.natwest.kata.submersible.enums.PathMode;
+import com.natwest.kata.submersible.interpreter.CommandInterpreter;
+import com.natwest.kata.submersible.interpreter.Program;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs a probe straight from a request body stream, or with its response streamed.
+ * <p>
+ * The body has the same shape as a {@link RunRequest}, but it is read token by token: the setup
+ * fields are collected first, and once the {@code commands} array starts, each element is fed to
+ * the interpreter as soon as it is parsed and then discarded. Memory therefore stays bounded by
+ * the setup and the chosen path mode, however long the command list is. For that to work the
+ * {@code commands} array has to be the last field of the body.
+ */
+@Service
+public class StreamingRunService {
+
+    private static final String COMMANDS = "commands";
+    // Needed to place the probe, so they have to come before the commands
+    private static final List<String> SETUP_FIELDS = List.of("grid", "start", "direction");
+    private static final String COMMANDS_NOT_LAST = "'commands' must be the last field of a streamed request";
+
+    private final ProbeRunService runService;
+    private final ObjectMapper mapper;
+    private final Validator validator;
+
+    public StreamingRunService(ProbeRunService runService, ObjectMapper mapper, Validator validator) {
+        this.runService = runService;
+        this.mapper = mapper;
+        this.validator = validator;
+    }
+
+    /**
+     * @throws com.fasterxml.jackson.core.JsonProcessingException if the body is not valid JSON or a
+     *                                                            setup field cannot be bound
+     * @throws ConstraintViolationException                       if the setup fails bean validation
+     * @throws MalformedRequestException                          if {@code commands} is not the last field
+     */
+    public RunResponse run(InputStream body) throws IOException {
+        try (JsonParser parser = mapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Request body must be a JSON object");
+            }
+            ObjectNode setup = mapper.createObjectNode();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if (COMMANDS.equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                    for (String required : SETUP_FIELDS) {
+                        if (!setup.has(required)) {
+                            throw new MalformedRequestException(COMMANDS_NOT_LAST + ", after '" + required + "'");
+                        }
+                    }
+                    return runCommands(parser, bind(setup));
+                }
+                setup.set(field, parser.readValueAsTree());
+            }
+            // No command array to stream (e.g. a program or script): run it as a regular request
+            RunRequest request = mapper.treeToValue(setup, RunRequest.class);
+            validate(request);
+            return runService.run(request);
+        }
+    }
+
+    private RunRequest bind(ObjectNode setup) throws IOException {
+        RunRequest request = mapper.treeToValue(setup, RunRequest.class);
+        // Stands in for the streamed commands, so the command source is validated like any request
+        request.setCommands(List.of());
+        validate(request);
+        return request;
+    }
+
+    private RunResponse runCommands(JsonParser parser, RunRequest request) throws IOException {
+        ProbeRunEvent event = ProbeRunEvent.started();
+        Probe probe = runService.startProbe(request);
+        CommandInterpreter.Execution execution = new CommandInterpreter().start(probe);
+
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) throw new IllegalArgumentException("Unexpected end of commands");
+            if (token == JsonToken.VALUE_STRING && parser.getTextLength() == 1) {
+                // Single-letter commands are read from the parser's buffer without creating a String
+                execution.accept(parser.getTextCharacters()[parser.getTextOffset()]);
+            } else if (token == JsonToken.VALUE_NULL) {
+                execution.accept((String) null);
+            } else if (token.isScalarValue()) {
+                execution.accept(parser.getText());
+            } else {
+                throw new IllegalArgumentException("Commands must be strings");
+            }
+        }
+        if (parser.nextToken() != JsonToken.END_OBJECT) {
+            throw new MalformedRequestException(COMMANDS_NOT_LAST);
+        }
+        return runService.respond(request, probe, runService.finish(execution), event);
+    }
+
+    /**
+     * Prepares a run whose response is written as NDJSON while the probe moves: one
+     * {@code {"visited":"(x,y,z)"}} line per position, then a {@code {"result":...}} line holding
+     * the usual response without the path. Request errors are thrown here, before anything is
+     * written; the returned body then executes the commands.
+     * <p>
+     * Only path modes FULL (every position is streamed) and NONE (just the result) apply.
+     */
+    public StreamingResponseBody runAsNdjson(RunRequest request) {
+        PathMode mode = request.getPathMode() == null ? PathMode.FULL : request.getPathMode();
+        if (mode != PathMode.FULL && mode != PathMode.NONE) {
+            throw new IllegalArgumentException("Path mode " + mode + " is not supported for streamed responses");
+        }
+        ProbeRunEvent event = ProbeRunEvent.started();
+        Program script = runService.checkCommands(request);
+        NdjsonPathRecorder recorder = mode == PathMode.FULL ? new NdjsonPathRecorder() : null;
+        Probe probe = recorder == null ? runService.startProbe(request) : runService.startProbe(request, recorder);
+
+        return out -> {
+            if (recorder != null) recorder.attach(out);
+            RunResponse response = runService.respond(request, probe, runService.execute(request, script, probe), event);
+            byte[] result = mapper.writeValueAsBytes(Map.of("result", response));
+            if (recorder != null) {
+                recorder.finish(result);
+            } else {
+                out.write(result);
+                out.write('\n');
+                out.flush();
+            }
+        };
+    }
+
+    private void validate(RunRequest request) {
+        Set<ConstraintViolation<RunRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) throw new ConstraintViolationException(violations);
+    }
+}
@@ -0,0 +1,72 @@
+package com.natwest.kata.submersible.service;
+
+import com.natwest.kata.submersible.api.dto.TelemetryEventDto;
+import com.natwest.kata.submersible.domain.Probe;
+import com.natwest.kata.submersible.enums.TelemetryPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Live telemetry for probes: attaches a {@link ProbeTelemetry} to a probe and connects
+ * subscribers to it over server-sent events.
+ */
+@Service
+public class TelemetryService {
+
+    public static final int DEFAULT_BUFFER_SIZE = 256;
+    public static final int DEFAULT_MAX_SUBSCRIBERS = 16;
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+
+    public TelemetryService(@Value("${submersible.telemetry.buffer-size:" + DEFAULT_BUFFER_SIZE + "}") int bufferSize,
+                            @Value("${submersible.telemetry.max-subscribers:" + DEFAULT_MAX_SUBSCRIBERS + "}") int maxSubscribers) {
+        if (bufferSize <= 0) throw new IllegalArgumentException("Telemetry buffer size must be positive");
+        if (maxSubscribers <= 0) throw new IllegalArgumentException("Telemetry subscriber limit must be positive");
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    ProbeTelemetry attach(Probe probe) {
+        ProbeTelemetry telemetry = new ProbeTelemetry(bufferSize, maxSubscribers);
+        probe.setListener(telemetry);
+        return telemetry;
+    }
+
+    /** Subscribes a new SSE stream; each event is named after its type, e.g. {@code event: move}. */
+    SseEmitter subscribe(ProbeTelemetry telemetry, Probe probe, TelemetryPolicy policy) {
+        // No timeout: the stream lasts until the client disconnects or the session ends
+        SseEmitter emitter = new SseEmitter(0L);
+        TelemetrySubscriber subscriber = telemetry.subscribe(probe, policy, new SseSink(emitter));
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(ex -> subscriber.close());
+        return emitter;
+    }
+
+    private record SseSink(SseEmitter emitter) implements TelemetrySubscriber.Sink {
+
+        @Override
+        public void send(TelemetryEventDto event) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(event.getSeq()))
+                    .name(event.getType().name().toLowerCase(Locale.ROOT))
+                    .data(event, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void keepAlive() throws IOException {
+            emitter.send(SseEmitter.event().comment("keep-alive"));
+        }
+
+        @Override
+        public void complete() {
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.natwest.kata.submersible.service;
+
+import com.natwest.kata.submersible.api.dto.TelemetryEventDto;
+import com.natwest.kata.submersible.enums.TelemetryPolicy;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * One telemetry consumer: a bounded buffer filled by the probe's thread and drained into the
+ * sink by the subscriber's own virtual thread, so a slow client only ever delays itself.
+ * <p>
+ * When the buffer is full, {@link TelemetryPolicy#DROP} discards the new event, while
+ * {@link TelemetryPolicy#COALESCE} keeps it aside in place of any event kept before, so the
+ * subscriber still gets the most recent state once it catches up. Either way the next event
+ * delivered reports how many were missed.
+ */
+final class TelemetrySubscriber {
+
+    /** Where events end up, typically an SSE connection. */
+    interface Sink {
+
+        void send(TelemetryEventDto event) throws IOException;
+
+        /** Called when there has been nothing to send for a while, to keep the connection open. */
+        void keepAlive() throws IOException;
+
+        void complete();
+    }
+
+    static final long KEEP_ALIVE_SECONDS = 15;
+
+    private final Sink sink;
+    private final TelemetryPolicy policy;
+    private final BlockingQueue<TelemetryEventDto> buffer;
+    private final AtomicReference<TelemetryEventDto> latest = new AtomicReference<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Consumer<TelemetrySubscriber> onClose;
+    private volatile boolean closed;
+    private Thread pump;
+
+    TelemetrySubscriber(Sink sink, TelemetryPolicy policy, int bufferSize, Consumer<TelemetrySubscriber> onClose) {
+        this.sink = sink;
+        this.policy = policy;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.onClose = onClose;
+    }
+
+    void start() {
+        pump = Thread.ofVirtual().name("telemetry-subscriber").start(this::pump);
+    }
+
+    /** Never blocks. Called from one thread at a time (the one driving the probe). */
+    void offer(TelemetryEventDto event) {
+        if (buffer.offer(event)) {
+            // Anything set aside is older than the event just queued, which supersedes it
+            if (policy == TelemetryPolicy.COALESCE && latest.getAndSet(null) != null) dropped.incrementAndGet();
+            return;
+        }
+        if (policy == TelemetryPolicy.DROP || latest.getAndSet(event) != null) dropped.incrementAndGet();
+    }
+
+    void close() {
+        if (closed) return;
+        closed = true;
+        if (pump != null && pump != Thread.currentThread()) pump.interrupt();
+        onClose.accept(this);
+        sink.complete();
+    }
+
+    private void pump() {
+        try {
+            while (!closed) {
+                // The set-aside event is only newer than the buffer's contents once the buffer is empty
+                TelemetryEventDto event = buffer.poll();
+                if (event == null) event = latest.getAndSet(null);
+                if (event == null) event = buffer.poll(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+                if (event == null) {
+                    sink.keepAlive();
+                    continue;
+                }
+                long missed = dropped.getAndSet(0);
+                sink.send(missed == 0 ? event : event.withDropped(missed));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException ex) {
+            // The client has gone away; fall through and unsubscribe
+        } finally {
+            close();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.natwest.kata.submersible.service;
+
+import com.natwest.kata.submersible.api.dto.CoordinateDto;
+import com.natwest.kata.submersible.api.dto.GridDto;
+import com.natwest.kata.submersible.api.dto.TerrainRequest;
+import com.natwest.kata.submersible.api.dto.TerrainResponse;
+import com.natwest.kata.submersible.domain.Grid;
+import com.natwest.kata.submersible.domain.MappedObstacleStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Stores terrains as memory-mapped obstacle files and hands out grids backed by them.
+ * <p>
+ * Terrain IDs are the SHA-256 of the grid dimensions and the sorted obstacle cells, so storing
+ * the same terrain twice yields the same ID and file. The most recently used terrains stay
+ * mapped; an evicted one is unmapped once no grid uses it any more and mapped again on next use.
+ */
+@Service
+public class TerrainService {
+
+    public static final int DEFAULT_MAX_OPEN = 64;
+
+    private static final Pattern TERRAIN_ID = Pattern.compile("[0-9a-f]{64}");
+    private static final String EXTENSION = ".terrain";
+
+    private final Path directory;
+    private final LinkedHashMap<String, MappedObstacleStore> mapped;
+
+    public TerrainService(@Value("${submersible.terrain.directory:${java.io.tmpdir}/submersible-terrain}") Path directory,
+                          @Value("${submersible.terrain.max-open:" + DEFAULT_MAX_OPEN + "}") int maxOpen) {
+        if (maxOpen <= 0) throw new IllegalArgumentException("Open terrain limit must be positive");
+        this.directory = directory;
+        this.mapped = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MappedObstacleStore> eldest) {
+                return size() > maxOpen;
+            }
+        };
+    }
+
+    public TerrainResponse store(TerrainRequest req) {
+        Objects.requireNonNull(req, "TerrainRequest cannot be null");
+        Objects.requireNonNull(req.getGrid(), "Grid cannot be null");
+
+        GridDto gridDto = req.getGrid();
+        // Validates dimensions the same way a run does
+        Grid bounds = new Grid(gridDto.getWidth(), gridDto.getHeight(), gridDto.getDepth());
+        if (!MappedObstacleStore.supportsDimensions(bounds.getWidth(), bounds.getHeight(), bounds.getDepth())) {
+            throw new IllegalArgumentException("Grid volume is too large for a stored terrain");
+        }
+
+        List<CoordinateDto> obstacles = req.getObstacles() == null ? List.of() : req.getObstacles();
+        long[] cells = new long[obstacles.size()];
+        for (int i = 0; i < cells.length; i++) {
+            CoordinateDto o = obstacles.get(i);
+            if (!bounds.isWithinBounds(o.getX(), o.getY(), o.getZ())) throw new IllegalArgumentException("Obstacle out of bounds");
+            cells[i] = MappedObstacleStore.cellKey(bounds.getWidth(), bounds.getHeight(), o.getX(), o.getY(), o.getZ());
+        }
+
+        try {
+            Files.createDirectories(directory);
+            Path tmp = Files.createTempFile(directory, "upload-", ".tmp");
+            try {
+                long count = MappedObstacleStore.write(tmp, bounds.getWidth(), bounds.getHeight(), bounds.getDepth(), cells);
+                String id = terrainId(bounds, cells, (int) count);
+                Files.move(tmp, fileFor(id), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return new TerrainResponse(id, new GridDto(bounds.getWidth(), bounds.getHeight(), bounds.getDepth()), count);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Returns a fresh grid layered over the stored terrain. The grid dimensions in the request must
+     * match the terrain's.
+     */
+    public Grid openGrid(String terrainId, GridDto expected) {
+        MappedObstacleStore store = open(terrainId);
+        if (store.getWidth() != expected.getWidth() || store.getHeight() != expected.getHeight()
+                || store.getDepth() != expected.getDepth()) {
+            throw new IllegalArgumentException("Grid does not match terrain dimensions");
+        }
+        return new Grid(store.getWidth(), store.getHeight(), store.getDepth(), store);
+    }
+
+    private MappedObstacleStore open(String terrainId) {
+        if (terrainId == null || !TERRAIN_ID.matcher(terrainId).matches()) {
+            throw new ResourceNotFoundException("Unknown terrain: " + terrainId);
+        }
+        synchronized (mapped) {
+            MappedObstacleStore store = mapped.get(terrainId);
+            if (store != null) return store;
+        }
+        // Opened outside the lock, as it reads the whole file; a concurrent opener's store is kept
+        Path file = fileFor(terrainId);
+        if (!Files.isRegularFile(file)) throw new ResourceNotFoundException("Unknown terrain: " + terrainId);
+        MappedObstacleStore opened = MappedObstacleStore.open(file);
+        synchronized (mapped) {
+            MappedObstacleStore existing = mapped.putIfAbsent(terrainId, opened);
+            return existing != null ? existing : opened;
+        }
+    }
+
+    private Path fileFor(String terrainId) {
+        return directory.resolve(terrainId + EXTENSION);
+    }
+
+    private static String terrainId(Grid grid, long[] sortedCells, int count) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+            buffer.putInt(grid.getWidth()).putInt(grid.getHeight()).putInt(grid.getDepth());
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < Long.BYTES) {
+                    digest.update(buffer.flip());
+                    buffer.clear();
+                }
+                buffer.putLong(sortedCells[i]);
+            }
+            digest.update(buffer.flip());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
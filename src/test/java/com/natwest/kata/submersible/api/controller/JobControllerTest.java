@@ -0,0 +1,73 @@
+package com.natwest.kata.submersible.api.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.natwest.kata.submersible.api.dto.CoordinateDto;
+import com.natwest.kata.submersible.api.dto.GridDto;
+import com.natwest.kata.submersible.api.dto.RunRequest;
+import com.natwest.kata.submersible.enums.Direction;
+import com.natwest.kata.submersible.service.GridRegistry;
+import com.natwest.kata.submersible.service.JobService;
+import com.natwest.kata.submersible.service.ProbeRunMetrics;
+import com.natwest.kata.submersible.service.ProbeRunService;
+import com.natwest.kata.submersible.service.TerrainService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = JobController.class)
+@Import({JobService.class, ProbeRunService.class, ProbeRunMetrics.class, TerrainService.class, GridRegistry.class, TestMetricsConfiguration.class})
+class JobControllerTest {
+
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    ObjectMapper mapper;
+
+    @Test
+    void submittedJobShouldBeAcceptedAndLongPolledToItsResult() throws Exception {
+        RunRequest req = new RunRequest();
+        req.setGrid(new GridDto(5, 5, 5));
+        req.setStart(new CoordinateDto(0, 0, 0));
+        req.setDirection(Direction.NORTH);
+        req.setCommands(List.of("F", "F", "R", "F"));
+
+        MvcResult submitted = mvc.perform(post("/api/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(req)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.id").isString())
+                .andReturn();
+        String id = mapper.readTree(submitted.getResponse().getContentAsString()).get("id").asText();
+
+        MvcResult polled = mvc.perform(get("/api/jobs/" + id).param("wait", "10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(polled))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SUCCEEDED"))
+                .andExpect(jsonPath("$.result.finalState.x").value(1))
+                .andExpect(jsonPath("$.result.finalState.y").value(2));
+    }
+
+    @Test
+    void unknownJobShouldReturn404() throws Exception {
+        mvc.perform(get("/api/jobs/no-such-job"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error.code").value("NOT_FOUND"));
+    }
+}
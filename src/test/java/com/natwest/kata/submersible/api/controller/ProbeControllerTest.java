@@ -1,33 +1,52 @@
 package com.natwest.kata.submersible.api.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.natwest.kata.submersible.api.dto.BatchProbeDto;
+import com.natwest.kata.submersible.api.dto.BatchRunRequest;
 import com.natwest.kata.submersible.api.dto.CoordinateDto;
 import com.natwest.kata.submersible.api.dto.GridDto;
 import com.natwest.kata.submersible.api.dto.RunRequest;
 import com.natwest.kata.submersible.enums.Direction;
+import com.natwest.kata.submersible.service.BatchRunService;
+import com.natwest.kata.submersible.service.GridRegistry;
+import com.natwest.kata.submersible.service.ProbeRunMetrics;
 import com.natwest.kata.submersible.service.ProbeRunService;
+import com.natwest.kata.submersible.service.RunResultCache;
+import com.natwest.kata.submersible.service.StreamingRunService;
+import com.natwest.kata.submersible.service.TerrainService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.test.json.JsonCompareMode;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Collections;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ProbeController.class)
-@Import({ProbeRunService.class})
+@Import({ProbeRunService.class, ProbeRunMetrics.class, RunResultCache.class, StreamingRunService.class, BatchRunService.class, TerrainService.class, GridRegistry.class, TestMetricsConfiguration.class})
 class ProbeControllerTest {
 
     @Autowired
     MockMvc mvc;
     @Autowired
     ObjectMapper mapper;
+    @Autowired
+    MeterRegistry meterRegistry;
 
     @Test
     void runShouldReturnFinalStateVisitedAndExecutionMetrics() throws Exception {
@@ -171,4 +190,215 @@ class ProbeControllerTest {
                 .andExpect(jsonPath("$.error.code").value("VALIDATION_ERROR"))
                 .andExpect(jsonPath("$.error.message").isNotEmpty());
     }
+
+    @Test
+    void runShouldAcceptPackedProgramString() throws Exception {
+        String body = """
+                {"grid":{"width":5,"height":5,"depth":5},"start":{"x":0,"y":0,"z":0},
+                 "direction":"NORTH","program":"FFrXF"}
+                """;
+
+        mvc.perform(post("/api/probe/run")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.finalState.x").value(1))
+                .andExpect(jsonPath("$.finalState.y").value(2))
+                .andExpect(jsonPath("$.execution.totalCommands").value(5))
+                .andExpect(jsonPath("$.execution.invalidCommands[0].index").value(3))
+                .andExpect(jsonPath("$.execution.invalidCommands[0].command").value("X"));
+    }
+
+    @Test
+    void runShouldReturn400WhenNoCommandSourceIsSet() throws Exception {
+        RunRequest req = new RunRequest();
+        req.setGrid(new GridDto(5, 5, 5));
+        req.setStart(new CoordinateDto(0, 0, 0));
+        req.setDirection(Direction.NORTH);
+
+        mvc.perform(post("/api/probe/run")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(req)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.details[0].field").value("commandSourceValid"))
+                .andExpect(jsonPath("$.error.details[0].issue").value("Exactly one of commands, program or script must be set"));
+    }
+
+    @Test
+    void streamedRunShouldMatchRegularRun() throws Exception {
+        RunRequest req = new RunRequest();
+        req.setGrid(new GridDto(5, 5, 5));
+        req.setStart(new CoordinateDto(0, 0, 0));
+        req.setDirection(Direction.NORTH);
+        req.setObstacles(List.of(new CoordinateDto(1, 2, 0)));
+        req.setCommands(List.of("F", "F", "R", "F", "x", "U", "F"));
+        String body = mapper.writeValueAsString(req);
+        String regular = mvc.perform(post("/api/probe/run").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // commands must be last in a streamed body
+        String streamedBody = """
+                {"grid":{"width":5,"height":5,"depth":5},"start":{"x":0,"y":0,"z":0},"direction":"NORTH",
+                 "obstacles":[{"x":1,"y":2,"z":0}],"commands":["F","F","R","F","x","U","F"]}
+                """;
+        mvc.perform(post("/api/probe/run/stream").contentType(MediaType.APPLICATION_JSON).content(streamedBody))
+                .andExpect(status().isOk())
+                .andExpect(content().json(regular, JsonCompareMode.STRICT));
+    }
+
+    @Test
+    void streamedRunShouldRejectBadBodies() throws Exception {
+        String commandsFirst = """
+                {"commands":["F"],"grid":{"width":5,"height":5,"depth":5},"start":{"x":0,"y":0,"z":0},"direction":"NORTH"}
+                """;
+        String fieldAfterCommands = """
+                {"grid":{"width":5,"height":5,"depth":5},"start":{"x":0,"y":0,"z":0},"direction":"NORTH",
+                 "commands":["F"],"pathMode":"NONE"}
+                """;
+
+        mvc.perform(post("/api/probe/run/stream").contentType(MediaType.APPLICATION_JSON).content(commandsFirst))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.message").value("'commands' must be the last field of a streamed request, after 'grid'"));
+        mvc.perform(post("/api/probe/run/stream").contentType(MediaType.APPLICATION_JSON).content(fieldAfterCommands))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.message").value("'commands' must be the last field of a streamed request"));
+        mvc.perform(post("/api/probe/run/stream").contentType(MediaType.APPLICATION_JSON).content("{ \"grid\": "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.message").value("Malformed JSON request"));
+    }
+
+    @Test
+    void ndjsonRunShouldStreamEachPositionThenTheResult() throws Exception {
+        RunRequest req = new RunRequest();
+        req.setGrid(new GridDto(5, 5, 5));
+        req.setStart(new CoordinateDto(0, 0, 0));
+        req.setDirection(Direction.NORTH);
+        req.setCommands(List.of("F", "F", "R", "F"));
+
+        MvcResult started = mvc.perform(post("/api/probe/run/ndjson")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(req)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(5, lines.length);
+        assertEquals("{\"visited\":\"(0,0,0)\"}", lines[0]);
+        assertEquals("{\"visited\":\"(1,2,0)\"}", lines[3]);
+        var result = mapper.readTree(lines[4]).get("result");
+        assertEquals(1, result.get("finalState").get("x").asInt());
+        assertEquals(4, result.get("execution").get("totalCommands").asInt());
+    }
+
+    @Test
+    void ndjsonRunShouldReportSetupErrorsBeforeStreaming() throws Exception {
+        RunRequest req = new RunRequest();
+        req.setGrid(new GridDto(5, 5, 5));
+        req.setStart(new CoordinateDto(0, 0, 0));
+        req.setDirection(Direction.NORTH);
+        req.setCommands(List.of("F"));
+        req.setObstacles(List.of(new CoordinateDto(9, 9, 9)));
+
+        mvc.perform(post("/api/probe/run/ndjson")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(req)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error.message").value("Obstacle out of bounds"));
+    }
+
+    @Test
+    void batchRunShouldReturnResultsInOrderWithPerProbeErrors() throws Exception {
+        BatchProbeDto first = new BatchProbeDto();
+        first.setStart(new CoordinateDto(0, 0, 0));
+        first.setDirection(Direction.NORTH);
+        first.setProgram("FFRF");
+        BatchProbeDto outside = new BatchProbeDto();
+        outside.setStart(new CoordinateDto(7, 0, 0));
+        outside.setDirection(Direction.EAST);
+        outside.setCommands(List.of("F"));
+
+        BatchRunRequest req = new BatchRunRequest();
+        req.setGrid(new GridDto(5, 5, 5));
+        req.setProbes(List.of(first, outside));
+
+        mvc.perform(post("/api/probe/runs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(req)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].index").value(0))
+                .andExpect(jsonPath("$.results[0].result.finalState.x").value(1))
+                .andExpect(jsonPath("$.results[0].result.finalState.y").value(2))
+                .andExpect(jsonPath("$.results[1].index").value(1))
+                .andExpect(jsonPath("$.results[1].error.message").value("Start position is out of bounds"));
+    }
+
+    @Test
+    void batchRunShouldReturn400WithoutProbes() throws Exception {
+        BatchRunRequest req = new BatchRunRequest();
+        req.setGrid(new GridDto(5, 5, 5));
+        req.setProbes(List.of());
+
+        mvc.perform(post("/api/probe/runs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(req)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.details[0].field").value("probes"));
+    }
+
+    @Test
+    void repeatedRunShouldBeServedFromTheCache() throws Exception {
+        RunRequest req = new RunRequest();
+        req.setGrid(new GridDto(7, 7, 7));
+        req.setStart(new CoordinateDto(3, 3, 3));
+        req.setDirection(Direction.WEST);
+        req.setProgram("FFLFUB");
+        String body = mapper.writeValueAsString(req);
+        // The cache is shared by the whole test context, so only the change counts
+        JsonNode before = cacheStats();
+
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(post("/api/probe/run").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.finalState.x").value(1));
+        }
+
+        JsonNode after = cacheStats();
+        assertEquals(1, after.get("hits").asLong() - before.get("hits").asLong());
+        assertEquals(1, after.get("misses").asLong() - before.get("misses").asLong());
+    }
+
+    private JsonNode cacheStats() throws Exception {
+        String json = mvc.perform(get("/api/probe/run/cache/stats"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(json);
+    }
+
+    @Test
+    void runShouldTimeBindingAndSerialization() throws Exception {
+        long binding = phaseCount("binding");
+        long serialization = phaseCount("serialization");
+        RunRequest req = new RunRequest();
+        req.setGrid(new GridDto(8, 8, 8));
+        req.setStart(new CoordinateDto(1, 2, 3));
+        req.setDirection(Direction.UP);
+        req.setProgram("UUFB");
+
+        mvc.perform(post("/api/probe/run")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(req)))
+                .andExpect(status().isOk());
+
+        assertEquals(binding + 1, phaseCount("binding"));
+        assertEquals(serialization + 1, phaseCount("serialization"));
+    }
+
+    private long phaseCount(String phase) {
+        return meterRegistry.get("probe.run.phase").tag("phase", phase).timer().count();
+    }
 }
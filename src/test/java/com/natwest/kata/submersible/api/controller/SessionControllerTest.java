@@ -0,0 +1,105 @@
+package com.natwest.kata.submersible.api.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.natwest.kata.submersible.api.dto.CoordinateDto;
+import com.natwest.kata.submersible.api.dto.GridDto;
+import com.natwest.kata.submersible.api.dto.SessionRequest;
+import com.natwest.kata.submersible.enums.Direction;
+import com.natwest.kata.submersible.service.GridRegistry;
+import com.natwest.kata.submersible.service.ProbeRunMetrics;
+import com.natwest.kata.submersible.service.ProbeRunService;
+import com.natwest.kata.submersible.service.SessionService;
+import com.natwest.kata.submersible.service.TelemetryService;
+import com.natwest.kata.submersible.service.TerrainService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = SessionController.class)
+@Import({SessionService.class, TelemetryService.class, ProbeRunService.class, ProbeRunMetrics.class, TerrainService.class, GridRegistry.class, TestMetricsConfiguration.class})
+class SessionControllerTest {
+
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    ObjectMapper mapper;
+
+    @Test
+    void sessionShouldAcceptCommandBatchesAndReturnDeltas() throws Exception {
+        SessionRequest req = new SessionRequest();
+        req.setGrid(new GridDto(5, 5, 5));
+        req.setStart(new CoordinateDto(0, 0, 0));
+        req.setDirection(Direction.NORTH);
+
+        MvcResult created = mvc.perform(post("/api/sessions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(req)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.visited[0]").value("(0,0,0)"))
+                .andReturn();
+        String id = mapper.readTree(created.getResponse().getContentAsString()).get("id").asText();
+
+        mvc.perform(post("/api/sessions/" + id + "/commands")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"commands\":[\"F\",\"R\",\"F\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.visited.length()").value(2))
+                .andExpect(jsonPath("$.visited[1]").value("(1,1,0)"))
+                .andExpect(jsonPath("$.execution.totalCommands").value(3))
+                .andExpect(jsonPath("$.visitedCount").value(3));
+
+        mvc.perform(post("/api/sessions/" + id + "/commands")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(delete("/api/sessions/" + id)).andExpect(status().isNoContent());
+        mvc.perform(get("/api/sessions/" + id)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void eventStreamShouldPushTheSessionsMoves() throws Exception {
+        SessionRequest req = new SessionRequest();
+        req.setGrid(new GridDto(5, 5, 5));
+        req.setStart(new CoordinateDto(0, 0, 0));
+        req.setDirection(Direction.NORTH);
+        MvcResult created = mvc.perform(post("/api/sessions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(req)))
+                .andReturn();
+        String id = mapper.readTree(created.getResponse().getContentAsString()).get("id").asText();
+
+        MvcResult events = mvc.perform(get("/api/sessions/" + id + "/events").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(post("/api/sessions/" + id + "/commands")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"program\":\"FR\"}"))
+                .andExpect(status().isOk());
+
+        String stream = "";
+        for (long deadline = System.nanoTime() + 5_000_000_000L; !stream.contains("event:turn") && System.nanoTime() < deadline; ) {
+            Thread.sleep(10);
+            stream = events.getResponse().getContentAsString();
+        }
+        assertTrue(stream.contains("event:state"), stream);
+        assertTrue(stream.contains("event:move"), stream);
+        assertTrue(stream.contains("\"direction\":\"EAST\""), stream);
+
+        mvc.perform(delete("/api/sessions/" + id)).andExpect(status().isNoContent());
+        mvc.perform(get("/api/sessions/no-such-session/events").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isNotFound());
+    }
+}
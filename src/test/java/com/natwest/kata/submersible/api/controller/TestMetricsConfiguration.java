@@ -0,0 +1,16 @@
+package com.natwest.kata.submersible.api.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/** Meter registry for web slice tests, which do not auto-configure one for ProbeRunMetrics. */
+@TestConfiguration
+class TestMetricsConfiguration {
+
+    @Bean
+    MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
@@ -1,11 +1,18 @@
 package com.natwest.kata.submersible.interpreter;
 
 import com.natwest.kata.submersible.domain.Grid;
+import com.natwest.kata.submersible.domain.PathRecorder;
 import com.natwest.kata.submersible.domain.Probe;
 import com.natwest.kata.submersible.enums.Direction;
+import com.natwest.kata.submersible.enums.PathMode;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -152,4 +159,179 @@ public class CommandInterpreterTest {
         assertEquals(Direction.NORTH, probe.getDirection());
     }
 
+    @Test
+    void longRunsOfMovesShouldMatchSingleStepsIncludingBlockedMoves() {
+        Grid grid = new Grid(50, 50, 3);
+        grid.addObstacle(30, 0, 0);
+        grid.addObstacleRegion(29, 10, 0, 29, 20, 2);
+
+        List<String> commands = new ArrayList<>();
+        for (int i = 0; i < 40; i++) commands.add("F");   // EAST, stops at x=29 before the obstacle
+        commands.add("L");
+        for (int i = 0; i < 60; i++) commands.add("f");   // NORTH, stops at y=9 below the region
+        commands.add("B");
+        commands.add("B");
+        Probe fused = new Probe(0, 0, 0, Direction.EAST, grid);
+        ExecutionResult result = new CommandInterpreter().execute(commands, fused);
+
+        Probe stepped = new Probe(0, 0, 0, Direction.EAST, grid);
+        for (int i = 0; i < 40; i++) stepped.moveForward();
+        stepped.turnLeft();
+        for (int i = 0; i < 60; i++) stepped.moveForward();
+        stepped.moveBackward();
+        stepped.moveBackward();
+
+        assertEquals(stepped.getVisitedCoordinates(), fused.getVisitedCoordinates());
+        assertEquals(29, fused.getX());
+        assertEquals(7, fused.getY());
+        assertEquals((40 - 29) + (60 - 9), result.getBlockedMoves());
+    }
+
+    @Test
+    void packedProgramShouldBehaveLikeTheEquivalentCommandList() {
+        Grid grid = new Grid(5, 5, 5);
+        grid.addObstacle(0, 3, 0);
+        List<String> commands = List.of("F", "f", "F", "X", "R", "F", "u", "F", "?", "D", "B");
+
+        Probe fromList = new Probe(0, 0, 0, Direction.NORTH, grid);
+        ExecutionResult listResult = new CommandInterpreter().execute(commands, fromList);
+        Probe fromProgram = new Probe(0, 0, 0, Direction.NORTH, grid);
+        ExecutionResult programResult = new CommandInterpreter().execute("FfFXRFuF?DB", fromProgram);
+
+        assertEquals(fromList.getVisitedCoordinates(), fromProgram.getVisitedCoordinates());
+        assertEquals(fromList.getDirection(), fromProgram.getDirection());
+        assertEquals(listResult.getTotalCommands(), programResult.getTotalCommands());
+        assertEquals(listResult.getBlockedMoves(), programResult.getBlockedMoves());
+        assertEquals(List.of(3, 8), programResult.getInvalidCommands().stream().map(InvalidCommand::getIndex).toList());
+        assertEquals("?", programResult.getInvalidCommands().get(1).getCommand());
+    }
+
+    @Test
+    void compiledScriptShouldBehaveLikeTheUnrolledCommands() {
+        Grid grid = new Grid(6, 6, 3);
+        grid.addObstacle(4, 0, 0);
+        String script = "2(F3 R) l2 0(F) 2(u F d) B";
+        List<String> unrolled = List.of("F", "F", "F", "R", "F", "F", "F", "R", "L", "L",
+                "U", "F", "D", "U", "F", "D", "B");
+
+        Probe fromList = new Probe(0, 0, 0, Direction.NORTH, grid);
+        ExecutionResult listResult = new CommandInterpreter().execute(unrolled, fromList);
+        Probe fromScript = new Probe(0, 0, 0, Direction.NORTH, grid);
+        ExecutionResult scriptResult = new CommandInterpreter().execute(Program.compile(script), fromScript);
+
+        assertEquals(fromList.getVisitedCoordinates(), fromScript.getVisitedCoordinates());
+        assertEquals(fromList.getDirection(), fromScript.getDirection());
+        assertEquals(unrolled.size(), scriptResult.getTotalCommands());
+        assertEquals(listResult.getBlockedMoves(), scriptResult.getBlockedMoves());
+        assertTrue(scriptResult.getInvalidCommands().isEmpty());
+    }
+
+    @Test
+    void repeatedTiltsInScriptsShouldMatchTheUnrolledCommands() {
+        Grid grid = new Grid(11, 11, 11);
+        Map<String, List<String>> scripts = Map.of(
+                "UDD F", List.of("U", "D", "D", "F"),
+                "DUU F", List.of("D", "U", "U", "F"),
+                "D3 F U3 F", List.of("D", "D", "D", "F", "U", "U", "U", "F"),
+                "U2 D2 F", List.of("U", "U", "D", "D", "F"),
+                "2(U) F 3(D) F", List.of("U", "U", "F", "D", "D", "D", "F"));
+
+        scripts.forEach((script, unrolled) -> {
+            Probe fromList = new Probe(5, 5, 5, Direction.NORTH, grid);
+            new CommandInterpreter().execute(unrolled, fromList);
+            Probe fromScript = new Probe(5, 5, 5, Direction.NORTH, grid);
+            new CommandInterpreter().execute(Program.compile(script), fromScript);
+
+            assertEquals(fromList.getVisitedCoordinates(), fromScript.getVisitedCoordinates(), script);
+            assertEquals(fromList.getDirection(), fromScript.getDirection(), script);
+        });
+
+        Probe probe = new Probe(5, 5, 5, Direction.NORTH, grid);
+        new CommandInterpreter().execute(Program.compile("U DD F"), probe);
+        assertEquals(Direction.DOWN, probe.getDirection());
+        assertEquals(4, probe.getZ());
+    }
+
+    @Test
+    void nestedLoopsShouldRunWithoutUnrolling() {
+        Program program = Program.compile("1000(1000(F R F L) 2(B))");
+        Probe probe = new Probe(0, 0, 0, Direction.NORTH, new Grid(10, 10, 1));
+
+        ExecutionResult result = new CommandInterpreter().execute(program, probe);
+
+        assertEquals(1000 * (1000 * 4 + 2), result.getTotalCommands());
+        assertEquals(9, probe.getX());
+        assertEquals(7, probe.getY());
+        assertEquals(Direction.NORTH, probe.getDirection());
+    }
+
+    @Test
+    void deeplyNestedLoopsShouldRun() {
+        int depth = 50_000;
+        Program program = Program.compile("1(".repeat(depth) + "2(F)" + ")".repeat(depth));
+        Probe probe = new Probe(0, 0, 0, Direction.NORTH, new Grid(5, 5, 1));
+
+        ExecutionResult result = new CommandInterpreter().execute(program, probe);
+
+        assertEquals(2, result.getTotalCommands());
+        assertEquals(2, probe.getY());
+    }
+
+    @Test
+    void malformedScriptsShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Program.compile("F X"));
+        assertThrows(IllegalArgumentException.class, () -> Program.compile("2(F"));
+        assertThrows(IllegalArgumentException.class, () -> Program.compile("F)"));
+        assertThrows(IllegalArgumentException.class, () -> Program.compile("3 F"));
+        assertThrows(IllegalArgumentException.class, () -> Program.compile("F99999999999"));
+        assertThrows(IllegalArgumentException.class, () -> Program.compile("100000(100000(F))"));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"FULL,0", "NONE,0", "DISTINCT,0", "SAMPLED,7", "LAST_N,50", "RUN_LENGTH,0"})
+    void periodicLoopsShouldMatchStepByStepExecution(PathMode mode, int size) {
+        Grid grid = new Grid(8, 8, 2);
+        grid.addObstacle(5, 3, 0);
+        grid.addObstacleRegion(0, 6, 0, 7, 6, 1);
+        // Circles for a while, then keeps bumping into the region along y
+        String body = "FFFRFFLLUFDB";
+        String script = "3000(F3 R F2 L2 U F D B)";
+
+        Probe stepped = new Probe(1, 1, 0, Direction.NORTH, grid, PathRecorder.of(mode, size));
+        ExecutionResult steppedResult = new CommandInterpreter().execute(body.repeat(3000), stepped);
+        Probe skipped = new Probe(1, 1, 0, Direction.NORTH, grid, PathRecorder.of(mode, size));
+        ExecutionResult skippedResult = new CommandInterpreter().execute(Program.compile(script), skipped);
+
+        assertEquals(stepped.getVisitedCoordinates(), skipped.getVisitedCoordinates());
+        assertEquals(stepped.getEncodedPath(), skipped.getEncodedPath());
+        assertEquals(stepped.getVisitedCount(), skipped.getVisitedCount());
+        assertEquals(List.of(stepped.getX(), stepped.getY(), stepped.getZ()), List.of(skipped.getX(), skipped.getY(), skipped.getZ()));
+        assertEquals(stepped.getDirection(), skipped.getDirection());
+        assertEquals(steppedResult.getBlockedMoves(), skippedResult.getBlockedMoves());
+        assertEquals(steppedResult.getTotalCommands(), skippedResult.getTotalCommands());
+    }
+
+    @Test
+    void hugeLoopsShouldFinishByFastForwardingTheirCycles() {
+        Grid grid = new Grid(5, 5, 1);
+        Probe circling = new Probe(0, 0, 0, Direction.NORTH, grid, PathRecorder.of(PathMode.NONE, 0));
+        Probe pinned = new Probe(0, 0, 0, Direction.NORTH, grid);
+
+        ExecutionResult circled = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> new CommandInterpreter().execute(Program.compile("500000000(F R)"), circling));
+        ExecutionResult bumped = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> new CommandInterpreter().execute(Program.compile("500000000(F)"), pinned));
+
+        // F R walks a unit square and is back at the start facing NORTH every 4 iterations
+        assertEquals(1_000_000_000, circled.getTotalCommands());
+        assertEquals(0, circled.getBlockedMoves());
+        assertEquals(List.of(0, 0, 0), List.of(circling.getX(), circling.getY(), circling.getZ()));
+        assertEquals(Direction.NORTH, circling.getDirection());
+        assertEquals(500_000_001L, circling.getVisitedCount());
+
+        // Against the northern edge after 4 moves, every later F is blocked
+        assertEquals(500_000_000 - 4, bumped.getBlockedMoves());
+        assertEquals(4, pinned.getY());
+        assertEquals(5, pinned.getVisitedCoordinates().size());
+    }
 }
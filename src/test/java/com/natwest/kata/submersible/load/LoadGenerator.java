@@ -0,0 +1,123 @@
+package com.natwest.kata.submersible.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load at a fixed request rate.
+ * <p>
+ * Requests are scheduled on a fixed timeline, whatever the server's response time, and latency is
+ * measured from each request's scheduled start rather than from when it was actually sent. A
+ * stalled server therefore shows up as the queueing delay its clients would see, instead of
+ * quietly slowing the generator down (coordinated omission). Latencies go into HdrHistograms in
+ * microseconds, overall and per workload.
+ */
+final class LoadGenerator {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final HttpClient client;
+    private final URI target;
+    private final LoadMix mix;
+    private final int maxInFlight;
+    private long sequence; // numbers every request across runs, so warm-up bodies are not repeated later
+
+    LoadGenerator(HttpClient client, URI target, LoadMix mix, int maxInFlight) {
+        this.client = client;
+        this.target = target;
+        this.mix = mix;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Sends {@code rate} requests per second for the given time and waits for the last responses.
+     *
+     * @throws IllegalArgumentException if the rate and duration add up to no requests at all
+     */
+    Result run(int rate, Duration duration, long seed) throws InterruptedException {
+        if (rate <= 0) throw new IllegalArgumentException("Request rate must be positive, got " + rate);
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long count = duration.toNanos() / interval;
+        if (count <= 0) throw new IllegalArgumentException(duration + " at " + rate + " requests/s sends no requests");
+        Result result = new Result();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        SplittableRandom random = new SplittableRandom(seed);
+        long start = System.nanoTime();
+
+        for (long i = 0; i < count; i++) {
+            long scheduled = start + i * interval;
+            for (long wait; (wait = scheduled - System.nanoTime()) > 0; ) LockSupport.parkNanos(wait);
+
+            LoadMix.Workload workload = mix.pick(random);
+            if (!inFlight.tryAcquire()) {
+                // The client itself is saturated; count it rather than stall the schedule
+                result.failed(workload, "client-saturated");
+                continue;
+            }
+            HttpRequest request = HttpRequest.newBuilder(target)
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(workload.body(random, sequence++)))
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled);
+                if (error != null) result.failed(workload, error.getClass().getSimpleName());
+                else if (response.statusCode() != 200) result.failed(workload, "HTTP " + response.statusCode());
+                else result.succeeded(workload, micros);
+                inFlight.release();
+            });
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        if (!inFlight.tryAcquire(maxInFlight, 60, TimeUnit.SECONDS)) {
+            for (int i = maxInFlight - inFlight.availablePermits(); i > 0; i--) result.failed(null, "unfinished");
+        }
+        return result;
+    }
+
+    static final class Result {
+
+        final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        final Map<String, Histogram> byWorkload = new ConcurrentHashMap<>();
+        final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+        final AtomicLong failures = new AtomicLong();
+        long elapsedNanos;
+
+        void succeeded(LoadMix.Workload workload, long micros) {
+            long value = Math.min(micros, MAX_LATENCY_MICROS);
+            latency.recordValue(value);
+            byWorkload.computeIfAbsent(workload.name(), n -> new ConcurrentHistogram(MAX_LATENCY_MICROS, 3)).recordValue(value);
+        }
+
+        void failed(LoadMix.Workload workload, String reason) {
+            failures.incrementAndGet();
+            errors.computeIfAbsent(workload == null ? reason : workload.name() + ": " + reason, r -> new LongAdder()).increment();
+        }
+
+        long requests() {
+            return latency.getTotalCount() + failures.get();
+        }
+
+        double errorRate() {
+            long requests = requests();
+            return requests == 0 ? 0 : (double) failures.get() / requests;
+        }
+
+        double throughput() {
+            return latency.getTotalCount() / (elapsedNanos / 1e9);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.natwest.kata.submersible.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Weighted mix of {@code /api/probe/run} request bodies, read from a JSON file:
+ * <pre>
+ * { "workloads": [
+ *     { "name": "small", "weight": 70, "grid": 16, "obstacles": 20, "commands": 50, "variants": 256, "seed": 1 },
+ *     { "name": "fixed", "weight": 5, "request": { ...a literal RunRequest... } } ] }
+ * </pre>
+ * Generated workloads get {@code variants} bodies (random start, obstacles and packed program from
+ * the seed), serialized once up front. Each request then appends a few turns that spell out its
+ * sequence number to the program, so no two bodies are alike and every request misses the run
+ * cache: the gates measure probe runs, not cache lookups. The extra turns come after the last move
+ * and only change the final heading. Optional {@code pathMode} is passed through. Literal
+ * {@code request} workloads are sent as given, so they do hit the cache after the first run.
+ */
+final class LoadMix {
+
+    private static final String MOVES = "FFFFBLRUD";
+    private static final byte[] TURNS = {'L', 'R', 'U', 'D'};
+    private static final int PROGRAM_END = 2; // the closing '"' and '}' after the program, the last field
+
+    private final List<Workload> workloads;
+    private final int totalWeight;
+
+    private LoadMix(List<Workload> workloads) {
+        if (workloads.isEmpty()) throw new IllegalArgumentException("Load mix has no workloads");
+        this.workloads = workloads;
+        this.totalWeight = workloads.stream().mapToInt(Workload::weight).sum();
+    }
+
+    /** Reads a mix from a file, or from the classpath when the location starts with {@code classpath:}. */
+    static LoadMix load(String location, ObjectMapper mapper) throws IOException {
+        JsonNode root;
+        if (location.startsWith("classpath:")) {
+            try (InputStream in = LoadMix.class.getClassLoader().getResourceAsStream(location.substring("classpath:".length()))) {
+                if (in == null) throw new IllegalArgumentException("No load mix at " + location);
+                root = mapper.readTree(in);
+            }
+        } else {
+            root = mapper.readTree(Files.readAllBytes(Path.of(location)));
+        }
+        List<Workload> workloads = new ArrayList<>();
+        for (JsonNode node : root.path("workloads")) workloads.add(workload(node, mapper));
+        return new LoadMix(workloads);
+    }
+
+    List<Workload> workloads() {
+        return workloads;
+    }
+
+    Workload pick(SplittableRandom random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Workload workload : workloads) {
+            ticket -= workload.weight();
+            if (ticket < 0) return workload;
+        }
+        throw new IllegalStateException("Weights changed");
+    }
+
+    private static Workload workload(JsonNode node, ObjectMapper mapper) throws IOException {
+        String name = node.path("name").asText("workload");
+        int weight = node.path("weight").asInt(1);
+        if (weight <= 0) throw new IllegalArgumentException("Workload " + name + " needs a positive weight");
+        if (node.has("request")) {
+            return new Workload(name, weight, List.of(mapper.writeValueAsBytes(node.get("request"))), false);
+        }
+        int size = node.path("grid").asInt(16);
+        int obstacles = node.path("obstacles").asInt(0);
+        int commands = node.path("commands").asInt(100);
+        int variants = node.path("variants").asInt(64);
+        SplittableRandom random = new SplittableRandom(node.path("seed").asLong(name.hashCode()));
+
+        List<byte[]> bodies = new ArrayList<>(variants);
+        for (int v = 0; v < variants; v++) {
+            ObjectNode body = mapper.createObjectNode();
+            body.putObject("grid").put("width", size).put("height", size).put("depth", size);
+            int sx = random.nextInt(size), sy = random.nextInt(size), sz = random.nextInt(size);
+            body.putObject("start").put("x", sx).put("y", sy).put("z", sz);
+            body.put("direction", "NORTH");
+            ArrayNode cells = body.putArray("obstacles");
+            for (int i = 0; i < obstacles; i++) {
+                int x = random.nextInt(size), y = random.nextInt(size), z = random.nextInt(size);
+                if (x != sx || y != sy || z != sz) cells.addObject().put("x", x).put("y", y).put("z", z);
+            }
+            if (node.has("pathMode")) body.put("pathMode", node.get("pathMode").asText());
+            StringBuilder program = new StringBuilder(commands);
+            for (int i = 0; i < commands; i++) program.append(MOVES.charAt(random.nextInt(MOVES.length())));
+            body.put("program", program.toString()); // last, so request suffixes can be spliced in
+            bodies.add(mapper.writeValueAsBytes(body));
+        }
+        return new Workload(name, weight, bodies, true);
+    }
+
+    record Workload(String name, int weight, List<byte[]> bodies, boolean unique) {
+
+        /** A body for the request with the given sequence number, distinct for every number if {@link #unique}. */
+        byte[] body(SplittableRandom random, long sequence) {
+            byte[] template = bodies.get(random.nextInt(bodies.size()));
+            if (!unique) return template;
+            byte[] digits = new byte[32];
+            int start = digits.length;
+            do {
+                digits[--start] = TURNS[(int) (sequence & 3)];
+                sequence >>>= 2;
+            } while (sequence != 0);
+            int split = template.length - PROGRAM_END;
+            byte[] body = new byte[template.length + digits.length - start];
+            System.arraycopy(template, 0, body, 0, split);
+            System.arraycopy(digits, start, body, split, digits.length - start);
+            System.arraycopy(template, split, body, body.length - PROGRAM_END, PROGRAM_END);
+            return body;
+        }
+    }
+}
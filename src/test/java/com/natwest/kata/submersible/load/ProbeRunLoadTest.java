@@ -0,0 +1,115 @@
+package com.natwest.kata.submersible.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test for {@code POST /api/probe/run} against an application already running on this
+ * machine. Excluded from the normal build; run it with the {@code load} profile:
+ * <pre>
+ *   mvn spring-boot:run                         (in another terminal)
+ *   mvn -P load test -Dload.rate=500 -Dload.maxP99Millis=100
+ * </pre>
+ * After a warm-up the configured mix is replayed at {@code load.rate} requests per second for
+ * {@code load.durationSeconds}. The percentile distribution and a JSON summary are written to
+ * {@code load.reportDir}. The test fails when p99 or the error rate exceeds its limit, or, given a
+ * {@code load.baseline} summary from an earlier run, when p99 regresses by more than
+ * {@code load.maxRegression} (a fraction).
+ */
+@Tag("load")
+@EnabledIfSystemProperty(named = "load.baseUrl", matches = ".+")
+class ProbeRunLoadTest {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50Millis", "p90Millis", "p99Millis", "p999Millis"};
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void runEndpoint_meetsLatencyTargets() throws Exception {
+        URI baseUrl = URI.create(System.getProperty("load.baseUrl"));
+        String host = baseUrl.getHost();
+        if (host == null || !InetAddress.getByName(host).isLoopbackAddress()) {
+            throw new IllegalArgumentException("load.baseUrl must point at this machine, got " + baseUrl);
+        }
+        LoadMix mix = LoadMix.load(System.getProperty("load.mix", "classpath:load/default-mix.json"), mapper);
+        int rate = Integer.getInteger("load.rate", 200);
+        long seed = Long.getLong("load.seed", 1);
+        double maxP99Millis = Double.parseDouble(System.getProperty("load.maxP99Millis", "250"));
+        double maxErrorRate = Double.parseDouble(System.getProperty("load.maxErrorRate", "0.001"));
+        Path reportDir = Path.of(System.getProperty("load.reportDir", "target/load"));
+
+        try (HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build()) {
+            LoadGenerator generator = new LoadGenerator(client, baseUrl.resolve("/api/probe/run"), mix,
+                    Integer.getInteger("load.maxInFlight", 2048));
+            Duration warmup = Duration.ofSeconds(Long.getLong("load.warmupSeconds", 10));
+            if (!warmup.isZero()) generator.run(rate, warmup, seed);
+            LoadGenerator.Result result = generator.run(rate, Duration.ofSeconds(Long.getLong("load.durationSeconds", 30)), seed + 1);
+
+            ObjectNode summary = summary(result, rate);
+            report(result, summary, reportDir);
+
+            double p99 = summary.get("p99Millis").asDouble();
+            List<String> problems = new ArrayList<>();
+            if (p99 > maxP99Millis) problems.add("p99 " + p99 + " ms exceeds " + maxP99Millis + " ms");
+            if (result.errorRate() > maxErrorRate) problems.add("error rate " + result.errorRate() + " exceeds " + maxErrorRate + ": " + result.errors);
+            String baseline = System.getProperty("load.baseline");
+            if (baseline != null && !baseline.isBlank()) {
+                double baseP99 = mapper.readTree(Path.of(baseline).toFile()).get("p99Millis").asDouble();
+                double maxRegression = Double.parseDouble(System.getProperty("load.maxRegression", "0.2"));
+                if (p99 > baseP99 * (1 + maxRegression)) {
+                    problems.add("p99 " + p99 + " ms regressed more than " + (maxRegression * 100) + "% from baseline " + baseP99 + " ms");
+                }
+            }
+            assertTrue(problems.isEmpty(), String.join("; ", problems));
+        }
+    }
+
+    private ObjectNode summary(LoadGenerator.Result result, int rate) {
+        ObjectNode summary = mapper.createObjectNode();
+        summary.put("targetRate", rate);
+        summary.put("throughput", result.throughput());
+        summary.put("requests", result.requests());
+        summary.put("errors", result.failures.get());
+        putPercentiles(summary, result.latency);
+        ObjectNode workloads = summary.putObject("workloads");
+        result.byWorkload.forEach((name, histogram) -> putPercentiles(workloads.putObject(name), histogram));
+        return summary;
+    }
+
+    private static void putPercentiles(ObjectNode node, Histogram histogram) {
+        node.put("count", histogram.getTotalCount());
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            node.put(PERCENTILE_NAMES[i], histogram.getValueAtPercentile(PERCENTILES[i]) / 1000.0);
+        }
+        node.put("maxMillis", histogram.getMaxValue() / 1000.0);
+    }
+
+    private void report(LoadGenerator.Result result, ObjectNode summary, Path dir) throws Exception {
+        Files.createDirectories(dir);
+        mapper.writerWithDefaultPrettyPrinter().writeValue(dir.resolve("summary.json").toFile(), summary);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve("latency.hgrm")))) {
+            result.latency.outputPercentileDistribution(out, 1000.0); // microseconds to milliseconds
+        }
+    }
+}
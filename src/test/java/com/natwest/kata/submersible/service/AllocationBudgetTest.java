@@ -0,0 +1,175 @@
+package com.natwest.kata.submersible.service;
+
+import com.natwest.kata.submersible.api.dto.CoordinateDto;
+import com.natwest.kata.submersible.api.dto.GridDto;
+import com.natwest.kata.submersible.api.dto.RunRequest;
+import com.natwest.kata.submersible.domain.Grid;
+import com.natwest.kata.submersible.domain.PathRecorder;
+import com.natwest.kata.submersible.domain.Probe;
+import com.natwest.kata.submersible.enums.Direction;
+import com.natwest.kata.submersible.enums.PathMode;
+import com.natwest.kata.submersible.interpreter.CommandInterpreter;
+import com.natwest.kata.submersible.interpreter.Program;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Bytes allocated per command on the hot paths, measured with the JVM's per-thread allocation
+ * counter.
+ * <p>
+ * Each workload is measured at two program lengths after a warm-up, keeping the smallest of
+ * several samples to shed one-off noise. The difference between the two lengths gives the cost
+ * per command, the rest is the fixed cost of a run. Budgets are a little above what the code
+ * allocates today, so a change that starts allocating per command fails here instead of showing
+ * up later as GC pauses.
+ */
+class AllocationBudgetTest {
+
+    private static final int SHORT = 1_000;
+    private static final int LONG = 6_000;
+    private static final int WARMUP = 200;
+    private static final int SAMPLES = 10;
+    private static final String MOVES = "FFFFBLRUD";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getPlatformMXBean(ThreadMXBean.class);
+
+    @TempDir
+    static Path terrainDirectory;
+
+    private final Grid grid = grid();
+
+    @Test
+    void execute_withoutPath_allocatesNothingPerCommand() {
+        assertBudget("packed program", n -> {
+            String program = program(n);
+            return () -> new CommandInterpreter().execute(program, probe(PathMode.NONE));
+        }, 0.05, 1024);
+        assertBudget("command list", n -> {
+            List<String> commands = commands(n);
+            return () -> new CommandInterpreter().execute(commands, probe(PathMode.NONE));
+        }, 0.05, 1024);
+        assertBudget("script", n -> {
+            Program script = Program.compile(program(n));
+            return () -> new CommandInterpreter().execute(script, probe(PathMode.NONE));
+        }, 0.05, 1024);
+    }
+
+    @Test
+    void execute_pathCostsFollowThePathMode() {
+        // FULL keeps three ints per position, RUN_LENGTH a few bytes per straight leg
+        assertBudget("FULL path", n -> {
+            String program = program(n);
+            return () -> new CommandInterpreter().execute(program, probe(PathMode.FULL));
+        }, 32, 1024);
+        assertBudget("RUN_LENGTH path", n -> {
+            String program = program(n);
+            return () -> new CommandInterpreter().execute(program, probe(PathMode.RUN_LENGTH));
+        }, 6, 1024);
+    }
+
+    @Test
+    void run_fixedCostCoversGridAndResponseMapping() {
+        ProbeRunService service = ProbeRunServices.create(terrainDirectory);
+        // A 32-cube keeps the grid's bitset (4 KiB) from dominating the mapping costs
+        assertBudget("run without path", n -> {
+            RunRequest req = request(program(n), PathMode.NONE);
+            return () -> service.run(req);
+        }, 0.5, 16 * 1024);
+        assertBudget("run with FULL path", n -> {
+            RunRequest req = request(program(n), PathMode.FULL);
+            return () -> service.run(req);
+        }, 32, 16 * 1024);
+    }
+
+    @Test
+    void isObstacle_allocatesNothing() {
+        int[] cells = new SplittableRandom(1).ints(3 * 1024, 0, 64).toArray();
+        Supplier<Object> lookups = () -> {
+            int hits = 0;
+            for (int i = 0; i < cells.length; i += 3) {
+                if (grid.isObstacle(cells[i], cells[i + 1], cells[i + 2])) hits++;
+            }
+            return hits;
+        };
+        long bytes = allocatedBy(lookups);
+        assertTrue(bytes < 64, "1024 obstacle lookups allocated " + bytes + " bytes");
+    }
+
+    /**
+     * @param workload builds the work for a program of the given length; building it is not measured
+     */
+    private static void assertBudget(String name, IntFunction<Supplier<Object>> workload,
+                                     double maxBytesPerCommand, long maxFixedBytes) {
+        long shortRun = allocatedBy(workload.apply(SHORT));
+        long longRun = allocatedBy(workload.apply(LONG));
+        double perCommand = Math.max(0, (double) (longRun - shortRun) / (LONG - SHORT));
+        long fixed = Math.max(0, shortRun - Math.round(perCommand * SHORT));
+        String measured = String.format("%s: %.2f bytes/command, %d bytes fixed (%d bytes for %d commands)",
+                name, perCommand, fixed, longRun, LONG);
+        assertTrue(perCommand <= maxBytesPerCommand, measured + " exceeds " + maxBytesPerCommand + " bytes/command");
+        assertTrue(fixed <= maxFixedBytes, measured + " exceeds " + maxFixedBytes + " bytes fixed");
+    }
+
+    private static long allocatedBy(Supplier<Object> work) {
+        assumeTrue(THREADS.isThreadAllocatedMemorySupported() && THREADS.isThreadAllocatedMemoryEnabled());
+        for (int i = 0; i < WARMUP; i++) work.get();
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long before = THREADS.getCurrentThreadAllocatedBytes();
+            work.get();
+            min = Math.min(min, THREADS.getCurrentThreadAllocatedBytes() - before);
+        }
+        return min;
+    }
+
+    private static Grid grid() {
+        SplittableRandom random = new SplittableRandom(5);
+        Grid grid = new Grid(64, 64, 64);
+        for (int i = 0; i < 2000; i++) {
+            int x = random.nextInt(64), y = random.nextInt(64), z = random.nextInt(64);
+            if (x + y + z > 0) grid.addObstacle(x, y, z);
+        }
+        return grid.freeze();
+    }
+
+    private Probe probe(PathMode mode) {
+        return new Probe(0, 0, 0, Direction.NORTH, grid, PathRecorder.of(mode, 0));
+    }
+
+    private static RunRequest request(String program, PathMode mode) {
+        RunRequest req = new RunRequest();
+        req.setGrid(new GridDto(32, 32, 32));
+        req.setObstacles(List.of(new CoordinateDto(5, 5, 5), new CoordinateDto(6, 6, 6)));
+        req.setStart(new CoordinateDto(0, 0, 0));
+        req.setDirection(Direction.NORTH);
+        req.setProgram(program);
+        req.setPathMode(mode);
+        return req;
+    }
+
+    private static String program(int length) {
+        SplittableRandom random = new SplittableRandom(3);
+        StringBuilder program = new StringBuilder(length);
+        for (int i = 0; i < length; i++) program.append(MOVES.charAt(random.nextInt(MOVES.length())));
+        return program.toString();
+    }
+
+    private static List<String> commands(int length) {
+        String program = program(length);
+        List<String> commands = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) commands.add(String.valueOf(program.charAt(i)));
+        return commands;
+    }
+}
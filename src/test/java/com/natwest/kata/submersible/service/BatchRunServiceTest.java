@@ -0,0 +1,125 @@
+package com.natwest.kata.submersible.service;
+
+import com.natwest.kata.submersible.api.dto.BatchProbeDto;
+import com.natwest.kata.submersible.api.dto.BatchRunRequest;
+import com.natwest.kata.submersible.api.dto.BatchRunResponse;
+import com.natwest.kata.submersible.api.dto.CoordinateDto;
+import com.natwest.kata.submersible.api.dto.GridDto;
+import com.natwest.kata.submersible.api.dto.RegionDto;
+import com.natwest.kata.submersible.api.dto.RunRequest;
+import com.natwest.kata.submersible.api.dto.RunResponse;
+import com.natwest.kata.submersible.enums.Direction;
+import com.natwest.kata.submersible.enums.PathMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchRunServiceTest {
+
+    @TempDir
+    static Path terrainDirectory;
+
+    private final ProbeRunService runService = ProbeRunServices.create(terrainDirectory);
+    private final BatchRunService service = new BatchRunService(runService);
+
+    @Test
+    void batch_matchesIndividualRuns_inRequestOrder() {
+        BatchRunRequest batch = batchRequest();
+        List<BatchProbeDto> probes = new ArrayList<>();
+        Direction[] directions = Direction.values();
+        for (int i = 0; i < 200; i++) {
+            BatchProbeDto probe = new BatchProbeDto();
+            probe.setStart(new CoordinateDto(i % 20, (i * 7) % 20, i % 3));
+            probe.setDirection(directions[i % directions.length]);
+            probe.setScript((i % 5 + 1) + "(F" + (i % 9) + " R F3 U F L D)");
+            probe.setPathMode(i % 2 == 0 ? PathMode.FULL : PathMode.RUN_LENGTH);
+            probes.add(probe);
+        }
+        batch.setProbes(probes);
+
+        BatchRunResponse resp = service.run(batch);
+
+        assertEquals(probes.size(), resp.getResults().size());
+        for (int i = 0; i < probes.size(); i++) {
+            BatchRunResponse.Item item = resp.getResults().get(i);
+            assertEquals(i, item.getIndex());
+            RunResponse expected;
+            try {
+                expected = runService.run(singleRequest(batch, probes.get(i)));
+            } catch (IllegalArgumentException ex) {
+                // Some starts land on an obstacle; the batch must reject those the same way
+                assertEquals(ex.getMessage(), item.getError().getMessage());
+                continue;
+            }
+            RunResponse actual = item.getResult();
+            assertEquals(expected.getSummary(), actual.getSummary());
+            assertEquals(expected.getPath(), actual.getPath());
+            assertEquals(List.copyOf(expected.getVisited()), List.copyOf(actual.getVisited()));
+        }
+    }
+
+    @Test
+    void invalidProbe_isReportedOnItsItem_withoutFailingTheBatch() {
+        BatchRunRequest batch = batchRequest();
+        BatchProbeDto onReef = probe(new CoordinateDto(5, 5, 0), "F");
+        BatchProbeDto badScript = probe(new CoordinateDto(0, 0, 0), null);
+        badScript.setScript("3(F");
+        BatchProbeDto noDirection = probe(new CoordinateDto(0, 0, 0), "F");
+        noDirection.setDirection(null);
+        batch.setProbes(Arrays.asList(probe(new CoordinateDto(0, 0, 0), "FF"), onReef, badScript, noDirection, null));
+
+        BatchRunResponse resp = service.run(batch);
+
+        assertEquals(2, resp.getResults().get(0).getResult().getFinalState().getY());
+        assertNull(resp.getResults().get(0).getError());
+        assertNull(resp.getResults().get(1).getResult());
+        assertEquals("VALIDATION_ERROR", resp.getResults().get(1).getError().getCode());
+        assertEquals("Start position cannot be an obstacle", resp.getResults().get(1).getError().getMessage());
+        assertEquals("Unclosed '(' in script", resp.getResults().get(2).getError().getMessage());
+        assertEquals("Direction cannot be null", resp.getResults().get(3).getError().getMessage());
+        assertEquals("Start position cannot be null", resp.getResults().get(4).getError().getMessage());
+    }
+
+    @Test
+    void invalidSharedSetup_failsTheWholeBatch() {
+        BatchRunRequest batch = batchRequest();
+        batch.setObstacles(List.of(new CoordinateDto(99, 0, 0)));
+        batch.setProbes(List.of(probe(new CoordinateDto(0, 0, 0), "F")));
+
+        assertThrows(IllegalArgumentException.class, () -> service.run(batch));
+    }
+
+    private static BatchRunRequest batchRequest() {
+        BatchRunRequest batch = new BatchRunRequest();
+        batch.setGrid(new GridDto(20, 20, 3));
+        batch.setObstacles(List.of(new CoordinateDto(10, 10, 1), new CoordinateDto(3, 15, 2)));
+        batch.setRegions(List.of(new RegionDto(new CoordinateDto(4, 4, 0), new CoordinateDto(6, 6, 0))));
+        return batch;
+    }
+
+    private static BatchProbeDto probe(CoordinateDto start, String program) {
+        BatchProbeDto probe = new BatchProbeDto();
+        probe.setStart(start);
+        probe.setDirection(Direction.NORTH);
+        probe.setProgram(program);
+        return probe;
+    }
+
+    private static RunRequest singleRequest(BatchRunRequest batch, BatchProbeDto probe) {
+        RunRequest req = new RunRequest();
+        req.setGrid(batch.getGrid());
+        req.setObstacles(batch.getObstacles());
+        req.setRegions(batch.getRegions());
+        req.setStart(probe.getStart());
+        req.setDirection(probe.getDirection());
+        req.setScript(probe.getScript());
+        req.setPathMode(probe.getPathMode());
+        return req;
+    }
+}
@@ -0,0 +1,161 @@
+package com.natwest.kata.submersible.service;
+
+import com.natwest.kata.submersible.api.dto.CoordinateDto;
+import com.natwest.kata.submersible.api.dto.GridDto;
+import com.natwest.kata.submersible.api.dto.JobResponse;
+import com.natwest.kata.submersible.api.dto.RunRequest;
+import com.natwest.kata.submersible.domain.Probe;
+import com.natwest.kata.submersible.enums.Direction;
+import com.natwest.kata.submersible.enums.JobStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.Serial;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobServiceTest {
+
+    @TempDir
+    static Path terrainDirectory;
+
+    private final ProbeRunService runService = ProbeRunServices.create(terrainDirectory);
+    private final ThreadPoolExecutor executor = JobService.newExecutor(1, 1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void submittedJob_completesWithTheSameResultAsASynchronousRun() {
+        JobService jobs = new JobService(runService, executor, Duration.ofMinutes(1), JobService.DEFAULT_MAX_FINISHED);
+
+        JobResponse submitted = jobs.submit(request(new CoordinateDto(0, 0, 0)));
+        JobResponse done = jobs.await(submitted.getId(), Duration.ofSeconds(10)).join();
+
+        assertEquals(JobStatus.SUCCEEDED, done.getStatus());
+        assertEquals(runService.run(request(new CoordinateDto(0, 0, 0))).getSummary(), done.getResult().getSummary());
+        assertNull(done.getError());
+    }
+
+    @Test
+    void saturatedPool_rejectsSubmissions_untilQueueDrains() throws InterruptedException {
+        JobService jobs = new JobService(runService, executor, Duration.ofMinutes(1), JobService.DEFAULT_MAX_FINISHED);
+        CountDownLatch busy = new CountDownLatch(1);
+        executor.execute(() -> {
+            busy.countDown();
+            awaitQuietly(release);
+        });
+        busy.await();
+
+        JobResponse queued = jobs.submit(request(new CoordinateDto(0, 0, 0)));
+        assertThrows(JobQueueFullException.class, () -> jobs.submit(request(new CoordinateDto(0, 0, 0))));
+        assertEquals(JobStatus.QUEUED, jobs.await(queued.getId(), Duration.ofMillis(50)).join().getStatus());
+
+        release.countDown();
+        assertEquals(JobStatus.SUCCEEDED, jobs.await(queued.getId(), Duration.ofSeconds(10)).join().getStatus());
+    }
+
+    @Test
+    void invalidSetup_failsTheJob_butInvalidScriptIsRejectedOnSubmit() {
+        JobService jobs = new JobService(runService, executor, Duration.ofMinutes(1), JobService.DEFAULT_MAX_FINISHED);
+
+        JobResponse submitted = jobs.submit(request(new CoordinateDto(9, 9, 9)));
+        JobResponse failed = jobs.await(submitted.getId(), Duration.ofSeconds(10)).join();
+        assertEquals(JobStatus.FAILED, failed.getStatus());
+        assertEquals("VALIDATION_ERROR", failed.getError().getCode());
+        assertEquals("Start position is out of bounds", failed.getError().getMessage());
+
+        RunRequest badScript = request(new CoordinateDto(0, 0, 0));
+        badScript.setCommands(null);
+        badScript.setScript("2(F");
+        assertThrows(IllegalArgumentException.class, () -> jobs.submit(badScript));
+    }
+
+    @Test
+    void finishedJob_isDroppedAfterItsTtl() {
+        JobService jobs = new JobService(runService, executor, Duration.ZERO, JobService.DEFAULT_MAX_FINISHED);
+        executor.execute(() -> awaitQuietly(release));
+
+        // Start waiting while the job is still queued; with a zero TTL it is gone as soon as it is read
+        JobResponse submitted = jobs.submit(request(new CoordinateDto(0, 0, 0)));
+        var done = jobs.await(submitted.getId(), Duration.ofSeconds(10));
+        release.countDown();
+        assertEquals(JobStatus.SUCCEEDED, done.join().getStatus());
+
+        assertThrows(ResourceNotFoundException.class, () -> jobs.get(submitted.getId()));
+        assertThrows(ResourceNotFoundException.class, () -> jobs.get("no-such-job"));
+    }
+
+    @Test
+    void errorDuringRun_failsTheJob() throws Exception {
+        ProbeRunService failing = new ProbeRunService(ProbeRunServices.terrains(terrainDirectory),
+                ProbeRunServices.grids(), ProbeRunServices.metrics()) {
+            @Override
+            public Probe startProbe(RunRequest req) {
+                throw new SimulatedError();
+            }
+        };
+        // The error still ends the worker thread; catch it here instead of letting it reach stderr
+        CompletableFuture<Throwable> uncaught = new CompletableFuture<>();
+        executor.setThreadFactory(Thread.ofPlatform().daemon().uncaughtExceptionHandler((t, e) -> uncaught.complete(e)).factory());
+        JobService jobs = new JobService(failing, executor, Duration.ofMinutes(1), JobService.DEFAULT_MAX_FINISHED);
+
+        JobResponse submitted = jobs.submit(request(new CoordinateDto(0, 0, 0)));
+        JobResponse failed = jobs.await(submitted.getId(), Duration.ofSeconds(10)).join();
+
+        assertEquals(JobStatus.FAILED, failed.getStatus());
+        assertEquals("INTERNAL_ERROR", failed.getError().getCode());
+        assertInstanceOf(SimulatedError.class, uncaught.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void finishedJobs_beyondTheLimit_dropTheOldest() {
+        JobService jobs = new JobService(runService, executor, Duration.ofMinutes(1), 2);
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            JobResponse submitted = jobs.submit(request(new CoordinateDto(0, 0, 0)));
+            jobs.await(submitted.getId(), Duration.ofSeconds(10)).join();
+            ids.add(submitted.getId());
+        }
+
+        assertThrows(ResourceNotFoundException.class, () -> jobs.get(ids.get(0)));
+        assertEquals(JobStatus.SUCCEEDED, jobs.get(ids.get(1)).getStatus());
+        assertEquals(JobStatus.SUCCEEDED, jobs.get(ids.get(2)).getStatus());
+    }
+
+    private static RunRequest request(CoordinateDto start) {
+        RunRequest req = new RunRequest();
+        req.setGrid(new GridDto(5, 5, 5));
+        req.setStart(start);
+        req.setDirection(Direction.NORTH);
+        req.setCommands(List.of("F", "R", "F", "U"));
+        return req;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class SimulatedError extends Error {
+        @Serial
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -0,0 +1,146 @@
+package com.natwest.kata.submersible.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.natwest.kata.submersible.api.dto.CoordinateDto;
+import com.natwest.kata.submersible.api.dto.GridDto;
+import com.natwest.kata.submersible.api.dto.RegionDto;
+import com.natwest.kata.submersible.api.dto.RunRequest;
+import com.natwest.kata.submersible.api.dto.SessionCommandsRequest;
+import com.natwest.kata.submersible.api.dto.SessionRequest;
+import com.natwest.kata.submersible.enums.Direction;
+import jakarta.validation.Validation;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProbeRunEventTest {
+
+    private static final String EXECUTION = "submersible.Execution";
+
+    @TempDir
+    static Path terrainDirectory;
+
+    private final ProbeRunService runService = ProbeRunServices.create(terrainDirectory);
+
+    @Test
+    void run_emitsRunAndExecutionEvents(@TempDir Path dir) throws Exception {
+        RunRequest req = new RunRequest();
+        req.setGrid(new GridDto(9, 7, 5));
+        req.setObstacles(List.of(new CoordinateDto(3, 0, 0), new CoordinateDto(8, 6, 4)));
+        req.setRegions(List.of(new RegionDto(new CoordinateDto(0, 5, 0), new CoordinateDto(8, 5, 4))));
+        req.setStart(new CoordinateDto(0, 0, 0));
+        req.setDirection(Direction.EAST);
+        req.setCommands(List.of("F", "F", "F", "Q", "L", "F"));
+
+        List<RecordedEvent> events = record(dir, () -> runService.run(req));
+
+        RecordedEvent run = only(events, ProbeRunEvent.NAME);
+        assertEquals(9, run.getInt("gridWidth"));
+        assertEquals(7, run.getInt("gridHeight"));
+        assertEquals(5, run.getInt("gridDepth"));
+        assertEquals(2, run.getLong("obstacleCount"));
+        assertEquals(1, run.getInt("obstacleRegions"));
+        assertEquals(6, run.getInt("commandCount"));
+        assertEquals(4, run.getLong("pathLength"));
+        assertEquals(1, run.getInt("blockedMoves"));
+        assertEquals(1, run.getInt("invalidCommands"));
+        assertTrue(run.getDuration().toNanos() > 0);
+
+        RecordedEvent execution = only(events, EXECUTION);
+        assertEquals("COMMANDS", execution.getString("source"));
+        assertEquals(6, execution.getInt("commandCount"));
+        assertEquals(1, execution.getInt("blockedMoves"));
+        assertTrue(!execution.getStartTime().isBefore(run.getStartTime()));
+        // The run spans building the grid before the execution and the response after it
+        assertTrue(run.getDuration().compareTo(execution.getDuration()) > 0);
+        assertTrue(!run.getEndTime().isBefore(execution.getEndTime()));
+    }
+
+    @Test
+    void scriptExecution_isTaggedWithItsSource(@TempDir Path dir) throws Exception {
+        RunRequest req = new RunRequest();
+        req.setGrid(new GridDto(4, 4, 4));
+        req.setStart(new CoordinateDto(0, 0, 0));
+        req.setDirection(Direction.NORTH);
+        req.setScript("10(F R)");
+
+        List<RecordedEvent> events = record(dir, () -> runService.run(req));
+
+        RecordedEvent execution = only(events, EXECUTION);
+        assertEquals("SCRIPT", execution.getString("source"));
+        assertEquals(20, execution.getInt("commandCount"));
+    }
+
+    @Test
+    void streamedAndSessionRuns_emitRunEvents(@TempDir Path dir) throws Exception {
+        StreamingRunService streaming = new StreamingRunService(runService, new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        SessionService sessions = new SessionService(runService,
+                new TelemetryService(TelemetryService.DEFAULT_BUFFER_SIZE, TelemetryService.DEFAULT_MAX_SUBSCRIBERS),
+                1, Duration.ofMinutes(1), System::nanoTime);
+        String body = """
+                {"grid":{"width":5,"height":5,"depth":5},"start":{"x":0,"y":0,"z":0},"direction":"NORTH",
+                 "commands":["F","F","R","F"]}
+                """;
+        SessionRequest session = new SessionRequest();
+        session.setGrid(new GridDto(5, 5, 5));
+        session.setStart(new CoordinateDto(0, 0, 0));
+        session.setDirection(Direction.NORTH);
+        SessionCommandsRequest batch = new SessionCommandsRequest();
+        batch.setProgram("FFR");
+
+        List<RecordedEvent> events = record(dir, () -> {
+            try {
+                streaming.run(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            String id = sessions.create(session).getId();
+            sessions.execute(id, batch);
+            sessions.execute(id, batch);
+        });
+
+        List<RecordedEvent> runs = events.stream().filter(e -> e.getEventType().getName().equals(ProbeRunEvent.NAME)).toList();
+        assertEquals(3, runs.size());
+        assertEquals(4, runs.get(0).getInt("commandCount"));
+        assertEquals(4, runs.get(0).getLong("pathLength"));
+        assertEquals(3, runs.get(2).getInt("commandCount"));
+        assertEquals(5, runs.get(2).getLong("pathLength"));
+    }
+
+    private static List<RecordedEvent> record(Path dir, Runnable work) throws Exception {
+        Path file = dir.resolve("run.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ProbeRunEvent.NAME).withThreshold(Duration.ZERO);
+            recording.enable(EXECUTION).withThreshold(Duration.ZERO);
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        // Other tests may run probes at the same time; keep this thread's events only
+        long thread = Thread.currentThread().threadId();
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getThread() != null && e.getThread().getJavaThreadId() == thread)
+                .toList();
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+}
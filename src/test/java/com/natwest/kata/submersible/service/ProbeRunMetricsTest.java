@@ -0,0 +1,70 @@
+package com.natwest.kata.submersible.service;
+
+import com.natwest.kata.submersible.api.dto.CoordinateDto;
+import com.natwest.kata.submersible.api.dto.GridDto;
+import com.natwest.kata.submersible.api.dto.RunRequest;
+import com.natwest.kata.submersible.enums.Direction;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProbeRunMetricsTest {
+
+    @TempDir
+    static Path terrainDirectory;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final ProbeRunService service = ProbeRunServices.create(terrainDirectory, registry);
+
+    @Test
+    void run_recordsEachServicePhaseAndCounters() {
+        RunRequest req = request();
+        req.setObstacles(List.of(new CoordinateDto(2, 0, 0), new CoordinateDto(4, 4, 4)));
+        req.setCommands(List.of("F", "F", "X", "L", "F"));
+
+        service.run(req);
+
+        for (String phase : List.of("grid", "execute", "respond")) {
+            assertEquals(1, phaseTimer(phase), phase);
+        }
+        assertEquals(0, phaseTimer("binding"));
+        assertEquals(1, registry.get(ProbeRunMetrics.GRID_OBSTACLES).summary().count());
+        assertEquals(2.0, registry.get(ProbeRunMetrics.GRID_OBSTACLES).summary().totalAmount());
+        // Counted like ExecutionResult: all five are executed, one F is blocked by (2,0,0), X is invalid
+        assertEquals(5.0, registry.get(ProbeRunMetrics.COMMANDS_EXECUTED).counter().count());
+        assertEquals(1.0, registry.get(ProbeRunMetrics.MOVES_BLOCKED).counter().count());
+        assertEquals(1.0, registry.get(ProbeRunMetrics.COMMANDS_INVALID).counter().count());
+    }
+
+    @Test
+    void failedGridConstruction_isStillTimed() {
+        RunRequest req = request();
+        req.setObstacles(List.of(new CoordinateDto(9, 9, 9)));
+        req.setCommands(List.of("F"));
+
+        assertThrows(IllegalArgumentException.class, () -> service.run(req));
+
+        assertEquals(1, phaseTimer("grid"));
+        assertEquals(0, phaseTimer("execute"));
+        assertEquals(0, registry.get(ProbeRunMetrics.GRID_OBSTACLES).summary().count());
+    }
+
+    private long phaseTimer(String phase) {
+        return registry.get(ProbeRunMetrics.PHASE_TIMER).tag("phase", phase).timer().count();
+    }
+
+    private static RunRequest request() {
+        RunRequest req = new RunRequest();
+        req.setGrid(new GridDto(5, 5, 5));
+        req.setStart(new CoordinateDto(0, 0, 0));
+        req.setDirection(Direction.EAST);
+        return req;
+    }
+}
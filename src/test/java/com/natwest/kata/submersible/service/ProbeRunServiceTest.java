@@ -4,11 +4,25 @@ import com.natwest.kata.submersible.api.dto.CoordinateDto;
 import com.natwest.kata.submersible.api.dto.ExecutionDto;
 import com.natwest.kata.submersible.api.dto.FinalStateDto;
 import com.natwest.kata.submersible.api.dto.GridDto;
+import com.natwest.kata.submersible.api.dto.GridRegistrationRequest;
+import com.natwest.kata.submersible.api.dto.ObstacleMapDto;
+import com.natwest.kata.submersible.api.dto.RegionDto;
 import com.natwest.kata.submersible.api.dto.RunRequest;
 import com.natwest.kata.submersible.api.dto.RunResponse;
+import com.natwest.kata.submersible.api.dto.TerrainRequest;
+import com.natwest.kata.submersible.api.dto.TerrainResponse;
+import com.natwest.kata.submersible.domain.RunLengthPathRecorder;
 import com.natwest.kata.submersible.enums.Direction;
+import com.natwest.kata.submersible.enums.ObstacleEncoding;
+import com.natwest.kata.submersible.enums.PathMode;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 
@@ -16,7 +30,10 @@ import static org.junit.jupiter.api.Assertions.*;
 
 class ProbeRunServiceTest {
 
-    private final ProbeRunService service = new ProbeRunService();
+    @TempDir
+    static Path terrainDirectory;
+
+    private final ProbeRunService service = ProbeRunServices.create(terrainDirectory);
 
     private RunRequest baseRequest() {
         RunRequest req = new RunRequest();
@@ -138,4 +155,322 @@ class ProbeRunServiceTest {
         assertTrue(finalState.getY() >= 0 && finalState.getY() < grid.getHeight());
         assertTrue(finalState.getZ() >= 0 && finalState.getZ() < grid.getDepth());
     }
+
+    @Test
+    void storedTerrain_blocksMovesLikeInlineObstacles(@TempDir Path dir) {
+        TerrainService terrains = ProbeRunServices.terrains(dir);
+        ProbeRunService terrainAware = ProbeRunServices.create(terrains, ProbeRunServices.grids());
+
+        TerrainRequest terrainReq = new TerrainRequest();
+        terrainReq.setGrid(new GridDto(5, 5, 5));
+        terrainReq.setObstacles(List.of(new CoordinateDto(3, 2, 3), new CoordinateDto(3, 2, 3), new CoordinateDto(0, 0, 0)));
+        TerrainResponse terrain = terrains.store(terrainReq);
+
+        assertEquals(2, terrain.getObstacleCount());
+        assertEquals(terrain.getTerrainId(), terrains.store(terrainReq).getTerrainId());
+
+        RunRequest req = baseRequest();
+        req.setTerrainId(terrain.getTerrainId());
+        req.setCommands(List.of("F", "F"));
+        RunResponse fromTerrain = terrainAware.run(req);
+
+        RunRequest inline = baseRequest();
+        inline.setObstacles(List.of(new CoordinateDto(3, 2, 3)));
+        inline.setCommands(List.of("F", "F"));
+        RunResponse fromInline = terrainAware.run(inline);
+
+        assertEquals(2, fromTerrain.getFinalState().getX());
+        assertEquals(1, fromTerrain.getExecution().getBlockedMoves());
+        assertEquals(fromInline.getVisited(), fromTerrain.getVisited());
+    }
+
+    @Test
+    void unknownTerrain_throwsResourceNotFound(@TempDir Path dir) {
+        ProbeRunService terrainAware = ProbeRunServices.create(dir);
+        RunRequest req = baseRequest();
+        req.setTerrainId("0".repeat(64));
+
+        assertThrows(ResourceNotFoundException.class, () -> terrainAware.run(req));
+    }
+
+    @Test
+    void storedTerrainsBeyondTheOpenLimit_areUnmappedLeastRecentlyUsedFirst(@TempDir Path dir) throws IOException {
+        TerrainService terrains = new TerrainService(dir, 1);
+        ProbeRunService terrainAware = ProbeRunServices.create(terrains, ProbeRunServices.grids());
+        TerrainRequest empty = new TerrainRequest();
+        empty.setGrid(new GridDto(5, 5, 5));
+        TerrainRequest withObstacle = new TerrainRequest();
+        withObstacle.setGrid(new GridDto(5, 5, 5));
+        withObstacle.setObstacles(List.of(new CoordinateDto(0, 0, 0)));
+        String first = terrains.store(empty).getTerrainId();
+        String second = terrains.store(withObstacle).getTerrainId();
+
+        RunRequest req = baseRequest();
+        req.setCommands(List.of("F"));
+        req.setTerrainId(first);
+        terrainAware.run(req);
+        req.setTerrainId(second);
+        terrainAware.run(req);
+
+        // Only the second terrain is still mapped, so only it survives losing its file
+        Files.delete(dir.resolve(first + ".terrain"));
+        Files.delete(dir.resolve(second + ".terrain"));
+        assertEquals(2, terrainAware.run(req).getFinalState().getX());
+        req.setTerrainId(first);
+        assertThrows(ResourceNotFoundException.class, () -> terrainAware.run(req));
+    }
+
+    @Test
+    void terrainWithDifferentDimensions_throwsIllegalArgumentException(@TempDir Path dir) {
+        TerrainService terrains = ProbeRunServices.terrains(dir);
+        TerrainRequest terrainReq = new TerrainRequest();
+        terrainReq.setGrid(new GridDto(6, 6, 6));
+        String terrainId = terrains.store(terrainReq).getTerrainId();
+
+        RunRequest req = baseRequest();
+        req.setTerrainId(terrainId);
+
+        assertThrows(IllegalArgumentException.class, () -> ProbeRunServices.create(terrains, ProbeRunServices.grids()).run(req));
+    }
+
+    @Test
+    void registeredGrid_isReusedAndCountsHitsAndMisses() {
+        GridRegistry registry = new GridRegistry(GridRegistry.DEFAULT_MAX_ENTRIES);
+        ProbeRunService registryAware = ProbeRunServices.create(ProbeRunServices.terrains(terrainDirectory), registry);
+
+        GridRegistrationRequest registration = new GridRegistrationRequest();
+        registration.setGrid(new GridDto(5, 5, 5));
+        registration.setObstacles(List.of(new CoordinateDto(3, 2, 3), new CoordinateDto(0, 0, 0)));
+        String gridId = registry.register(registration).getGridId();
+
+        // same content in a different order hashes to the same ID
+        registration.setObstacles(List.of(new CoordinateDto(0, 0, 0), new CoordinateDto(3, 2, 3)));
+        assertEquals(gridId, registry.register(registration).getGridId());
+
+        RunRequest req = baseRequest();
+        req.setGridId(gridId);
+        req.setCommands(List.of("F", "F"));
+        RunResponse resp = registryAware.run(req);
+
+        assertEquals(2, resp.getFinalState().getX());
+        assertEquals(1, resp.getExecution().getBlockedMoves());
+
+        RunRequest unknown = baseRequest();
+        unknown.setGridId("missing");
+        assertThrows(ResourceNotFoundException.class, () -> registryAware.run(unknown));
+
+        assertEquals(1, registry.stats().getHits());
+        assertEquals(1, registry.stats().getMisses());
+        assertEquals(1, registry.stats().getSize());
+    }
+
+    @Test
+    void registeredGrid_withInlineObstacles_leavesSharedGridUntouched() {
+        GridRegistry registry = new GridRegistry(GridRegistry.DEFAULT_MAX_ENTRIES);
+        ProbeRunService registryAware = ProbeRunServices.create(ProbeRunServices.terrains(terrainDirectory), registry);
+
+        GridRegistrationRequest registration = new GridRegistrationRequest();
+        registration.setGrid(new GridDto(5, 5, 5));
+        String gridId = registry.register(registration).getGridId();
+
+        RunRequest withObstacle = baseRequest();
+        withObstacle.setGridId(gridId);
+        withObstacle.setObstacles(List.of(new CoordinateDto(2, 2, 3)));
+        assertEquals(1, registryAware.run(withObstacle).getExecution().getBlockedMoves());
+
+        RunRequest plain = baseRequest();
+        plain.setGridId(gridId);
+        assertEquals(0, registryAware.run(plain).getExecution().getBlockedMoves());
+    }
+
+    @Test
+    void gridRegistry_evictsLeastRecentlyUsedGrid() {
+        GridRegistry registry = new GridRegistry(2);
+        String[] ids = new String[3];
+        for (int i = 0; i < 3; i++) {
+            GridRegistrationRequest registration = new GridRegistrationRequest();
+            registration.setGrid(new GridDto(5 + i, 5, 5));
+            ids[i] = registry.register(registration).getGridId();
+            if (i == 1) registry.get(ids[0]); // touch the first grid so the second becomes eldest
+        }
+
+        assertNotNull(registry.get(ids[0]));
+        assertThrows(ResourceNotFoundException.class, () -> registry.get(ids[1]));
+        assertNotNull(registry.get(ids[2]));
+        assertEquals(1, registry.stats().getEvictions());
+    }
+
+    @Test
+    void regionObstacles_blockMovesAndCannotContainStart() {
+        RunRequest req = baseRequest();
+        // wall across the whole X=3 plane
+        req.setRegions(List.of(new RegionDto(new CoordinateDto(3, 0, 0), new CoordinateDto(3, 4, 4))));
+        req.setCommands(List.of("F", "F", "F"));
+
+        RunResponse resp = service.run(req);
+        assertEquals(2, resp.getFinalState().getX());
+        assertEquals(2, resp.getExecution().getBlockedMoves());
+
+        RunRequest onRegion = baseRequest();
+        onRegion.setRegions(List.of(new RegionDto(new CoordinateDto(0, 0, 0), new CoordinateDto(4, 4, 4))));
+        assertThrows(IllegalArgumentException.class, () -> service.run(onRegion));
+    }
+
+    @Test
+    void runLengthObstacleMap_behavesLikeExplicitObstacles() {
+        // base grid 5x5x5; start (1,2,3) facing EAST. Block (3,2,3): packed index 3 + 5 * (2 + 5 * 3) = 88
+        byte[] runs = {88, 1};
+        RunRequest req = baseRequest();
+        req.setObstacleMap(new ObstacleMapDto(ObstacleEncoding.RUN_LENGTH, Base64.getEncoder().encodeToString(runs)));
+        req.setCommands(List.of("F", "F"));
+
+        RunRequest explicit = baseRequest();
+        explicit.setObstacles(List.of(new CoordinateDto(3, 2, 3)));
+        explicit.setCommands(List.of("F", "F"));
+
+        RunResponse fromMap = service.run(req);
+        RunResponse fromList = service.run(explicit);
+        assertEquals(fromList.getVisited(), fromMap.getVisited());
+        assertEquals(1, fromMap.getExecution().getBlockedMoves());
+    }
+
+    @Test
+    void runLengthObstacleMap_onASparseGrid_rejectsRunsOverTheCellCap() {
+        // One run of 2^40 obstacle cells in 7 bytes; cell by cell it would never finish
+        byte[] runs = {0, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x20};
+        RunRequest huge = baseRequest();
+        huge.setGrid(new GridDto(1 << 20, 1 << 20, 1 << 20));
+        huge.setObstacleMap(new ObstacleMapDto(ObstacleEncoding.RUN_LENGTH, Base64.getEncoder().encodeToString(runs)));
+        huge.setCommands(List.of("F"));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> service.run(huge));
+        assertEquals("Obstacle map covers more than " + ObstacleMapDecoder.MAX_RUN_CELLS + " cells", ex.getMessage());
+    }
+
+    @Test
+    void bitmapObstacleMap_rejectsWrongSizeAndBadBase64() {
+        RunRequest wrongSize = baseRequest();
+        wrongSize.setObstacleMap(new ObstacleMapDto(ObstacleEncoding.BITMAP, Base64.getEncoder().encodeToString(new byte[3])));
+        assertThrows(IllegalArgumentException.class, () -> service.run(wrongSize));
+
+        RunRequest badData = baseRequest();
+        badData.setObstacleMap(new ObstacleMapDto(ObstacleEncoding.BITMAP, "not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> service.run(badData));
+    }
+
+    @Test
+    void pathModeNone_returnsNoPathButStillCountsVisitedPositions() {
+        RunRequest req = baseRequest();
+        req.setStart(new CoordinateDto(0, 0, 0));
+        req.setCommands(List.of("F", "F", "F"));
+        req.setPathMode(PathMode.NONE);
+
+        RunResponse resp = service.run(req);
+
+        assertTrue(resp.getVisited().isEmpty());
+        assertEquals(3, resp.getFinalState().getX());
+        assertTrue(resp.getSummary().startsWith("Visited 4 positions"));
+    }
+
+    @Test
+    void sizedPathModes_requirePathSize() {
+        RunRequest req = baseRequest();
+        req.setPathMode(PathMode.LAST_N);
+
+        assertThrows(IllegalArgumentException.class, () -> service.run(req));
+    }
+
+    @Test
+    void runLengthPathMode_returnsEncodedPathMatchingFullPath() {
+        RunRequest full = baseRequest();
+        full.setStart(new CoordinateDto(0, 0, 0));
+        full.setCommands(List.of("F", "F", "R", "F", "U", "B", "F"));
+        RunRequest encoded = baseRequest();
+        encoded.setStart(new CoordinateDto(0, 0, 0));
+        encoded.setCommands(full.getCommands());
+        encoded.setPathMode(PathMode.RUN_LENGTH);
+
+        RunResponse fullResp = service.run(full);
+        RunResponse encodedResp = service.run(encoded);
+
+        assertNull(fullResp.getPath());
+        assertTrue(encodedResp.getVisited().isEmpty());
+        assertEquals(fullResp.getVisited(), RunLengthPathRecorder.decode(encodedResp.getPath()).asList());
+        assertEquals(fullResp.getSummary(), encodedResp.getSummary());
+    }
+
+    @Test
+    void longStraightLegsOverStoredTerrain_stopAtTheSameObstacles(@TempDir Path dir) {
+        TerrainService terrains = ProbeRunServices.terrains(dir);
+        ProbeRunService terrainAware = ProbeRunServices.create(terrains, ProbeRunServices.grids());
+        List<CoordinateDto> obstacles = List.of(new CoordinateDto(60, 0, 0), new CoordinateDto(20, 0, 0),
+                new CoordinateDto(59, 70, 0), new CoordinateDto(1, 5, 0));
+        TerrainRequest terrainReq = new TerrainRequest();
+        terrainReq.setGrid(new GridDto(100, 100, 1));
+        terrainReq.setObstacles(obstacles);
+        String terrainId = terrains.store(terrainReq).getTerrainId();
+
+        List<String> commands = new ArrayList<>(Collections.nCopies(80, "F"));
+        commands.add("L");
+        commands.addAll(Collections.nCopies(90, "F"));
+        commands.add("L");
+        commands.addAll(Collections.nCopies(80, "F"));
+        RunRequest inline = baseRequest();
+        inline.setGrid(new GridDto(100, 100, 1));
+        inline.setStart(new CoordinateDto(25, 0, 0));
+        inline.setCommands(commands);
+        inline.setObstacles(obstacles);
+        RunRequest stored = baseRequest();
+        stored.setGrid(inline.getGrid());
+        stored.setStart(inline.getStart());
+        stored.setCommands(commands);
+        stored.setTerrainId(terrainId);
+
+        RunResponse fromInline = terrainAware.run(inline);
+        RunResponse fromTerrain = terrainAware.run(stored);
+
+        assertEquals(fromInline.getVisited(), fromTerrain.getVisited());
+        assertEquals(0, fromTerrain.getFinalState().getX());
+        assertEquals(69, fromTerrain.getFinalState().getY());
+        assertEquals((80 - 34) + (90 - 69) + (80 - 59), fromTerrain.getExecution().getBlockedMoves());
+    }
+
+    @Test
+    void packedProgram_runsLikeCommandList_andExcludesCommands() {
+        RunRequest packed = baseRequest();
+        packed.setCommands(null);
+        packed.setProgram("FLFRB");
+        RunRequest listed = baseRequest();
+        listed.setCommands(List.of("F", "L", "F", "R", "B"));
+
+        RunResponse fromProgram = service.run(packed);
+
+        assertEquals(service.run(listed).getVisited(), fromProgram.getVisited());
+        assertEquals(5, fromProgram.getExecution().getTotalCommands());
+
+        packed.setCommands(List.of("F"));
+        assertThrows(IllegalArgumentException.class, () -> service.run(packed));
+    }
+
+    @Test
+    void script_runsLikeUnrolledCommands() {
+        RunRequest scripted = baseRequest();
+        scripted.setStart(new CoordinateDto(0, 0, 0));
+        scripted.setDirection(Direction.NORTH);
+        scripted.setCommands(null);
+        scripted.setScript("2(F2 R F R F2 L F L)");
+        RunRequest listed = baseRequest();
+        listed.setStart(new CoordinateDto(0, 0, 0));
+        listed.setDirection(Direction.NORTH);
+        listed.setProgram("FFRFRFFLFLFFRFRFFLFL");
+        listed.setCommands(null);
+
+        RunResponse fromScript = service.run(scripted);
+
+        assertEquals(service.run(listed).getVisited(), fromScript.getVisited());
+        assertEquals(20, fromScript.getExecution().getTotalCommands());
+
+        scripted.setScript("2(F");
+        assertThrows(IllegalArgumentException.class, () -> service.run(scripted));
+    }
 }
@@ -0,0 +1,40 @@
+package com.natwest.kata.submersible.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.nio.file.Path;
+
+/**
+ * Builds a {@link ProbeRunService} by hand with default-sized collaborators, for the service tests
+ * and benchmarks that run without a Spring context. Every call gets its own registries.
+ */
+final class ProbeRunServices {
+
+    private ProbeRunServices() {
+    }
+
+    static ProbeRunService create(Path terrainDirectory) {
+        return create(terrains(terrainDirectory), grids());
+    }
+
+    static ProbeRunService create(Path terrainDirectory, MeterRegistry meters) {
+        return new ProbeRunService(terrains(terrainDirectory), grids(), new ProbeRunMetrics(meters));
+    }
+
+    static ProbeRunService create(TerrainService terrains, GridRegistry grids) {
+        return new ProbeRunService(terrains, grids, metrics());
+    }
+
+    static TerrainService terrains(Path directory) {
+        return new TerrainService(directory, TerrainService.DEFAULT_MAX_OPEN);
+    }
+
+    static GridRegistry grids() {
+        return new GridRegistry(GridRegistry.DEFAULT_MAX_ENTRIES);
+    }
+
+    static ProbeRunMetrics metrics() {
+        return new ProbeRunMetrics(new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,175 @@
+package com.natwest.kata.submersible.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.natwest.kata.submersible.api.dto.CoordinateDto;
+import com.natwest.kata.submersible.api.dto.GridDto;
+import com.natwest.kata.submersible.api.dto.GridRegistrationRequest;
+import com.natwest.kata.submersible.api.dto.RunCacheStatsDto;
+import com.natwest.kata.submersible.api.dto.RunRequest;
+import com.natwest.kata.submersible.api.dto.RunResponse;
+import com.natwest.kata.submersible.enums.Direction;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunResultCacheTest {
+
+    @TempDir
+    static Path terrainDirectory;
+
+    private final ProbeRunService runService = ProbeRunServices.create(terrainDirectory);
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void identicalRequests_areComputedOnce() {
+        RunResultCache cache = new RunResultCache(runService, new GridRegistry(GridRegistry.DEFAULT_MAX_ENTRIES), mapper, RunResultCache.DEFAULT_MAX_BYTES);
+
+        RunResponse first = cache.run(request(0, "FFRF"));
+        RunResponse second = cache.run(request(0, "FFRF"));
+        RunResponse other = cache.run(request(1, "FFRF"));
+
+        assertSame(first, second);
+        assertNotSame(first, other);
+        RunCacheStatsDto stats = cache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(2, stats.getSize());
+    }
+
+    @Test
+    void concurrentIdenticalRequests_shareOneRun() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        ProbeRunService slow = new ProbeRunService(ProbeRunServices.terrains(terrainDirectory),
+                ProbeRunServices.grids(), ProbeRunServices.metrics()) {
+            @Override
+            public RunResponse run(RunRequest req) {
+                runs.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.run(req);
+            }
+        };
+        RunResultCache cache = new RunResultCache(slow, new GridRegistry(GridRegistry.DEFAULT_MAX_ENTRIES), mapper, RunResultCache.DEFAULT_MAX_BYTES);
+
+        int callers = 8;
+        List<Future<RunResponse>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            for (int i = 0; i < callers; i++) results.add(executor.submit(() -> cache.run(request(0, "FRF"))));
+            // Let every caller reach the cache before the single run completes
+            while (cache.stats().getMisses() + cache.stats().getCoalesced() < callers) Thread.onSpinWait();
+            release.countDown();
+            for (Future<RunResponse> result : results) assertSame(results.get(0).get(), result.get());
+        }
+
+        assertEquals(1, runs.get());
+        assertEquals(callers - 1, cache.stats().getCoalesced());
+    }
+
+    @Test
+    void cacheStaysWithinItsWeight_evictingLeastRecentlyUsed() {
+        // Each short run weighs a little over 1 KiB; room for four of them
+        RunResultCache cache = new RunResultCache(runService, new GridRegistry(GridRegistry.DEFAULT_MAX_ENTRIES), mapper, 4400);
+        for (int x = 0; x < 4; x++) cache.run(request(x, "F"));
+        cache.run(request(0, "F")); // touch, so x = 1 is the eldest
+
+        cache.run(request(4, "F"));
+
+        RunCacheStatsDto stats = cache.stats();
+        assertEquals(4, stats.getSize());
+        assertEquals(1, stats.getEvictions());
+        assertTrue(stats.getWeightBytes() <= 4400);
+        cache.run(request(0, "F"));
+        assertEquals(2, cache.stats().getHits());
+        cache.run(request(1, "F"));
+        assertEquals(2, cache.stats().getHits());
+
+        // Too heavy to cache: a quarter of the budget is the limit for one result
+        cache.run(request(0, "F".repeat(100)));
+        assertEquals(4, cache.stats().getSize());
+    }
+
+    @Test
+    void failedRuns_areNotCached() {
+        RunResultCache cache = new RunResultCache(runService, new GridRegistry(GridRegistry.DEFAULT_MAX_ENTRIES), mapper, RunResultCache.DEFAULT_MAX_BYTES);
+        RunRequest outside = request(0, "F");
+        outside.setStart(new CoordinateDto(9, 0, 0));
+
+        assertThrows(IllegalArgumentException.class, () -> cache.run(outside));
+        assertThrows(IllegalArgumentException.class, () -> cache.run(outside));
+
+        assertEquals(0, cache.stats().getSize());
+        assertEquals(2, cache.stats().getMisses());
+    }
+
+    @Test
+    void zeroBudget_disablesCaching() {
+        RunResultCache cache = new RunResultCache(runService, new GridRegistry(GridRegistry.DEFAULT_MAX_ENTRIES), mapper, 0);
+
+        assertNotSame(cache.run(request(0, "F")), cache.run(request(0, "F")));
+        assertEquals(0, cache.stats().getSize());
+    }
+
+    @Test
+    void resultForAnEvictedGrid_isNotServed() {
+        GridRegistry registry = new GridRegistry(1);
+        ProbeRunService service = ProbeRunServices.create(ProbeRunServices.terrains(terrainDirectory), registry);
+        RunResultCache cache = new RunResultCache(service, registry, mapper, RunResultCache.DEFAULT_MAX_BYTES);
+        RunRequest req = request(0, "FF");
+        req.setGridId(register(registry, 1));
+
+        cache.run(req);
+        assertNotNull(cache.run(req));
+        register(registry, 2); // evicts the first grid
+
+        assertThrows(ResourceNotFoundException.class, () -> cache.run(req));
+        assertEquals(0, cache.stats().getSize());
+    }
+
+    @Test
+    void bindTo_publishesCountersAndSize() {
+        RunResultCache cache = new RunResultCache(runService, new GridRegistry(GridRegistry.DEFAULT_MAX_ENTRIES), mapper, RunResultCache.DEFAULT_MAX_BYTES);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.run(request(0, "F"));
+        cache.run(request(0, "F"));
+
+        assertEquals(1.0, registry.get("probe.run.cache.hits").functionCounter().count());
+        assertEquals(1.0, registry.get("probe.run.cache.misses").functionCounter().count());
+        assertEquals(1.0, registry.get("probe.run.cache.size").gauge().value());
+    }
+
+    private static String register(GridRegistry registry, int obstacleX) {
+        GridRegistrationRequest registration = new GridRegistrationRequest();
+        registration.setGrid(new GridDto(5, 200, 5));
+        registration.setObstacles(List.of(new CoordinateDto(obstacleX, 100, 0)));
+        return registry.register(registration).getGridId();
+    }
+
+    private static RunRequest request(int x, String program) {
+        RunRequest req = new RunRequest();
+        req.setGrid(new GridDto(5, 200, 5));
+        req.setStart(new CoordinateDto(x, 0, 0));
+        req.setDirection(Direction.NORTH);
+        req.setProgram(program);
+        req.setObstacles(Collections.emptyList());
+        return req;
+    }
+}
@@ -0,0 +1,166 @@
+package com.natwest.kata.submersible.service;
+
+import com.natwest.kata.submersible.api.dto.CoordinateDto;
+import com.natwest.kata.submersible.api.dto.GridDto;
+import com.natwest.kata.submersible.api.dto.RunRequest;
+import com.natwest.kata.submersible.api.dto.RunResponse;
+import com.natwest.kata.submersible.api.dto.SessionCommandsRequest;
+import com.natwest.kata.submersible.api.dto.SessionRequest;
+import com.natwest.kata.submersible.api.dto.SessionResponse;
+import com.natwest.kata.submersible.enums.Direction;
+import com.natwest.kata.submersible.enums.PathMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionServiceTest {
+
+    @TempDir
+    static Path terrainDirectory;
+
+    private final ProbeRunService runService = ProbeRunServices.create(terrainDirectory);
+    private final AtomicLong now = new AtomicLong();
+    private final SessionService sessions = new SessionService(runService,
+            new TelemetryService(TelemetryService.DEFAULT_BUFFER_SIZE, TelemetryService.DEFAULT_MAX_SUBSCRIBERS),
+            3, Duration.ofSeconds(60), now::get);
+
+    @Test
+    void batches_continueFromCurrentState_andReturnOnlyTheirPositions() {
+        SessionResponse created = sessions.create(sessionRequest());
+        List<String> visited = new ArrayList<>(created.getVisited());
+
+        SessionResponse last = null;
+        for (String batch : List.of("FF", "RFX", "UF", "")) {
+            last = sessions.execute(created.getId(), program(batch));
+            visited.addAll(last.getVisited());
+        }
+
+        RunRequest whole = new RunRequest();
+        whole.setGrid(new GridDto(5, 5, 5));
+        whole.setStart(new CoordinateDto(0, 0, 0));
+        whole.setDirection(Direction.NORTH);
+        whole.setProgram("FFRFXUF");
+        RunResponse expected = runService.run(whole);
+
+        assertEquals(List.copyOf(expected.getVisited()), visited);
+        assertEquals(expected.getFinalState().getX(), last.getFinalState().getX());
+        assertEquals(expected.getFinalState().getZ(), last.getFinalState().getZ());
+        assertEquals(expected.getFinalState().getDirection(), last.getFinalState().getDirection());
+        assertEquals(7, last.getTotalCommands());
+        assertEquals(visited.size(), last.getVisitedCount());
+        assertTrue(last.getVisited().isEmpty());
+        assertEquals(0, last.getExecution().getTotalCommands());
+    }
+
+    @Test
+    void invalidCommandIndices_areRelativeToTheBatch() {
+        String id = sessions.create(sessionRequest()).getId();
+        sessions.execute(id, program("FF"));
+
+        SessionResponse resp = sessions.execute(id, program("FX"));
+
+        assertEquals(1, resp.getExecution().getInvalidCommands().get(0).getIndex());
+    }
+
+    @Test
+    void idleSessions_expire_andActiveOnesStay() {
+        String idle = sessions.create(sessionRequest()).getId();
+        String active = sessions.create(sessionRequest()).getId();
+
+        for (int i = 0; i < 4; i++) {
+            now.addAndGet(Duration.ofSeconds(20).toNanos());
+            sessions.get(active);
+        }
+
+        assertThrows(ResourceNotFoundException.class, () -> sessions.get(idle));
+        assertEquals(active, sessions.get(active).getId());
+        assertEquals(1, sessions.size());
+    }
+
+    @Test
+    void sessionLimit_rejectsCreation_untilOneEnds() {
+        SessionRequest offGrid = sessionRequest();
+        offGrid.setStart(new CoordinateDto(9, 9, 9));
+        // A failed create must give its slot back
+        for (int i = 0; i < 3; i++) assertThrows(IllegalArgumentException.class, () -> sessions.create(offGrid));
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) ids.add(sessions.create(sessionRequest()).getId());
+
+        assertThrows(SessionLimitExceededException.class, () -> sessions.create(sessionRequest()));
+
+        sessions.delete(ids.get(0));
+        assertNotNull(sessions.create(sessionRequest()).getId());
+        assertThrows(ResourceNotFoundException.class, () -> sessions.execute(ids.get(0), program("F")));
+    }
+
+    @Test
+    void concurrentCreates_neverExceedTheLimit() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 200; i++) {
+                executor.submit(() -> {
+                    try {
+                        sessions.create(sessionRequest());
+                        created.incrementAndGet();
+                    } catch (SessionLimitExceededException ignored) {
+                        // expected once the limit is reached
+                    }
+                });
+            }
+        }
+
+        assertEquals(3, created.get());
+        assertEquals(3, sessions.size());
+    }
+
+    @Test
+    void concurrentBatches_onOneSession_areAppliedOneAtATime() throws Exception {
+        SessionRequest req = sessionRequest();
+        req.setGrid(new GridDto(1, 10_000, 1));
+        req.setPathMode(PathMode.NONE);
+        String id = sessions.create(req).getId();
+
+        int batches = 1_000;
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < batches; i++) executor.submit(() -> sessions.execute(id, program("FFF")));
+        }
+
+        SessionResponse state = sessions.get(id);
+        assertEquals(3 * batches, state.getFinalState().getY());
+        assertEquals(3L * batches, state.getTotalCommands());
+        assertEquals(3L * batches + 1, state.getVisitedCount());
+    }
+
+    @Test
+    void unsupportedPathMode_isRejected() {
+        SessionRequest req = sessionRequest();
+        req.setPathMode(PathMode.SAMPLED);
+
+        assertThrows(IllegalArgumentException.class, () -> sessions.create(req));
+    }
+
+    private static SessionRequest sessionRequest() {
+        SessionRequest req = new SessionRequest();
+        req.setGrid(new GridDto(5, 5, 5));
+        req.setStart(new CoordinateDto(0, 0, 0));
+        req.setDirection(Direction.NORTH);
+        return req;
+    }
+
+    private static SessionCommandsRequest program(String program) {
+        SessionCommandsRequest req = new SessionCommandsRequest();
+        req.setProgram(program);
+        return req;
+    }
+}
@@ -0,0 +1,135 @@
+package com.natwest.kata.submersible.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.natwest.kata.submersible.api.dto.CoordinateDto;
+import com.natwest.kata.submersible.api.dto.GridDto;
+import com.natwest.kata.submersible.api.dto.RunRequest;
+import com.natwest.kata.submersible.api.dto.RunResponse;
+import com.natwest.kata.submersible.enums.Direction;
+import com.natwest.kata.submersible.enums.PathMode;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingRunServiceTest {
+
+    @TempDir
+    static Path terrainDirectory;
+
+    private final ProbeRunService runService = ProbeRunServices.create(terrainDirectory);
+    private final StreamingRunService service = new StreamingRunService(runService, new ObjectMapper(),
+            Validation.buildDefaultValidatorFactory().getValidator());
+
+    @Test
+    void longCommandStream_isExecutedWithoutCollectingTheCommands() throws IOException {
+        int count = 2_000_000;
+        String head = """
+                {"grid":{"width":10,"height":10,"depth":1},"start":{"x":0,"y":0,"z":0},"direction":"NORTH",
+                 "pathMode":"NONE","commands":[
+                """;
+
+        RunResponse resp = service.run(body(head, "\"F\",\"R\",", count / 2, "\"F\"]}"));
+
+        assertEquals(count + 1, resp.getExecution().getTotalCommands());
+        assertEquals(0, resp.getExecution().getBlockedMoves());
+        assertEquals(0, resp.getFinalState().getX());
+        assertEquals(1, resp.getFinalState().getY());
+        assertTrue(resp.getVisited().isEmpty());
+    }
+
+    @Test
+    void bodyWithoutCommandArray_runsAsRegularRequest() throws IOException {
+        String body = """
+                {"grid":{"width":5,"height":5,"depth":5},"start":{"x":0,"y":0,"z":0},"direction":"NORTH","script":"3(F)"}
+                """;
+
+        RunResponse resp = service.run(body(body, "", 0, ""));
+
+        assertEquals(3, resp.getFinalState().getY());
+        assertEquals(3, resp.getExecution().getTotalCommands());
+    }
+
+    /** Streams head, then {@code repeat} copies of chunk, then tail, without building the whole body. */
+    private static InputStream body(String head, String chunk, int repeat, String tail) {
+        byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+        InputStream repeated = new InputStream() {
+            private long remaining = (long) bytes.length * repeat;
+
+            @Override
+            public int read() {
+                if (remaining == 0) return -1;
+                return bytes[(int) (bytes.length - 1 - (--remaining % bytes.length))] & 0xFF;
+            }
+        };
+        return new SequenceInputStream(Collections.enumeration(List.of(
+                new ByteArrayInputStream(head.getBytes(StandardCharsets.UTF_8)), repeated,
+                new ByteArrayInputStream(tail.getBytes(StandardCharsets.UTF_8)))));
+    }
+
+    @Test
+    void ndjsonResponse_streamsPositionsInBoundedBuffer() throws IOException {
+        RunRequest req = new RunRequest();
+        req.setGrid(new GridDto(1, 100_000, 1));
+        req.setStart(new CoordinateDto(0, 0, 0));
+        req.setDirection(Direction.NORTH);
+        req.setScript("99999(F) R");
+        CountingOutputStream out = new CountingOutputStream();
+
+        service.runAsNdjson(req).writeTo(out);
+
+        // start + 99,999 positions, then the result line
+        assertEquals(100_001, out.lines);
+        assertTrue(out.largestWrite <= 8 * 1024, "largest write " + out.largestWrite);
+        assertTrue(out.last.startsWith("{\"result\":"));
+    }
+
+    @Test
+    void ndjsonResponse_rejectsPathModesThatCannotStream() {
+        RunRequest req = new RunRequest();
+        req.setGrid(new GridDto(5, 5, 5));
+        req.setStart(new CoordinateDto(0, 0, 0));
+        req.setDirection(Direction.NORTH);
+        req.setProgram("F");
+        req.setPathMode(PathMode.DISTINCT);
+
+        assertThrows(IllegalArgumentException.class, () -> service.runAsNdjson(req));
+    }
+
+    /** Counts lines and remembers the last one without keeping the whole output. */
+    private static final class CountingOutputStream extends OutputStream {
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private int lines;
+        private int largestWrite;
+        private String last = "";
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+                last = line.toString(StandardCharsets.UTF_8);
+                line.reset();
+            } else {
+                line.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            largestWrite = Math.max(largestWrite, len);
+            for (int i = off; i < off + len; i++) write(b[i]);
+        }
+    }
+}
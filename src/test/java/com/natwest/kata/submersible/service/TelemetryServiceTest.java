@@ -0,0 +1,148 @@
+package com.natwest.kata.submersible.service;
+
+import com.natwest.kata.submersible.api.dto.TelemetryEventDto;
+import com.natwest.kata.submersible.domain.Grid;
+import com.natwest.kata.submersible.domain.PathRecorder;
+import com.natwest.kata.submersible.domain.Probe;
+import com.natwest.kata.submersible.enums.Direction;
+import com.natwest.kata.submersible.enums.PathMode;
+import com.natwest.kata.submersible.enums.TelemetryEventType;
+import com.natwest.kata.submersible.enums.TelemetryPolicy;
+import com.natwest.kata.submersible.interpreter.CommandInterpreter;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TelemetryServiceTest {
+
+    @Test
+    void subscriber_receivesStateThenEachMoveTurnAndBlockedMove_inOrder() throws InterruptedException {
+        Probe probe = new Probe(0, 0, 0, Direction.NORTH, new Grid(3, 3, 3));
+        ProbeTelemetry telemetry = new TelemetryService(16, 4).attach(probe);
+        RecordingSink sink = new RecordingSink(null);
+        telemetry.subscribe(probe, TelemetryPolicy.DROP, sink);
+
+        new CommandInterpreter().execute("FFFRU", probe);
+        sink.awaitEvents(5);
+
+        assertEquals(List.of(TelemetryEventType.STATE, TelemetryEventType.MOVE, TelemetryEventType.BLOCKED,
+                TelemetryEventType.TURN, TelemetryEventType.TURN), sink.events.stream().map(TelemetryEventDto::getType).toList());
+        TelemetryEventDto blocked = sink.events.get(2);
+        assertEquals(2, blocked.getY());
+        assertEquals(1, blocked.getBlocked());
+        assertEquals(1, blocked.getTotalBlocked());
+        assertEquals(Direction.UP, sink.events.get(4).getDirection());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), sink.events.stream().map(TelemetryEventDto::getSeq).toList());
+    }
+
+    @Test
+    void slowSubscriber_neverStallsTheProbe_andCoalescesToTheLatestState() throws InterruptedException {
+        Probe probe = new Probe(0, 0, 0, Direction.NORTH, new Grid(1, 100_000, 1), PathRecorder.of(PathMode.NONE, 0));
+        ProbeTelemetry telemetry = new TelemetryService(4, 4).attach(probe);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink(release);
+        RecordingSink fast = new RecordingSink(null);
+        telemetry.subscribe(probe, TelemetryPolicy.COALESCE, slow);
+        telemetry.subscribe(probe, TelemetryPolicy.DROP, fast);
+
+        // The slow sink is stuck on its first event while all the moves happen
+        for (int i = 0; i < 50_000; i++) probe.moveForward();
+        release.countDown();
+
+        slow.awaitLast(50_000);
+        TelemetryEventDto last = slow.events.get(slow.events.size() - 1);
+        assertEquals(50_000, last.getY());
+        long received = slow.events.size();
+        long dropped = slow.events.stream().mapToLong(TelemetryEventDto::getDropped).sum();
+        assertEquals(50_001, received + dropped);
+        assertTrue(received < 50);
+    }
+
+    @Test
+    void droppingSubscriber_reportsMissedEvents() throws InterruptedException {
+        Probe probe = new Probe(0, 0, 0, Direction.NORTH, new Grid(1, 1_000, 1), PathRecorder.of(PathMode.NONE, 0));
+        ProbeTelemetry telemetry = new TelemetryService(4, 4).attach(probe);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink sink = new RecordingSink(release);
+        telemetry.subscribe(probe, TelemetryPolicy.DROP, sink);
+        assertTrue(sink.sending.await(5, TimeUnit.SECONDS)); // stuck on the state event, the buffer is empty
+
+        for (int i = 0; i < 100; i++) probe.moveForward();
+        release.countDown();
+        sink.awaitEvents(5); // the state and the four buffered moves
+        probe.moveForward(); // delivered with the count of missed events
+
+        sink.awaitLast(101);
+        long dropped = sink.events.stream().mapToLong(TelemetryEventDto::getDropped).sum();
+        assertEquals(102, sink.events.size() + dropped);
+    }
+
+    @Test
+    void closingTelemetry_completesSubscribers_andLimitsAreEnforced() throws InterruptedException {
+        Probe probe = new Probe(0, 0, 0, Direction.NORTH, new Grid(3, 3, 3));
+        ProbeTelemetry telemetry = new TelemetryService(4, 1).attach(probe);
+        RecordingSink sink = new RecordingSink(null);
+        telemetry.subscribe(probe, TelemetryPolicy.COALESCE, sink);
+
+        assertThrows(SessionLimitExceededException.class,
+                () -> telemetry.subscribe(probe, TelemetryPolicy.COALESCE, new RecordingSink(null)));
+
+        telemetry.close();
+        assertTrue(sink.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, telemetry.subscriberCount());
+    }
+
+    /** Collects events; when given a latch, blocks on the first event until it is released. */
+    private static final class RecordingSink implements TelemetrySubscriber.Sink {
+
+        final List<TelemetryEventDto> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        RecordingSink(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(TelemetryEventDto event) {
+            sending.countDown();
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            events.add(event);
+        }
+
+        @Override
+        public void keepAlive() {
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        void awaitEvents(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (events.size() < count && System.nanoTime() < deadline) Thread.sleep(5);
+            assertEquals(count, events.size());
+        }
+
+        void awaitLast(int y) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while ((events.isEmpty() || events.get(events.size() - 1).getY() != y) && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(y, events.get(events.size() - 1).getY());
+        }
+    }
+}
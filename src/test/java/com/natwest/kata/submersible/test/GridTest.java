@@ -1,7 +1,16 @@
 package com.natwest.kata.submersible.test;
 
 import com.natwest.kata.submersible.domain.Grid;
+import com.natwest.kata.submersible.domain.MappedObstacleStore;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -35,4 +44,305 @@ public class GridTest {
         assertFalse(grid.isWithinBounds(6, 6, 6));
     }
 
+    @Test
+    void shouldDetectObstaclesOnSmallDenseGrid() {
+        Grid grid = new Grid(5, 5, 5);
+        grid.addObstacle(0, 0, 0);
+        grid.addObstacle(4, 4, 4);
+        grid.addObstacle(2, 3, 1);
+
+        assertTrue(grid.isObstacle(0, 0, 0));
+        assertTrue(grid.isObstacle(4, 4, 4));
+        assertTrue(grid.isObstacle(2, 3, 1));
+        assertFalse(grid.isObstacle(1, 3, 2));   // same digits, different cell
+        assertFalse(grid.isObstacle(5, 0, 0));   // outside the grid is never an obstacle
+    }
+
+    @Test
+    void shouldDetectObstaclesOnLargeSparseGrid() {
+        Grid grid = new Grid(100_000, 100_000, 1_000);
+
+        for (int i = 0; i < 10_000; i++) {
+            grid.addObstacle(i * 7, i * 3, i % 1_000);
+        }
+        grid.addObstacle(99_999, 99_999, 999);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(grid.isObstacle(i * 7, i * 3, i % 1_000));
+            assertFalse(grid.isObstacle(i * 7 + 1, i * 3, i % 1_000));
+        }
+        assertTrue(grid.isObstacle(99_999, 99_999, 999));
+        assertFalse(grid.isObstacle(0, 0, 1));
+    }
+
+    @Test
+    void shouldRejectObstacleOutsideBounds() {
+        Grid grid = new Grid(5, 5, 5);
+        assertThrows(IllegalArgumentException.class, () -> grid.addObstacle(5, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> grid.addObstacle(0, -1, 0));
+    }
+
+    @Test
+    void shouldStoreObstaclesOnOceanSizedGrid() {
+        int max = Integer.MAX_VALUE;
+        Grid grid = new Grid(max, max, max);
+
+        grid.addObstacle(max - 1, max - 1, max - 1);
+        grid.addObstacle(0, 0, 0);
+        grid.addObstacle(1_000_000, 2_000_000, 3_000_000);
+
+        assertTrue(grid.isObstacle(max - 1, max - 1, max - 1));
+        assertTrue(grid.isObstacle(0, 0, 0));
+        assertTrue(grid.isObstacle(1_000_000, 2_000_000, 3_000_000));
+        assertFalse(grid.isObstacle(1_000_001, 2_000_000, 3_000_000));
+        assertFalse(grid.isObstacle(max - 1, max - 1, max - 2));
+        assertEquals(3, grid.getObstacleCount());
+    }
+
+    @Test
+    void shouldUseSparseStorageWhenTheCellCountOverflowsALong() {
+        // 2^21 per side is 2^63 cells, which wraps to a negative long
+        int side = 1 << 21;
+        Grid grid = new Grid(side, side, side);
+
+        grid.addObstacle(side - 1, 0, side - 1);
+
+        assertTrue(grid.isObstacle(side - 1, 0, side - 1));
+        assertFalse(grid.isObstacle(0, 0, 0));
+        assertEquals(1, grid.getObstacleCount());
+    }
+
+    @Test
+    void shouldKeepClusteredObstaclesCorrectWhenBricksBecomeDense() {
+        Grid grid = new Grid(1_000_000, 1_000_000, 1_000_000);
+
+        // fill two full 16x16x16 bricks plus a sparse scattering around them
+        for (int x = 0; x < 32; x++) {
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    grid.addObstacle(500_000 + x, 500_000 + y, 500_000 + z);
+                }
+            }
+        }
+        grid.addObstacle(500_000, 500_000, 500_000); // duplicate
+        grid.addObstacle(10, 20, 30);
+
+        assertEquals(32 * 16 * 16 + 1, grid.getObstacleCount());
+        assertTrue(grid.isObstacle(500_031, 500_015, 500_015));
+        assertFalse(grid.isObstacle(500_032, 500_000, 500_000));
+        assertFalse(grid.isObstacle(500_000, 500_016, 500_000));
+        assertTrue(grid.isObstacle(10, 20, 30));
+    }
+
+    @Test
+    void shouldReportMemoryFootprintProportionalToOccupiedRegions() {
+        Grid empty = new Grid(1_000_000, 1_000_000, 1_000_000);
+        assertEquals(0, empty.getObstacleMemoryBytes());
+
+        Grid clustered = new Grid(1_000_000, 1_000_000, 1_000_000);
+        for (int i = 0; i < 1_000; i++) {
+            clustered.addObstacle(i % 10, (i / 10) % 10, i / 100);
+        }
+        // 1,000 obstacles in a single brick stay well below a kilobyte-per-obstacle budget
+        assertTrue(clustered.getObstacleMemoryBytes() > 0);
+        assertTrue(clustered.getObstacleMemoryBytes() < 4_096);
+    }
+
+    @Test
+    void frozenGridShouldRejectObstaclesButAllowLayeredCopies() {
+        Grid shared = new Grid(5, 5, 5);
+        shared.addObstacle(1, 1, 1);
+        shared.freeze();
+
+        assertThrows(IllegalStateException.class, () -> shared.addObstacle(2, 2, 2));
+
+        Grid layered = shared.layered();
+        layered.addObstacle(2, 2, 2);
+        layered.addObstacle(1, 1, 1); // already in the base grid
+
+        assertTrue(layered.isObstacle(1, 1, 1));
+        assertTrue(layered.isObstacle(2, 2, 2));
+        assertFalse(shared.isObstacle(2, 2, 2));
+        assertEquals(2, layered.getObstacleCount());
+    }
+
+    @Test
+    void shouldTreatEveryCellOfARegionAsObstacle() {
+        Grid grid = new Grid(1_000, 1_000, 1_000);
+        grid.addObstacleRegion(0, 0, 0, 999, 999, 0);       // seabed slab
+        grid.addObstacleRegion(500, 900, 10, 500, 100, 20); // wall, corners given in any order
+
+        assertTrue(grid.isObstacle(0, 0, 0));
+        assertTrue(grid.isObstacle(999, 999, 0));
+        assertFalse(grid.isObstacle(999, 999, 1));
+        assertTrue(grid.isObstacle(500, 100, 10));
+        assertTrue(grid.isObstacle(500, 900, 20));
+        assertFalse(grid.isObstacle(501, 500, 15));
+        assertFalse(grid.isObstacle(500, 99, 15));
+        assertEquals(2, grid.getObstacleRegionCount());
+        assertEquals(0, grid.getObstacleCount());
+        assertThrows(IllegalArgumentException.class, () -> grid.addObstacleRegion(0, 0, 0, 1_000, 0, 0));
+    }
+
+    @Test
+    void regionLookupsShouldMatchBruteForceForManyOverlappingBoxes() {
+        Random random = new Random(42);
+        int size = 40;
+        Grid grid = new Grid(size, size, size);
+        boolean[][][] expected = new boolean[size][size][size];
+
+        for (int r = 0; r < 300; r++) {
+            int x1 = random.nextInt(size), x2 = random.nextInt(size);
+            int y1 = random.nextInt(size), y2 = Math.min(size - 1, y1 + random.nextInt(4));
+            int z1 = random.nextInt(size), z2 = Math.min(size - 1, z1 + random.nextInt(4));
+            grid.addObstacleRegion(x1, y1, z1, x2, y2, z2);
+            for (int x = Math.min(x1, x2); x <= Math.max(x1, x2); x++)
+                for (int y = y1; y <= y2; y++)
+                    for (int z = z1; z <= z2; z++) expected[x][y][z] = true;
+        }
+
+        for (int x = 0; x < size; x++)
+            for (int y = 0; y < size; y++)
+                for (int z = 0; z < size; z++)
+                    assertEquals(expected[x][y][z], grid.isObstacle(x, y, z), "(" + x + "," + y + "," + z + ")");
+    }
+
+    @Test
+    void shouldLoadObstaclesFromPackedBitmapAndRuns() {
+        // 4x2x2 grid = 16 cells -> 2 bytes; cells 1 (1,0,0) and 13 (1,1,1)
+        Grid grid = new Grid(4, 2, 2);
+        grid.addObstacleBitmap(new byte[]{0b0000_0010, 0b0010_0000});
+        assertTrue(grid.isObstacle(1, 0, 0));
+        assertTrue(grid.isObstacle(1, 1, 1));
+        assertFalse(grid.isObstacle(0, 0, 0));
+        assertEquals(2, grid.getObstacleCount());
+
+        // whole second z-layer via a run
+        grid.addObstacleRun(8, 8);
+        assertTrue(grid.isObstacle(0, 0, 1));
+        assertTrue(grid.isObstacle(3, 1, 1));
+        assertFalse(grid.isObstacle(3, 1, 0));
+        assertEquals(9, grid.getObstacleCount());
+
+        assertThrows(IllegalArgumentException.class, () -> grid.addObstacleRun(10, 7));
+        assertThrows(IllegalArgumentException.class, () -> grid.addObstacleBitmap(new byte[3]));
+    }
+
+    @Test
+    void packedBitmapShouldMatchOnSparseGrids() {
+        Grid dense = new Grid(3, 3, 3);
+        Grid sparse = new Grid(3_000, 3_000, 1); // 9M cells, so backed by the chunked store
+        byte[] bitmap = new byte[(3 * 3 * 3 + 7) / 8];
+        bitmap[0] = (byte) 0b1000_0001;  // cells 0 and 7
+        bitmap[3] = 0b0000_0100;         // cell 26
+        dense.addObstacleBitmap(bitmap);
+
+        assertTrue(dense.isObstacle(0, 0, 0));
+        assertTrue(dense.isObstacle(1, 2, 0));
+        assertTrue(dense.isObstacle(2, 2, 2));
+
+        // a run wraps from the end of row y=0 onto the start of row y=1
+        sparse.addObstacleRun(2_999, 2);
+        assertTrue(sparse.isObstacle(2_999, 0, 0));
+        assertTrue(sparse.isObstacle(0, 1, 0));
+        assertFalse(sparse.isObstacle(1, 1, 0));
+    }
+
+    @Test
+    void freeStepsShouldMatchCellByCellWalkInEveryDirection() {
+        Random random = new Random(7);
+        int size = 30;
+        Grid grid = new Grid(size, size, size);
+        for (int i = 0; i < 400; i++) grid.addObstacle(random.nextInt(size), random.nextInt(size), random.nextInt(size));
+        for (int r = 0; r < 10; r++) {
+            int x = random.nextInt(size), y = random.nextInt(size), z = random.nextInt(size);
+            grid.addObstacleRegion(x, y, z, Math.min(size - 1, x + 2), Math.min(size - 1, y + 2), z);
+        }
+        Grid layered = grid.freeze().layered();
+        for (int i = 0; i < 100; i++) layered.addObstacle(random.nextInt(size), random.nextInt(size), random.nextInt(size));
+
+        int[][] steps = {{1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1}};
+        for (Grid g : new Grid[]{grid, layered}) {
+            for (int i = 0; i < 2_000; i++) {
+                int x = random.nextInt(size), y = random.nextInt(size), z = random.nextInt(size);
+                int[] d = steps[random.nextInt(steps.length)];
+                int limit = random.nextInt(size + 5);
+                int expected = 0;
+                while (expected < limit) {
+                    int nx = x + d[0] * (expected + 1), ny = y + d[1] * (expected + 1), nz = z + d[2] * (expected + 1);
+                    if (!g.isWithinBounds(nx, ny, nz) || g.isObstacle(nx, ny, nz)) break;
+                    expected++;
+                }
+                assertEquals(expected, g.freeSteps(x, y, z, d[0], d[1], d[2], limit),
+                        "(" + x + "," + y + "," + z + ") step " + d[0] + "," + d[1] + "," + d[2] + " limit " + limit);
+            }
+        }
+    }
+
+    @Test
+    void freeStepsThroughManyRegionsShouldMatchCellByCellWalk() {
+        Random random = new Random(11);
+        int size = 200;
+        Grid grid = new Grid(size, size, size);
+        for (int r = 0; r < 500; r++) {
+            int x = random.nextInt(size), y = random.nextInt(size), z = random.nextInt(size);
+            grid.addObstacleRegion(x, y, z, Math.min(size - 1, x + random.nextInt(20)),
+                    Math.min(size - 1, y + random.nextInt(4)), Math.min(size - 1, z + random.nextInt(4)));
+        }
+
+        int[][] steps = {{1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1}};
+        for (int i = 0; i < 5_000; i++) {
+            int x = random.nextInt(size), y = random.nextInt(size), z = random.nextInt(size);
+            int[] d = steps[random.nextInt(steps.length)];
+            int limit = random.nextInt(size);
+            int expected = 0;
+            while (expected < limit) {
+                int nx = x + d[0] * (expected + 1), ny = y + d[1] * (expected + 1), nz = z + d[2] * (expected + 1);
+                if (!grid.isWithinBounds(nx, ny, nz) || grid.isObstacle(nx, ny, nz)) break;
+                expected++;
+            }
+            assertEquals(expected, grid.freeSteps(x, y, z, d[0], d[1], d[2], limit),
+                    "(" + x + "," + y + "," + z + ") step " + d[0] + "," + d[1] + "," + d[2] + " limit " + limit);
+        }
+    }
+
+    @Test
+    void mappedTerrainShouldRejectInvalidDimensions(@TempDir Path dir) {
+        Path zeroWidth = dir.resolve("zero-width");
+        MappedObstacleStore.write(zeroWidth, 0, 5, 5, new long[0]);
+        assertThrows(IllegalArgumentException.class, () -> MappedObstacleStore.open(zeroWidth));
+
+        Path tooLarge = dir.resolve("too-large");
+        MappedObstacleStore.write(tooLarge, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, new long[0]);
+        assertThrows(IllegalArgumentException.class, () -> MappedObstacleStore.open(tooLarge));
+
+        Path valid = dir.resolve("valid");
+        MappedObstacleStore.write(valid, 5, 5, 5, new long[]{MappedObstacleStore.cellKey(5, 5, 1, 2, 3)});
+        assertTrue(MappedObstacleStore.open(valid).contains(1, 2, 3));
+    }
+
+    @Test
+    void mappedTerrainShouldRejectUnsortedOrOutOfBoundsEntries(@TempDir Path dir) throws IOException {
+        Path outside = dir.resolve("outside");
+        MappedObstacleStore.write(outside, 5, 5, 5, new long[]{0, 125});
+        assertThrows(IllegalArgumentException.class, () -> MappedObstacleStore.open(outside));
+
+        // write() sorts its input, so swap the two entries in the file by hand
+        Path unsorted = dir.resolve("unsorted");
+        MappedObstacleStore.write(unsorted, 5, 5, 5, new long[]{1, 2});
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(unsorted)).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.putLong(32, 2).putLong(40, 1);
+        Files.write(unsorted, bytes.array());
+        assertThrows(IllegalArgumentException.class, () -> MappedObstacleStore.open(unsorted));
+    }
+
+    @Test
+    void freeStepsShouldSeeObstaclesAddedAfterAQuery() {
+        Grid grid = new Grid(100, 1, 1);
+        assertEquals(99, grid.freeSteps(0, 0, 0, 1, 0, 0, 1_000));
+        grid.addObstacle(40, 0, 0);
+        assertEquals(39, grid.freeSteps(0, 0, 0, 1, 0, 0, 1_000));
+        assertEquals(58, grid.freeSteps(99, 0, 0, -1, 0, 0, 1_000));
+        assertThrows(IllegalArgumentException.class, () -> grid.freeSteps(0, 0, 0, 1, 1, 0, 5));
+    }
 }
@@ -1,12 +1,19 @@
 package com.natwest.kata.submersible.test;
 
 import com.natwest.kata.submersible.domain.Grid;
+import com.natwest.kata.submersible.domain.PathRecorder;
 import com.natwest.kata.submersible.domain.Probe;
+import com.natwest.kata.submersible.domain.ProbeListener;
+import com.natwest.kata.submersible.domain.RunLengthPathRecorder;
 import com.natwest.kata.submersible.enums.Direction;
+import com.natwest.kata.submersible.enums.PathMode;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ProbeTest {
@@ -239,4 +246,99 @@ public class ProbeTest {
         down.turnRight();
         assertEquals(Direction.DOWN, down.getDirection());
     }
+
+    @Test
+    void shouldRecordLongPathsInOrder() {
+        Grid grid = new Grid(1, 100, 1);
+        Probe probe = new Probe(0, 0, 0, Direction.NORTH, grid);
+        for (int i = 0; i < 150; i++) probe.moveForward(); // blocked after y = 99
+
+        List<String> visited = probe.getVisitedCoordinates();
+        assertEquals(100, probe.getVisitedCount());
+        assertEquals(100, visited.size());
+        assertEquals("(0,0,0)", visited.get(0));
+        assertEquals("(0,57,0)", visited.get(57));
+        assertEquals("(0,99,0)", visited.get(99));
+        assertThrows(UnsupportedOperationException.class, () -> visited.add("(1,1,1)"));
+    }
+
+    private static Probe walkBackAndForth(PathMode mode, int size) {
+        // (0,0,0) -> (0,3,0) -> back to (0,0,0): 7 positions, 4 distinct
+        Probe probe = new Probe(0, 0, 0, Direction.NORTH, new Grid(5, 5, 5), PathRecorder.of(mode, size));
+        for (int i = 0; i < 3; i++) probe.moveForward();
+        for (int i = 0; i < 3; i++) probe.moveBackward();
+        return probe;
+    }
+
+    @Test
+    void shouldKeepPathAccordingToMode() {
+        assertEquals(List.of("(0,0,0)", "(0,1,0)", "(0,2,0)", "(0,3,0)", "(0,2,0)", "(0,1,0)", "(0,0,0)"),
+                walkBackAndForth(PathMode.FULL, 0).getVisitedCoordinates());
+        assertEquals(List.of(), walkBackAndForth(PathMode.NONE, 0).getVisitedCoordinates());
+        assertEquals(List.of("(0,0,0)", "(0,1,0)", "(0,2,0)", "(0,3,0)"),
+                walkBackAndForth(PathMode.DISTINCT, 0).getVisitedCoordinates());
+        assertEquals(List.of("(0,0,0)", "(0,3,0)", "(0,0,0)"),
+                walkBackAndForth(PathMode.SAMPLED, 3).getVisitedCoordinates());
+        assertEquals(List.of("(0,1,0)", "(0,0,0)"),
+                walkBackAndForth(PathMode.LAST_N, 2).getVisitedCoordinates());
+        assertEquals(7, walkBackAndForth(PathMode.NONE, 0).getVisitedCount());
+    }
+
+    @Test
+    void lastNShouldKeepOnlyTheMostRecentPositionsOnLongRuns() {
+        Probe probe = new Probe(0, 0, 0, Direction.NORTH, new Grid(1, 5_000, 1), PathRecorder.of(PathMode.LAST_N, 2_000));
+        for (int i = 0; i < 4_999; i++) probe.moveForward();
+
+        List<String> last = probe.getVisitedCoordinates();
+        assertEquals(2_000, last.size());
+        assertEquals("(0,3000,0)", last.get(0));
+        assertEquals("(0,4999,0)", last.get(1_999));
+    }
+
+    @Test
+    void runLengthPathShouldCollapseStraightLegsAndDecodeBack() {
+        Probe probe = walkBackAndForth(PathMode.RUN_LENGTH, 0);
+        probe.turnRight();
+        probe.moveForward();
+        probe.moveUp();
+
+        assertEquals("0,0,0+y3-y3+x1+z1", probe.getEncodedPath());
+        assertEquals(List.of(), probe.getVisitedCoordinates());
+        assertEquals(List.of("(0,0,0)", "(0,1,0)", "(0,2,0)", "(0,3,0)", "(0,2,0)", "(0,1,0)", "(0,0,0)", "(1,0,0)", "(1,0,1)"),
+                RunLengthPathRecorder.decode(probe.getEncodedPath()).asList());
+        assertNull(walkBackAndForth(PathMode.FULL, 0).getEncodedPath());
+    }
+
+    @Test
+    void runLengthDecodeShouldRejectMalformedPaths() {
+        assertThrows(IllegalArgumentException.class, () -> RunLengthPathRecorder.decode("0,0"));
+        assertThrows(IllegalArgumentException.class, () -> RunLengthPathRecorder.decode("0,0,0+w2"));
+        assertThrows(IllegalArgumentException.class, () -> RunLengthPathRecorder.decode("0,0,0+x"));
+    }
+
+    @Test
+    void listenerShouldHearMovesTurnsAndBlockedMoves() {
+        Grid grid = new Grid(5, 5, 5);
+        grid.addObstacle(0, 4, 0);
+        Probe probe = new Probe(0, 0, 0, Direction.NORTH, grid);
+        List<String> events = new ArrayList<>();
+        probe.setListener(new ProbeListener() {
+            @Override
+            public void moved(Probe p) { events.add("move " + p.getX() + "," + p.getY() + "," + p.getZ()); }
+            @Override
+            public void turned(Probe p) { events.add("turn " + p.getDirection()); }
+            @Override
+            public void blocked(Probe p, int moves) { events.add("blocked " + moves); }
+        });
+
+        probe.advance(true, 10);  // one straight run: stops before the obstacle at y = 4
+        probe.turnLeft();         // WEST
+        probe.moveForward();      // grid edge
+        probe.turnUp();
+        probe.turnUp();           // already UP: no event
+        probe.moveForward();
+        probe.turnLeft();         // vertical: no-op, no event
+
+        assertEquals(List.of("move 0,3,0", "blocked 7", "turn WEST", "blocked 1", "turn UP", "move 0,3,1"), events);
+    }
 }